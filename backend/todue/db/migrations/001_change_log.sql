@@ -0,0 +1,18 @@
+-- Sync cursor: a per-user sequence bumped on every write, and the log of what each bump touched
+-- (see SyncService)
+
+ALTER TABLE users
+    ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE change_log (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    seq BIGINT NOT NULL,
+    scope ENUM('ALL', 'LATER_LIST', 'RECURRING', 'ROUTINE', 'TODO_DATE') NOT NULL,
+    scope_date DATE,
+    scope_id BIGINT,
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    INDEX idx_change_log_user_seq (user_id, seq),
+    CONSTRAINT fk_change_log_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
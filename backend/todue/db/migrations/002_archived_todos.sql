@@ -0,0 +1,21 @@
+-- Cold storage for completed todos older than the archive window, and the per-user date up to
+-- which day views have to look there too (see TodoArchiveService)
+
+ALTER TABLE users
+    ADD COLUMN archived_through DATE;
+
+-- id keeps the todo's original id, so no AUTO_INCREMENT
+CREATE TABLE archived_todos (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    text VARCHAR(500) NOT NULL,
+    assigned_date DATE NOT NULL,
+    instance_date DATE NOT NULL,
+    position INT NOT NULL,
+    recurring_todo_id BIGINT,
+    completed_at DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_archived_user_assigned (user_id, assigned_date),
+    CONSTRAINT fk_archived_todo_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_archived_todo_recurring FOREIGN KEY (recurring_todo_id) REFERENCES recurring_todos(id) ON DELETE SET NULL
+) ENGINE=InnoDB;
@@ -0,0 +1,6 @@
+-- Recurrence interval ("every N days/weeks") and weekly weekday set. NULL keeps the old meaning
+-- (interval 1, the start date's weekday), so existing rows need no backfill.
+
+ALTER TABLE recurring_todos
+    ADD COLUMN recurrence_interval INT,
+    ADD COLUMN recurrence_days INT;
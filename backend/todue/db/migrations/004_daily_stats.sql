@@ -0,0 +1,18 @@
+-- Per-user daily activity counters, and when each user's counters were last rebuilt from history.
+-- NULL stats_backfilled_at makes DailyStatsService rebuild that user's counters.
+
+ALTER TABLE users
+    ADD COLUMN stats_backfilled_at DATETIME(6);
+
+CREATE TABLE daily_stats (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    completed_count INT NOT NULL,
+    created_count INT NOT NULL,
+    rolled_over_count INT NOT NULL,
+    routines_completed_count INT NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE INDEX uk_daily_stats_user_date (user_id, date),
+    CONSTRAINT fk_daily_stats_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
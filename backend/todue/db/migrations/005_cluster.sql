@@ -0,0 +1,29 @@
+-- Cluster mode: the WebSocket outbox relayed between nodes, each node's heartbeat and relay
+-- cursors, and the claims that let one node run each nightly job (see ClusterService).
+-- Needed even on a single node, since the schema is validated against every entity.
+
+CREATE TABLE websocket_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    origin_node VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_websocket_outbox_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+CREATE TABLE cluster_nodes (
+    node_id VARCHAR(100) NOT NULL,
+    outbox_cursor BIGINT NOT NULL,
+    change_log_cursor BIGINT NOT NULL,
+    started_at DATETIME(6) NOT NULL,
+    heartbeat_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (node_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE scheduled_job_runs (
+    run_id VARCHAR(100) NOT NULL,
+    node_id VARCHAR(100) NOT NULL,
+    claimed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (run_id)
+) ENGINE=InnoDB;
@@ -0,0 +1,5 @@
+-- Date through which each user's recurring instances are materialized (see RecurringHorizonService).
+-- NULL means unknown and reads compute the instances as before, so existing users need no backfill.
+
+ALTER TABLE users
+    ADD COLUMN recurring_horizon DATE;
@@ -0,0 +1,72 @@
+package com.ethan.todue.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+
+import java.util.Collection;
+
+/**
+ * Approximate retained size in bytes of a second-level cache entry, so the regions in
+ * application.conf are bounded by memory rather than by entry count: an entity with a 500
+ * character text weighs several times one with a short name.
+ *
+ * Entity entries are Hibernate's disassembled state (an array of column values), wrapped in a
+ * read-write Item; their sizes are summed from the values. Query result entries are opaque
+ * lists of ids and get a flat estimate. Errs on the high side, so the configured ceilings hold.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 8;
+    // Entity or collection key: id, role name reference, hash
+    private static final int ENTITY_KEY = 64;
+    // Query key: parameter bindings plus a reference to the shared SQL string
+    private static final int QUERY_KEY = 256;
+    // Query result: timestamp plus the list of ids or rows, typically a handful
+    private static final int QUERY_RESULT = 512;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        int keyWeight = key instanceof org.hibernate.cache.spi.QueryKey ? QUERY_KEY : ENTITY_KEY;
+        return keyWeight + weighValue(value);
+    }
+
+    private static int weighValue(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof AbstractReadWriteAccess.Item item) {
+            return OBJECT_HEADER + 3 * REFERENCE + weighValue(item.getValue());
+        }
+        if (value instanceof CacheEntry entry) {
+            return OBJECT_HEADER + 3 * REFERENCE + weighValue(entry.getDisassembledState());
+        }
+        if (value instanceof Object[] array) {
+            int weight = OBJECT_HEADER + array.length * REFERENCE;
+            for (Object element : array) {
+                weight += weighValue(element);
+            }
+            return weight;
+        }
+        if (value instanceof Collection<?> collection) {
+            int weight = OBJECT_HEADER * 2 + collection.size() * REFERENCE;
+            for (Object element : collection) {
+                weight += weighValue(element);
+            }
+            return weight;
+        }
+        if (value instanceof CharSequence text) {
+            // String object plus its byte array, up to two bytes per char
+            return OBJECT_HEADER * 2 + 8 + text.length() * 2;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Enum<?>
+                || value instanceof java.time.temporal.Temporal) {
+            return 24;
+        }
+        if (value.getClass().getName().startsWith("org.hibernate.cache.internal.QueryResultsCacheImpl")) {
+            return QUERY_RESULT;
+        }
+        return 64;
+    }
+}
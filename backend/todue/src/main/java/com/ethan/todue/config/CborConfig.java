@@ -0,0 +1,25 @@
+package com.ethan.todue.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * CBOR (application/cbor) as an alternative encoding of every REST response, for the mobile
+ * client. Clients opt in with "Accept: application/cbor"; JSON stays the default for everything
+ * else. The mapper comes from Boot's builder so spring.jackson.* (ISO dates, non-null inclusion)
+ * applies to both encodings alike.
+ *
+ * Registering the converter as a bean replaces the one Spring MVC would otherwise add with
+ * default mapper settings.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,61 @@
+package com.ethan.todue.config;
+
+import com.ethan.todue.websocket.EventReplay;
+import com.ethan.todue.websocket.WebSocketMessage;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.resend.services.emails.model.CreateEmailOptions;
+import com.resend.services.emails.model.CreateEmailResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reflection hints for the GraalVM native image (see the native profile in pom.xml).
+ *
+ * Spring's AOT pass already covers JPA entities, controller signatures and the STOMP/SockJS
+ * infrastructure. What it can't see are types Jackson only meets at runtime: WebSocket payloads
+ * (typed as Object), the export/import documents read through ObjectMapper, and the Resend
+ * request/response models; and the second-level cache setup, which Caffeine loads by name from
+ * application.conf. Only consulted during AOT processing, never on the JVM.
+ */
+@Configuration
+@ImportRuntimeHints({NativeHintsConfig.JsonTypeHints.class, NativeHintsConfig.CacheHints.class})
+public class NativeHintsConfig {
+
+    static class JsonTypeHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Every DTO (Lombok @Data classes, records, nested export types) - new ones are picked up
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+            scanner.addIncludeFilter((reader, factory) -> true);
+            for (BeanDefinition candidate : scanner.findCandidateComponents("com.ethan.todue.dto")) {
+                Class<?> type = ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader);
+                bindingHints.registerReflectionHints(hints.reflection(), type);
+            }
+
+            bindingHints.registerReflectionHints(hints.reflection(),
+                    WebSocketMessage.class, EventReplay.class, CreateEmailOptions.class, CreateEmailResponse.class);
+        }
+    }
+
+    static class CacheHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("application.conf");
+            hints.reflection().registerType(CacheEntryWeigher.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.reflection().registerType(CaffeineCachingProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ethan.todue.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Optional read/write split. When app.datasource.read.url is set, read-only transactions
+ * (@Transactional(readOnly = true) and the todo view reads) are served from a second pool
+ * pointing at that URL - a replica, or just another local MySQL/H2 instance - while everything
+ * else keeps using spring.datasource.*. Without the property Spring Boot's single pool is used.
+ *
+ * Only point this at a synchronous replica or the same server: a lagging replica means a view
+ * fetched right after a write can be stale.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.read.url")
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("todue-write");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.read.hikari")
+    public HikariDataSource readDataSource(DataSourceProperties properties,
+                                           @Value("${app.datasource.read.url}") String url,
+                                           @Value("${app.datasource.read.username:${spring.datasource.username}}") String username,
+                                           @Value("${app.datasource.read.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("todue-read");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource writeDataSource, HikariDataSource readDataSource) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(false, writeDataSource, true, readDataSource));
+        routing.setDefaultTargetDataSource(writeDataSource);
+        routing.afterPropertiesSet();
+
+        // The transaction manager grabs a connection before the read-only flag is bound to the
+        // thread, so defer the real lookup until the first statement actually runs
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Routes on the read-only flag of the current Spring-managed transaction.
+     */
+    static class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.ethan.todue.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background maintenance jobs (@Scheduled methods). They run on Spring's single
+ * scheduler thread, one at a time.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -64,9 +64,10 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/ws/**").permitAll()
+                .requestMatchers("/ws/**", "/ws-native").permitAll()
                 .requestMatchers("/error").permitAll()
                 .requestMatchers("/", "/index.html", "/assets/**", "/vite.svg").permitAll() // Explicitly permit static resources
+                .requestMatchers("/api/ops/**").hasRole("OPS") // Instance counters, app.ops.admin-emails only
                 .requestMatchers("/api/**").authenticated() // Secure all other API endpoints
                 .anyRequest().permitAll() // Allow static resources and frontend routes
             )
@@ -2,14 +2,18 @@ package com.ethan.todue.config;
 
 import com.ethan.todue.websocket.WebSocketAuthInterceptor;
 import com.ethan.todue.websocket.WebSocketChannelInterceptor;
+import com.ethan.todue.websocket.WebSocketSessionRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -18,16 +22,43 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${websocket.allowed-origins}")
     private String allowedOrigins;
 
+    @Value("${app.websocket.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Value("${app.websocket.transport.message-size-limit:16384}")
+    private int messageSizeLimit;
+
+    @Value("${app.websocket.transport.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.transport.send-buffer-size-limit:65536}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.transport.time-to-first-message-ms:15000}")
+    private int timeToFirstMessageMs;
+
     @Autowired
     private WebSocketAuthInterceptor webSocketAuthInterceptor;
 
     @Autowired
     private WebSocketChannelInterceptor webSocketChannelInterceptor;
 
+    @Autowired
+    private WebSocketSessionRegistry webSocketSessionRegistry;
+
+    // The scheduler the broker configuration itself defines (also used by SockJS)
+    @Autowired
+    @Lazy
+    private TaskScheduler messageBrokerTaskScheduler;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker for user-specific destinations
-        config.enableSimpleBroker("/user", "/topic");
+        // Enable a simple in-memory message broker for user-specific destinations. STOMP heartbeats
+        // keep connections without SockJS (which has its own) alive through proxies and let both
+        // sides notice a dead peer
+        config.enableSimpleBroker("/user", "/topic")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(messageBrokerTaskScheduler);
 
         // Set application destination prefix for messages from clients
         config.setApplicationDestinationPrefixes("/app");
@@ -43,6 +74,27 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOrigins(allowedOrigins.split(","))
                 .addInterceptors(webSocketAuthInterceptor)  // Add JWT authentication
                 .withSockJS();  // Enable SockJS fallback
+
+        // Plain WebSocket for native clients: no SockJS info request, framing or HTTP fallbacks
+        // holding connections open
+        registry.addEndpoint("/ws-native")
+                .setAllowedOrigins(allowedOrigins.split(","))
+                .addInterceptors(webSocketAuthInterceptor);
+
+        // Ahead of MVC, whose single-segment SPA route would otherwise take /ws-native
+        registry.setOrder(-1);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Per-connection limits: the largest inbound STOMP message, how long a send to a slow
+        // client may block and how much may queue up for it before the connection is closed, and
+        // how long a new connection may take to send CONNECT
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setTimeToFirstMessage(timeToFirstMessageMs)
+                .addDecoratorFactory(webSocketSessionRegistry);
     }
 
     @Override
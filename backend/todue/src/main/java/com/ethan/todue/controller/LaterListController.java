@@ -5,8 +5,11 @@ import com.ethan.todue.service.LaterListService;
 import com.ethan.todue.util.DeadlockRetry;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -15,6 +18,9 @@ import java.util.Map;
 @RequestMapping("/api/later-lists")
 public class LaterListController {
 
+    // Let clients keep the view but revalidate it with If-None-Match on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private LaterListService laterListService;
 
@@ -50,9 +56,13 @@ public class LaterListController {
     // ==================== Todo Endpoints ====================
 
     @GetMapping("/{listId}/todos")
-    public ResponseEntity<List<LaterListTodoResponse>> getTodosForList(@PathVariable Long listId) {
+    public ResponseEntity<List<LaterListTodoResponse>> getTodosForList(@PathVariable Long listId, WebRequest webRequest) {
+        String etag = laterListService.getTodosETag(listId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<LaterListTodoResponse> todos = laterListService.getTodosForList(listId);
-        return ResponseEntity.ok(todos);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).eTag(etag).body(todos);
     }
 
     @PostMapping("/{listId}/todos")
@@ -0,0 +1,86 @@
+package com.ethan.todue.controller;
+
+import com.ethan.todue.service.EntityCacheService;
+import com.ethan.todue.service.JanitorService;
+import com.ethan.todue.service.SearchService;
+import com.ethan.todue.util.DeadlockRetry;
+import com.ethan.todue.util.UserMutationSequencer;
+import com.ethan.todue.websocket.ClusterRelay;
+import com.ethan.todue.websocket.EventReplayBuffer;
+import com.ethan.todue.websocket.WebSocketDispatcher;
+import com.ethan.todue.websocket.WebSocketSessionRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide counters for keeping an eye on the running instance. No actuator in this
+ * deployment, so they are served as plain JSON, to the accounts listed in app.ops.admin-emails only.
+ */
+@RestController
+@RequestMapping("/api/ops")
+public class OpsController {
+
+    @Autowired
+    private JanitorService janitorService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    @Autowired
+    private ClusterRelay clusterRelay;
+
+    @Autowired
+    private WebSocketDispatcher webSocketDispatcher;
+
+    @Autowired
+    private EventReplayBuffer eventReplayBuffer;
+
+    @Autowired
+    private WebSocketSessionRegistry webSocketSessionRegistry;
+
+    @GetMapping("/mutations")
+    public ResponseEntity<Map<String, Object>> getMutationStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sequenced", UserMutationSequencer.getSequencedCount());
+        stats.put("waited", UserMutationSequencer.getWaitedCount());
+        stats.put("activeUsers", UserMutationSequencer.getActiveUserCount());
+        stats.put("lockRetries", DeadlockRetry.getRetryCount());
+        stats.put("lockRetriesExhausted", DeadlockRetry.getExhaustedCount());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/janitor")
+    public ResponseEntity<Map<String, Object>> getJanitorStats() {
+        return ResponseEntity.ok(janitorService.getStats());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> getSearchStats() {
+        return ResponseEntity.ok(searchService.getStats());
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(entityCacheService.getStats());
+    }
+
+    @GetMapping("/cluster")
+    public ResponseEntity<Map<String, Object>> getClusterStats() {
+        return ResponseEntity.ok(clusterRelay.getStats());
+    }
+
+    @GetMapping("/websocket")
+    public ResponseEntity<Map<String, Object>> getWebSocketStats() {
+        Map<String, Object> stats = webSocketDispatcher.getStats();
+        stats.put("replayBufferedUsers", eventReplayBuffer.size());
+        stats.put("sessions", webSocketSessionRegistry.getStats());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -5,8 +5,11 @@ import com.ethan.todue.service.RoutineService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -16,6 +19,9 @@ import java.util.Map;
 @RequestMapping("/api/routines")
 public class RoutineController {
 
+    // Let clients keep the view but revalidate it with If-None-Match on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private RoutineService routineService;
 
@@ -28,9 +34,13 @@ public class RoutineController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<RoutineDetailResponse> getRoutineDetail(@PathVariable Long id) {
+    public ResponseEntity<RoutineDetailResponse> getRoutineDetail(@PathVariable Long id, WebRequest webRequest) {
+        String etag = routineService.getRoutineDetailETag(id);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         RoutineDetailResponse routine = routineService.getRoutineDetail(id);
-        return ResponseEntity.ok(routine);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).eTag(etag).body(routine);
     }
 
     @PostMapping
@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 public class SpaController {
 
     // Forward any path that doesn't contain a dot (file extension) and isn't /api or /ws to index.html
+    // (the WebSocket endpoints' handler mapping is ordered ahead of this one, see WebSocketConfig)
     @RequestMapping(value = "/{path:[^\\.]*}")
     public String redirect() {
         return "forward:/index.html";
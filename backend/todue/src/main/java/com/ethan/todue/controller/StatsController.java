@@ -0,0 +1,27 @@
+package com.ethan.todue.controller;
+
+import com.ethan.todue.dto.StatsResponse;
+import com.ethan.todue.service.DailyStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    // Defaults to the year up to and including today
+    @GetMapping
+    public ResponseEntity<StatsResponse> getStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        return ResponseEntity.ok(dailyStatsService.getStats(startDate, endDate));
+    }
+}
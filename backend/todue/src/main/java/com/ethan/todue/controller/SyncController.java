@@ -0,0 +1,20 @@
+package com.ethan.todue.controller;
+
+import com.ethan.todue.dto.SyncResponse;
+import com.ethan.todue.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(@RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(syncService.getChangesSince(since));
+    }
+}
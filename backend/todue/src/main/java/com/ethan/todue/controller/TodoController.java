@@ -1,6 +1,7 @@
 package com.ethan.todue.controller;
 
 import com.ethan.todue.dto.CreateTodoRequest;
+import com.ethan.todue.dto.TodoBatchRequest;
 import com.ethan.todue.dto.TodoResponse;
 import com.ethan.todue.dto.UpdateAssignedDateRequest;
 import com.ethan.todue.dto.UpdateTodoPositionRequest;
@@ -11,8 +12,11 @@ import com.ethan.todue.util.DeadlockRetry;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -22,6 +26,9 @@ import java.util.Map;
 @RequestMapping("/api/todos")
 public class TodoController {
 
+    // Let clients keep the view but revalidate it with If-None-Match on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private TodoService todoService;
 
@@ -36,17 +43,33 @@ public class TodoController {
     public ResponseEntity<List<TodoResponse>> getTodos(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest webRequest
     ) {
         if (date != null) {
-            return ResponseEntity.ok(todoService.getTodosForDate(date));
+            String etag = todoService.getTodosETag(date, date);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).eTag(etag).body(todoService.getTodosForDate(date));
         } else if (startDate != null && endDate != null) {
-            return ResponseEntity.ok(todoService.getTodosForDateRange(startDate, endDate));
+            String etag = todoService.getTodosETag(startDate, endDate);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).eTag(etag).body(todoService.getTodosForDateRange(startDate, endDate));
         } else {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<TodoResponse>> applyBatch(@Valid @RequestBody TodoBatchRequest request) {
+        List<TodoResponse> results = DeadlockRetry.execute(() ->
+                todoService.applyBatch(request.getOperations()));
+        return ResponseEntity.ok(results);
+    }
+
     @PutMapping("/{id}/text")
     public ResponseEntity<TodoResponse> updateTodoText(
             @PathVariable Long id,
@@ -8,6 +8,7 @@ import com.ethan.todue.model.User;
 import com.ethan.todue.service.ExportService;
 import com.ethan.todue.service.ImportService;
 import com.ethan.todue.service.UserService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,11 +23,12 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    // Resolved on use: export/import are rare, built on first request instead of at startup
     @Autowired
-    private ExportService exportService;
+    private ObjectProvider<ExportService> exportService;
 
     @Autowired
-    private ImportService importService;
+    private ObjectProvider<ImportService> importService;
 
     @GetMapping("/me")
     public ResponseEntity<UserResponse> getCurrentUser() {
@@ -88,13 +90,13 @@ public class UserController {
 
     @GetMapping("/export")
     public ResponseEntity<TodueExportDto> exportData() {
-        TodueExportDto exportData = exportService.exportUserData();
+        TodueExportDto exportData = exportService.getObject().exportUserData();
         return ResponseEntity.ok(exportData);
     }
 
     @PostMapping("/import")
     public ResponseEntity<ImportResponse> importData(@RequestBody ImportRequest request) {
-        ImportResponse response = importService.importData(request);
+        ImportResponse response = importService.getObject().importData(request);
         return ResponseEntity.ok(response);
     }
 }
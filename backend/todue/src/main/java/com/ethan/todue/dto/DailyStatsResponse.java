@@ -0,0 +1,19 @@
+package com.ethan.todue.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyStatsResponse {
+    // A day, or the Monday starting a week in StatsResponse.weeks
+    private LocalDate date;
+    private Integer completed = 0;
+    private Integer created = 0;
+    private Integer rolledOver = 0;
+    private Integer routinesCompleted = 0;
+}
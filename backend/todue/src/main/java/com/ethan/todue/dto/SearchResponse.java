@@ -0,0 +1,29 @@
+package com.ethan.todue.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchResponse {
+    // Newest assigned date first; live and archived todos, not virtual recurring instances
+    private List<TodoResponse> todos = new ArrayList<>();
+    private List<LaterListMatch> laterListTodos = new ArrayList<>();
+    // Totals before the limit was applied
+    private Integer todoMatches = 0;
+    private Integer laterListTodoMatches = 0;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class LaterListMatch {
+        private Long listId;
+        private String listName;
+        private LaterListTodoResponse todo;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ethan.todue.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatsResponse {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    // Only days with any activity, oldest first - a missing day is all zeros
+    private List<DailyStatsResponse> days = new ArrayList<>();
+    // Every week (Monday to Sunday) overlapping the range, oldest first
+    private List<DailyStatsResponse> weeks = new ArrayList<>();
+    // Sums over the whole range, date is the start date
+    private DailyStatsResponse totals;
+}
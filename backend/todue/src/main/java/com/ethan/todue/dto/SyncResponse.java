@@ -0,0 +1,30 @@
+package com.ethan.todue.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncResponse {
+    // Pass back as ?since= on the next sync
+    private Long cursor;
+    // Cursor unknown or too old - discard local state and refetch everything
+    private Boolean fullResync = false;
+    // Recurring patterns changed - refetch visible dates to regenerate virtual todos
+    private Boolean recurringChanged = false;
+    // Current todos (including virtuals) of every changed date
+    private Map<LocalDate, List<TodoResponse>> todos = new LinkedHashMap<>();
+    private List<LaterListResponse> laterLists = new ArrayList<>();
+    private Map<Long, List<LaterListTodoResponse>> laterListTodos = new LinkedHashMap<>();
+    private List<Long> deletedLaterListIds = new ArrayList<>();
+    private List<RoutineDetailResponse> routines = new ArrayList<>();
+    private List<Long> deletedRoutineIds = new ArrayList<>();
+}
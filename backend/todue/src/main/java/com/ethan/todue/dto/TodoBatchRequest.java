@@ -0,0 +1,54 @@
+package com.ethan.todue.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoBatchRequest {
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 200, message = "A batch can contain at most 200 operations")
+    @Valid
+    private List<Operation> operations;
+
+    public enum OperationType {
+        CREATE,       // text, assignedDate, optional position
+        UPDATE_TEXT,  // target, text
+        COMPLETE,     // target
+        UNCOMPLETE,   // id
+        MOVE,         // target, toDate
+        REORDER,      // target, position
+        DELETE        // target, optional deleteAllFuture
+    }
+
+    /**
+     * One operation. The target is either a real todo (id) or a virtual one
+     * (recurringTodoId + instanceDate), exactly like the single-operation endpoints.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Operation {
+        @NotNull(message = "Operation type is required")
+        private OperationType type;
+
+        private Long id;
+        private Long recurringTodoId;
+        private LocalDate instanceDate;
+
+        private String text;
+        private LocalDate assignedDate;
+        private LocalDate toDate;
+        private Integer position;
+        private Boolean deleteAllFuture;
+    }
+}
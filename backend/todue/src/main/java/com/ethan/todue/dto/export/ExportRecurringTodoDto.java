@@ -14,4 +14,6 @@ public class ExportRecurringTodoDto {
     private String recurrenceType;
     private String startDate;
     private String endDate;
+    private Integer recurrenceInterval; // null = 1
+    private Integer recurrenceDays;     // weekday bitmask, bit 0 = Monday; null = start date's weekday
 }
@@ -36,6 +36,17 @@ public class GlobalExceptionHandler {
                 .body(Map.of("message", "The data was modified by another request. Please try again."));
     }
 
+    @ExceptionHandler(UserBusyException.class)
+    public ResponseEntity<Map<String, String>> handleUserBusy(UserBusyException ex) {
+        // The user's earlier writes are still queued - nothing was changed, so a retry is safe
+        HttpHeaders headers = jsonHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .headers(headers)
+                .body(Map.of("message", ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGeneralException(Exception ex) {
         return ResponseEntity
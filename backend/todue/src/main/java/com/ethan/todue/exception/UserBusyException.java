@@ -0,0 +1,12 @@
+package com.ethan.todue.exception;
+
+/**
+ * A write gave up queueing behind the same user's earlier writes (see UserMutationSequencer).
+ * Nothing was changed, so the client can simply retry.
+ */
+public class UserBusyException extends RuntimeException {
+
+    public UserBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ethan.todue.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Cold copy of a completed todo that is older than the archive horizon (see TodoArchiveService).
+ * Keeps the id it had in todos so clients holding it keep working, and only the columns a
+ * completed todo still needs - no version, flags or audit timestamps.
+ */
+@Entity
+@Table(name = "archived_todos", indexes = {
+    @Index(name = "idx_archived_user_assigned", columnList = "user_id, assigned_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTodo {
+
+    @Id
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_archived_todo_user",
+        foreignKeyDefinition = "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE"))
+    private User user;
+
+    @NotNull
+    @Column(nullable = false, length = 500)
+    private String text;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalDate assignedDate;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalDate instanceDate;
+
+    @Column(nullable = false)
+    private Integer position = 0;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recurring_todo_id", foreignKey = @ForeignKey(name = "fk_archived_todo_recurring",
+        foreignKeyDefinition = "FOREIGN KEY (recurring_todo_id) REFERENCES recurring_todos(id) ON DELETE SET NULL"))
+    private RecurringTodo recurringTodo;
+
+    @Column
+    private Instant completedAt;
+}
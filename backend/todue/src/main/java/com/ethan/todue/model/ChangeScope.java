@@ -0,0 +1,9 @@
+package com.ethan.todue.model;
+
+public enum ChangeScope {
+    TODO_DATE,   // todos on one date (scopeDate)
+    RECURRING,   // recurring patterns - virtual todos on every date may differ
+    LATER_LIST,  // one later list and its todos (scopeId)
+    ROUTINE,     // one routine with its steps and schedules (scopeId)
+    ALL          // anything may have changed (e.g. import) - client must resync fully
+}
@@ -0,0 +1,37 @@
+package com.ethan.todue.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One running instance in cluster mode and how far its relay has read the outbox and the change
+ * feed. Written by the node itself every few seconds; a node whose heartbeat is older than
+ * app.cluster.node-timeout-seconds counts as gone and no longer holds back outbox pruning.
+ */
+@Entity
+@Table(name = "cluster_nodes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterNode {
+
+    @Id
+    @Column(length = 100)
+    private String nodeId;
+
+    @Column(nullable = false)
+    private Long outboxCursor;
+
+    @Column(nullable = false)
+    private Long changeLogCursor;
+
+    @Column(nullable = false, columnDefinition = "DATETIME(6)")
+    private Instant startedAt;
+
+    @Column(nullable = false, columnDefinition = "DATETIME(6)")
+    private Instant heartbeatAt;
+}
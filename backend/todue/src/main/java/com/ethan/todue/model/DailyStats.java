@@ -0,0 +1,53 @@
+package com.ethan.todue.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A user's activity counters for one day of their own calendar, kept up to date by the writes
+ * that change them (see DailyStatsService) so stats never scan todos or routine history.
+ * Counters record events: finishing a todo and later deleting it still counts as finished.
+ */
+@Entity
+@Table(name = "daily_stats", indexes = {
+    @Index(name = "uk_daily_stats_user_date", columnList = "user_id, date", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_daily_stats_user",
+        foreignKeyDefinition = "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE"))
+    private User user;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalDate date;
+
+    // Todos marked complete that day, less those uncompleted again
+    @Column(nullable = false)
+    private Integer completedCount = 0;
+
+    // Todos and recurring todos added that day
+    @Column(nullable = false)
+    private Integer createdCount = 0;
+
+    // Unfinished todos carried over onto that day
+    @Column(nullable = false)
+    private Integer rolledOverCount = 0;
+
+    @Column(nullable = false)
+    private Integer routinesCompletedCount = 0;
+}
@@ -0,0 +1,46 @@
+package com.ethan.todue.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * A WebSocket notification as committed by the transaction that caused it, for the other nodes
+ * of a cluster to relay to their own STOMP sessions (see ClusterRelay). The node that wrote it
+ * delivers it to its sessions directly. Rows are pruned once every live node has read past them.
+ */
+@Entity
+@Table(name = "websocket_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_websocket_outbox_user",
+        foreignKeyDefinition = "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE"))
+    private User user;
+
+    @NotNull
+    @Column(nullable = false, length = 100)
+    private String originNode;
+
+    // The WebSocketMessage as JSON, timestamp included
+    @NotNull
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false, columnDefinition = "DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6)")
+    private Instant createdAt;
+}
@@ -3,7 +3,7 @@ package com.ethan.todue.model;
 public enum RecurrenceType {
     DAILY,      // every day
     WEEKLY,     // every week
-    BIWEEKLY,   // every other week
+    BIWEEKLY,   // every other week - older rows only, new ones are WEEKLY with interval 2
     MONTHLY,    // every month
     YEARLY      // every year
 }
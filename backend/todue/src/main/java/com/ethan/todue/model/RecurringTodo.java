@@ -5,6 +5,8 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,6 +14,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recurring-todos")
 @Table(name = "recurring_todos", indexes = {
     @Index(name = "idx_user_id", columnList = "user_id"),
     @Index(name = "idx_user_end_date", columnList = "user_id, end_date")
@@ -40,6 +43,14 @@ public class RecurringTodo {
     @Column(nullable = false, length = 20)
     private RecurrenceType recurrenceType;
 
+    // Every N days/weeks for DAILY and WEEKLY - NULL means 1
+    @Column
+    private Integer recurrenceInterval;
+
+    // WEEKLY weekday set, bit 0 = Monday ... bit 6 = Sunday - NULL means the start date's weekday
+    @Column
+    private Integer recurrenceDays;
+
     @NotNull
     @Column(nullable = false)
     private LocalDate startDate;
@@ -0,0 +1,31 @@
+package com.ethan.todue.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Claim on one run of a nightly job in cluster mode: every node's scheduler fires, the node that
+ * inserts the row for the run does the work (see ClusterService.claimScheduledRun).
+ */
+@Entity
+@Table(name = "scheduled_job_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledJobRun {
+
+    // Job name and run date, e.g. "janitor@2025-01-31"
+    @Id
+    @Column(length = 100)
+    private String runId;
+
+    @Column(nullable = false, length = 100)
+    private String nodeId;
+
+    @Column(nullable = false, columnDefinition = "DATETIME(6)")
+    private Instant claimedAt;
+}
@@ -5,12 +5,15 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "skip-recurring")
 @Table(name = "skip_recurring",
     uniqueConstraints = {
         @UniqueConstraint(name = "uk_recurring_skip_date", columnNames = {"recurring_todo_id", "skip_date"})
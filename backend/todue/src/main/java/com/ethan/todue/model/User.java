@@ -10,6 +10,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
+import java.time.LocalDate;
 
 @Entity
 @Table(name = "users", indexes = {
@@ -49,6 +50,26 @@ public class User {
     @Column
     private Instant lastRolloverDate;
 
+    // Sync cursor - only advanced by UserRepository.incrementChangeSeq, never written by entity updates
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long changeSeq;
+
+    // Dates up to and including this one may have todos in archived_todos - only advanced by
+    // UserRepository.advanceArchivedThrough, never written by entity updates
+    @Column(insertable = false, updatable = false)
+    private LocalDate archivedThrough;
+
+    // When daily_stats was last rebuilt from history, null until then - only written by
+    // UserRepository.markStatsBackfilled / clearStatsBackfilled
+    @Column(insertable = false, updatable = false)
+    private Instant statsBackfilledAt;
+
+    // Every recurring instance due from the user's current date through this one has its todos row
+    // (or a skip), null when unknown - only written by UserRepository.claimRecurringHorizon,
+    // extendRecurringHorizon and clearRecurringHorizon (see RecurringHorizonService)
+    @Column(insertable = false, updatable = false)
+    private LocalDate recurringHorizon;
+
     @UpdateTimestamp
     @Column(nullable = false, columnDefinition = "DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
     private Instant updatedAt;
@@ -0,0 +1,83 @@
+package com.ethan.todue.repository;
+
+import com.ethan.todue.dto.TodoResponse;
+import com.ethan.todue.model.ArchivedTodo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedTodoRepository extends JpaRepository<ArchivedTodo, Long> {
+
+    // Archived todos are completed and never rolled over
+    @Query("SELECT new com.ethan.todue.dto.TodoResponse(a.id, a.text, a.assignedDate, a.instanceDate, a.position, " +
+           "a.recurringTodo.id, TRUE, a.completedAt, FALSE, FALSE) FROM ArchivedTodo a WHERE a.user.id = :userId " +
+           "AND a.assignedDate BETWEEN :startDate AND :endDate ORDER BY a.assignedDate ASC, a.position ASC, a.id ASC")
+    List<TodoResponse> findResponsesByUserIdAndAssignedDateBetween(
+        @Param("userId") Long userId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT new com.ethan.todue.dto.TodoResponse(a.id, a.text, a.assignedDate, a.instanceDate, a.position, " +
+           "a.recurringTodo.id, TRUE, a.completedAt, FALSE, FALSE) FROM ArchivedTodo a WHERE a.user.id = :userId " +
+           "AND a.assignedDate IN :dates ORDER BY a.assignedDate ASC, a.position ASC, a.id ASC")
+    List<TodoResponse> findResponsesByUserIdAndAssignedDateIn(@Param("userId") Long userId, @Param("dates") Collection<LocalDate> dates);
+
+    @Query("SELECT COALESCE(MAX(a.position), 0) FROM ArchivedTodo a WHERE a.user.id = :userId AND a.assignedDate = :date")
+    int findMaxPosition(@Param("userId") Long userId, @Param("date") LocalDate date);
+
+    List<ArchivedTodo> findByUserId(Long userId);
+
+    @Query("SELECT a.id AS id, a.text AS text, a.assignedDate AS assignedDate FROM ArchivedTodo a " +
+           "WHERE a.user.id = :userId ORDER BY a.id ASC")
+    List<TodoRepository.SearchRow> findSearchRows(@Param("userId") Long userId);
+
+    @Query("SELECT a.id AS id, a.text AS text, a.assignedDate AS assignedDate FROM ArchivedTodo a " +
+           "WHERE a.user.id = :userId AND a.assignedDate IN :dates ORDER BY a.id ASC")
+    List<TodoRepository.SearchRow> findSearchRowsByDates(@Param("userId") Long userId, @Param("dates") Collection<LocalDate> dates);
+
+    // Keyset scan for the archive job - walks todos in primary key order, one batch at a time
+    @Query(value = "SELECT id FROM todos WHERE id > :afterId AND is_completed = TRUE AND assigned_date < :cutoff " +
+                   "ORDER BY id LIMIT :batchSize", nativeQuery = true)
+    List<Long> findArchivableTodoIds(
+        @Param("afterId") Long afterId,
+        @Param("cutoff") LocalDate cutoff,
+        @Param("batchSize") int batchSize
+    );
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "archived_todos"))
+    @Query(value = "INSERT INTO archived_todos (id, user_id, text, assigned_date, instance_date, position, recurring_todo_id, completed_at) " +
+                   "SELECT id, user_id, text, assigned_date, instance_date, position, recurring_todo_id, completed_at " +
+                   "FROM todos WHERE id IN (:ids) AND is_completed = TRUE", nativeQuery = true)
+    int copyFromTodos(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todos"))
+    @Query(value = "DELETE FROM todos WHERE id IN (:ids) AND is_completed = TRUE", nativeQuery = true)
+    int deleteFromTodos(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todos"))
+    @Query(value = "INSERT INTO todos (id, user_id, text, assigned_date, instance_date, position, recurring_todo_id, " +
+                   "is_completed, completed_at, is_rolled_over, version, created_at, updated_at) " +
+                   "SELECT id, user_id, text, assigned_date, instance_date, position, recurring_todo_id, " +
+                   "TRUE, completed_at, FALSE, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+                   "FROM archived_todos WHERE id = :id AND user_id = :userId", nativeQuery = true)
+    int copyToTodos(@Param("userId") Long userId, @Param("id") Long id);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "archived_todos"))
+    @Query(value = "DELETE FROM archived_todos WHERE id = :id", nativeQuery = true)
+    int deleteArchived(@Param("id") Long id);
+}
@@ -0,0 +1,61 @@
+package com.ethan.todue.repository;
+
+import com.ethan.todue.model.ChangeLogEntry;
+import com.ethan.todue.model.ChangeScope;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    interface RelayRow {
+        Long getId();
+        Long getUserId();
+        ChangeScope getScope();
+        LocalDate getScopeDate();
+        Long getScopeId();
+    }
+
+    @Query("SELECT c FROM ChangeLogEntry c WHERE c.user.id = :userId AND c.seq > :since AND c.seq <= :upTo ORDER BY c.seq ASC")
+    List<ChangeLogEntry> findByUserIdAndSeqRange(@Param("userId") Long userId, @Param("since") Long since, @Param("upTo") Long upTo);
+
+    @Query("SELECT MIN(c.seq) FROM ChangeLogEntry c WHERE c.user.id = :userId")
+    Long findOldestSeqByUserId(@Param("userId") Long userId);
+
+    // Keyset scan for JanitorService. A seq is only pruned as a whole (all its rows older than the
+    // cutoff), so what remains of a user's feed is always a gapless suffix.
+    @Query(value = "SELECT c.id FROM change_log c WHERE c.id > :afterId AND c.created_at < :cutoff " +
+                   "AND NOT EXISTS (SELECT 1 FROM change_log n WHERE n.user_id = c.user_id AND n.seq = c.seq AND n.created_at >= :cutoff) " +
+                   "ORDER BY c.id LIMIT :batchSize", nativeQuery = true)
+    List<Long> findPrunableIds(@Param("afterId") Long afterId, @Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = "DELETE FROM change_log WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    // Tail of the whole feed in insert order, for ClusterRelay to invalidate other nodes' views
+
+    @Query("SELECT c.id AS id, c.user.id AS userId, c.scope AS scope, c.scopeDate AS scopeDate, c.scopeId AS scopeId " +
+           "FROM ChangeLogEntry c WHERE c.id > :afterId ORDER BY c.id")
+    List<RelayRow> findRelayRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT c.id AS id, c.user.id AS userId, c.scope AS scope, c.scopeDate AS scopeDate, c.scopeId AS scopeId " +
+           "FROM ChangeLogEntry c WHERE c.id IN :ids ORDER BY c.id")
+    List<RelayRow> findRelayRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM ChangeLogEntry c")
+    Long findMaxId();
+}
@@ -0,0 +1,76 @@
+package com.ethan.todue.repository;
+
+import com.ethan.todue.dto.DailyStatsResponse;
+import com.ethan.todue.model.DailyStats;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyStatsRepository extends JpaRepository<DailyStats, Long> {
+
+    interface DateCount {
+        LocalDate getDate();
+        Long getCount();
+    }
+
+    // One row per user and day, created on first use; counters never drop below zero (an
+    // uncomplete of a todo finished before the counters were backfilled has nothing to undo)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_stats"))
+    @Query(value = "INSERT INTO daily_stats (user_id, date, completed_count, created_count, rolled_over_count, routines_completed_count) " +
+                   "VALUES (:userId, :date, GREATEST(:completed, 0), GREATEST(:created, 0), GREATEST(:rolledOver, 0), GREATEST(:routinesCompleted, 0)) " +
+                   "ON DUPLICATE KEY UPDATE completed_count = GREATEST(completed_count + :completed, 0), " +
+                   "created_count = GREATEST(created_count + :created, 0), " +
+                   "rolled_over_count = GREATEST(rolled_over_count + :rolledOver, 0), " +
+                   "routines_completed_count = GREATEST(routines_completed_count + :routinesCompleted, 0)", nativeQuery = true)
+    void increment(@Param("userId") Long userId, @Param("date") LocalDate date, @Param("completed") int completed,
+                   @Param("created") int created, @Param("rolledOver") int rolledOver,
+                   @Param("routinesCompleted") int routinesCompleted);
+
+    // Range scan of uk_daily_stats_user_date
+    @Query("SELECT new com.ethan.todue.dto.DailyStatsResponse(s.date, s.completedCount, s.createdCount, " +
+           "s.rolledOverCount, s.routinesCompletedCount) FROM DailyStats s " +
+           "WHERE s.user.id = :userId AND s.date BETWEEN :startDate AND :endDate ORDER BY s.date")
+    List<DailyStatsResponse> findResponsesByUserIdAndDateBetween(@Param("userId") Long userId,
+                                                                 @Param("startDate") LocalDate startDate,
+                                                                 @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM DailyStats s WHERE s.user.id = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+
+    // Backfill sources - what the rest of the schema still knows about a user's past days.
+    // Timestamps come back raw because their day depends on the user's timezone.
+
+    @Query("SELECT t.completedAt FROM Todo t WHERE t.user.id = :userId AND t.isCompleted = TRUE AND t.completedAt IS NOT NULL")
+    List<Instant> findTodoCompletedAtByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT a.completedAt FROM ArchivedTodo a WHERE a.user.id = :userId AND a.completedAt IS NOT NULL")
+    List<Instant> findArchivedTodoCompletedAtByUserId(@Param("userId") Long userId);
+
+    // Materialized recurring instances were not added by the user, their pattern was
+    @Query("SELECT t.createdAt FROM Todo t WHERE t.user.id = :userId AND t.recurringTodo IS NULL")
+    List<Instant> findTodoCreatedAtByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT r.createdAt FROM RecurringTodo r WHERE r.user.id = :userId")
+    List<Instant> findRecurringTodoCreatedAtByUserId(@Param("userId") Long userId);
+
+    // Still flagged (moving a todo by hand clears the flag), counted on the day it sits on
+    @Query("SELECT t.assignedDate AS date, COUNT(t) AS count FROM Todo t " +
+           "WHERE t.user.id = :userId AND t.isRolledOver = TRUE GROUP BY t.assignedDate")
+    List<DateCount> countRolledOverByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT c.date AS date, COUNT(c) AS count FROM RoutineCompletion c " +
+           "WHERE c.user.id = :userId AND c.status = com.ethan.todue.model.RoutineCompletionStatus.COMPLETED GROUP BY c.date")
+    List<DateCount> countRoutinesCompletedByUserId(@Param("userId") Long userId);
+}
@@ -1,8 +1,12 @@
 package com.ethan.todue.repository;
 
+import com.ethan.todue.dto.LaterListResponse;
 import com.ethan.todue.model.LaterList;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,6 +19,11 @@ public interface LaterListRepository extends JpaRepository<LaterList, Long> {
     @Query("SELECT l FROM LaterList l WHERE l.user.id = :userId ORDER BY l.listName ASC")
     List<LaterList> findByUserIdOrderByListName(@Param("userId") Long userId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.ethan.todue.dto.LaterListResponse(l.id, l.listName) FROM LaterList l " +
+           "WHERE l.user.id = :userId ORDER BY l.listName ASC")
+    List<LaterListResponse> findResponsesByUserId(@Param("userId") Long userId);
+
     @Query("SELECT l FROM LaterList l WHERE l.user.id = :userId AND l.listName = :listName")
     Optional<LaterList> findByUserIdAndListName(@Param("userId") Long userId, @Param("listName") String listName);
 
@@ -1,5 +1,6 @@
 package com.ethan.todue.repository;
 
+import com.ethan.todue.dto.LaterListTodoResponse;
 import com.ethan.todue.model.LaterListTodo;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,6 +19,10 @@ public interface LaterListTodoRepository extends JpaRepository<LaterListTodo, Lo
     @Query("SELECT t FROM LaterListTodo t WHERE t.list.id = :listId ORDER BY t.position ASC")
     List<LaterListTodo> findByListIdOrderByPosition(@Param("listId") Long listId);
 
+    @Query("SELECT new com.ethan.todue.dto.LaterListTodoResponse(t.id, t.text, t.isCompleted, t.completedAt, t.position) " +
+           "FROM LaterListTodo t WHERE t.list.id = :listId ORDER BY t.position ASC")
+    List<LaterListTodoResponse> findResponsesByListId(@Param("listId") Long listId);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT t FROM LaterListTodo t WHERE t.list.id = :listId ORDER BY t.position ASC")
     List<LaterListTodo> findByListIdOrderByPositionForUpdate(@Param("listId") Long listId);
@@ -27,4 +33,21 @@ public interface LaterListTodoRepository extends JpaRepository<LaterListTodo, Lo
 
     @Query("SELECT COALESCE(MAX(t.position), 0) FROM LaterListTodo t WHERE t.list.id = :listId")
     Integer findMaxPosition(@Param("listId") Long listId);
+
+    @Query("SELECT t.id AS id, t.text AS text, t.list.id AS listId FROM LaterListTodo t " +
+           "WHERE t.list.user.id = :userId ORDER BY t.id ASC")
+    List<SearchRow> findSearchRows(@Param("userId") Long userId);
+
+    @Query("SELECT t.id AS id, t.text AS text, t.list.id AS listId FROM LaterListTodo t " +
+           "WHERE t.list.user.id = :userId AND t.list.id IN :listIds ORDER BY t.id ASC")
+    List<SearchRow> findSearchRowsByListIds(@Param("userId") Long userId, @Param("listIds") Collection<Long> listIds);
+
+    @Query("SELECT t FROM LaterListTodo t JOIN FETCH t.list l WHERE t.id IN :ids AND l.user.id = :userId")
+    List<LaterListTodo> findByIdsWithList(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    interface SearchRow {
+        Long getId();
+        String getText();
+        Long getListId();
+    }
 }
@@ -0,0 +1,45 @@
+package com.ethan.todue.repository;
+
+import com.ethan.todue.model.OutboxMessage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    interface RelayRow {
+        Long getId();
+        Long getUserId();
+        String getOriginNode();
+        String getPayload();
+    }
+
+    @Query("SELECT o.id AS id, o.user.id AS userId, o.originNode AS originNode, o.payload AS payload " +
+           "FROM OutboxMessage o WHERE o.id > :afterId ORDER BY o.id")
+    List<RelayRow> findRelayRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT o.id AS id, o.user.id AS userId, o.originNode AS originNode, o.payload AS payload " +
+           "FROM OutboxMessage o WHERE o.id IN :ids ORDER BY o.id")
+    List<RelayRow> findRelayRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COALESCE(MAX(o.id), 0) FROM OutboxMessage o")
+    Long findMaxId();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "websocket_outbox"))
+    @Transactional
+    @Query(value = "DELETE FROM websocket_outbox WHERE id <= :upToId AND created_at < :before", nativeQuery = true)
+    int deleteRelayed(@Param("upToId") Long upToId, @Param("before") Instant before);
+}
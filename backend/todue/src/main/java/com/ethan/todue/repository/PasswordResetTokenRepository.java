@@ -1,9 +1,17 @@
 package com.ethan.todue.repository;
 
 import com.ethan.todue.model.PasswordResetToken;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +20,13 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
     Optional<PasswordResetToken> findByToken(String token);
 
     void deleteByUserId(Long userId);
+
+    // Keyset scan for JanitorService
+    @Query(value = "SELECT id FROM password_reset_tokens WHERE id > :afterId AND expires_at < :now ORDER BY id LIMIT :batchSize", nativeQuery = true)
+    List<Long> findExpiredIds(@Param("afterId") Long afterId, @Param("now") Instant now, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "password_reset_tokens"))
+    @Query(value = "DELETE FROM password_reset_tokens WHERE id IN (:ids) AND expires_at < :now", nativeQuery = true)
+    int deleteExpired(@Param("ids") List<Long> ids, @Param("now") Instant now);
 }
@@ -1,8 +1,11 @@
 package com.ethan.todue.repository;
 
 import com.ethan.todue.model.RecurringTodo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,6 +17,7 @@ public interface RecurringTodoRepository extends JpaRepository<RecurringTodo, Lo
 
     List<RecurringTodo> findByUserId(Long userId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT r FROM RecurringTodo r WHERE r.user.id = :userId " +
            "AND (r.endDate IS NULL OR r.endDate >= :date)")
     List<RecurringTodo> findActiveByUserIdAndDate(@Param("userId") Long userId, @Param("date") LocalDate date);
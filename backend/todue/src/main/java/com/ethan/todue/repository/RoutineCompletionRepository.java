@@ -2,8 +2,12 @@ package com.ethan.todue.repository;
 
 import com.ethan.todue.model.RoutineCompletion;
 import com.ethan.todue.model.RoutineCompletionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,6 +18,12 @@ import java.util.Optional;
 @Repository
 public interface RoutineCompletionRepository extends JpaRepository<RoutineCompletion, Long> {
 
+    interface StaleCompletion {
+        Long getId();
+        Long getUserId();
+        Long getRoutineId();
+    }
+
     @Query("SELECT c FROM RoutineCompletion c WHERE c.routine.id = :routineId AND c.status = 'IN_PROGRESS' ORDER BY c.startedAt DESC")
     Optional<RoutineCompletion> findActiveByRoutineId(@Param("routineId") Long routineId);
 
@@ -54,6 +64,20 @@ public interface RoutineCompletionRepository extends JpaRepository<RoutineComple
 
     boolean existsByRoutineIdAndDate(Long routineId, LocalDate date);
 
+    // Keyset scan for JanitorService - executions started on an earlier day and never finished
+    @Query(value = "SELECT id AS id, user_id AS userId, routine_id AS routineId FROM routine_completions " +
+                   "WHERE id > :afterId AND status = 'IN_PROGRESS' AND date < :before ORDER BY id LIMIT :batchSize", nativeQuery = true)
+    List<StaleCompletion> findStaleInProgress(@Param("afterId") Long afterId, @Param("before") LocalDate before, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "routine_completions"))
+    @Query(value = "UPDATE routine_completions SET status = 'ABANDONED', completed_at = CURRENT_TIMESTAMP " +
+                   "WHERE id IN (:ids) AND status = 'IN_PROGRESS' AND date < :before", nativeQuery = true)
+    int abandonStaleInProgress(@Param("ids") List<Long> ids, @Param("before") LocalDate before);
+
     @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END FROM RoutineCompletion c WHERE c.routine.id = :routineId AND c.date = :date AND c.status = 'COMPLETED'")
     boolean existsCompletedByRoutineIdAndDate(@Param("routineId") Long routineId, @Param("date") LocalDate date);
+
+    @Query("SELECT DISTINCT c.routine.id FROM RoutineCompletion c WHERE c.user.id = :userId AND c.date = :date AND c.status = 'COMPLETED'")
+    List<Long> findCompletedRoutineIdsByUserIdAndDate(@Param("userId") Long userId, @Param("date") LocalDate date);
 }
@@ -1,8 +1,12 @@
 package com.ethan.todue.repository;
 
 import com.ethan.todue.model.RoutinePromptDismissal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -17,5 +21,12 @@ public interface RoutinePromptDismissalRepository extends JpaRepository<RoutineP
     @Query("SELECT d.routine.id FROM RoutinePromptDismissal d WHERE d.user.id = :userId AND d.dismissedDate = :date")
     List<Long> findDismissedRoutineIdsByUserIdAndDate(@Param("userId") Long userId, @Param("date") LocalDate date);
 
-    void deleteByDismissedDateBefore(LocalDate date);
+    // Keyset scan for JanitorService - a dismissal only matters on its own date
+    @Query(value = "SELECT id FROM routine_prompt_dismissals WHERE id > :afterId AND dismissed_date < :before ORDER BY id LIMIT :batchSize", nativeQuery = true)
+    List<Long> findIdsDismissedBefore(@Param("afterId") Long afterId, @Param("before") LocalDate before, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "routine_prompt_dismissals"))
+    @Query(value = "DELETE FROM routine_prompt_dismissals WHERE id IN (:ids) AND dismissed_date < :before", nativeQuery = true)
+    int deleteDismissedBefore(@Param("ids") List<Long> ids, @Param("before") LocalDate before);
 }
@@ -1,8 +1,12 @@
 package com.ethan.todue.repository;
 
+import com.ethan.todue.dto.RoutineResponse;
 import com.ethan.todue.model.Routine;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,6 +19,13 @@ public interface RoutineRepository extends JpaRepository<Routine, Long> {
     @Query("SELECT r FROM Routine r WHERE r.user.id = :userId ORDER BY r.name ASC")
     List<Routine> findByUserIdOrderByName(@Param("userId") Long userId);
 
+    // Step counts come from a correlated subquery instead of one count query per routine
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.ethan.todue.dto.RoutineResponse(r.id, r.name, " +
+           "CAST((SELECT COUNT(s) FROM RoutineStep s WHERE s.routine.id = r.id) AS Integer)) " +
+           "FROM Routine r WHERE r.user.id = :userId ORDER BY r.name ASC")
+    List<RoutineResponse> findResponsesByUserId(@Param("userId") Long userId);
+
     @Query("SELECT r FROM Routine r WHERE r.user.id = :userId AND r.name = :name")
     Optional<Routine> findByUserIdAndName(@Param("userId") Long userId, @Param("name") String name);
 
@@ -1,9 +1,13 @@
 package com.ethan.todue.repository;
 
+import com.ethan.todue.dto.RoutineScheduleResponse;
 import com.ethan.todue.model.RoutineSchedule;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,9 +17,16 @@ import java.util.Optional;
 @Repository
 public interface RoutineScheduleRepository extends JpaRepository<RoutineSchedule, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT s FROM RoutineSchedule s WHERE s.routine.id = :routineId ORDER BY s.dayOfWeek ASC")
     List<RoutineSchedule> findByRoutineIdOrderByDayOfWeek(@Param("routineId") Long routineId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.ethan.todue.dto.RoutineScheduleResponse(s.id, s.dayOfWeek, s.promptTime) " +
+           "FROM RoutineSchedule s WHERE s.routine.id = :routineId ORDER BY s.dayOfWeek ASC")
+    List<RoutineScheduleResponse> findResponsesByRoutineId(@Param("routineId") Long routineId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT s FROM RoutineSchedule s WHERE s.routine.id = :routineId AND s.dayOfWeek = :dayOfWeek")
     Optional<RoutineSchedule> findByRoutineIdAndDayOfWeek(@Param("routineId") Long routineId, @Param("dayOfWeek") Integer dayOfWeek);
 
@@ -23,6 +34,7 @@ public interface RoutineScheduleRepository extends JpaRepository<RoutineSchedule
     @Query("DELETE FROM RoutineSchedule s WHERE s.routine.id = :routineId")
     void deleteByRoutineId(@Param("routineId") Long routineId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT s.routine.id FROM RoutineSchedule s WHERE s.routine.user.id = :userId AND s.dayOfWeek = :dayOfWeek AND s.promptTime IS NOT NULL")
     List<Long> findRoutineIdsWithScheduleForDay(@Param("userId") Long userId, @Param("dayOfWeek") Integer dayOfWeek);
 }
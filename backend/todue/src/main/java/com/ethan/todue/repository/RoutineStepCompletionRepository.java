@@ -7,18 +7,34 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoutineStepCompletionRepository extends JpaRepository<RoutineStepCompletion, Long> {
 
+    interface StatusCount {
+        Long getGroupId();
+        RoutineStepCompletionStatus getStatus();
+        Long getCount();
+    }
+
     @Query("SELECT sc FROM RoutineStepCompletion sc WHERE sc.completion.id = :completionId ORDER BY sc.step.position ASC")
     List<RoutineStepCompletion> findByCompletionIdOrderByStepPosition(@Param("completionId") Long completionId);
 
     @Query("SELECT sc FROM RoutineStepCompletion sc WHERE sc.completion.id = :completionId AND sc.step.id = :stepId")
     Optional<RoutineStepCompletion> findByCompletionIdAndStepId(@Param("completionId") Long completionId, @Param("stepId") Long stepId);
 
+    // Analytics and history count statuses for many completions at once instead of one query each
+    @Query("SELECT sc.step.id AS groupId, sc.status AS status, COUNT(sc) AS count FROM RoutineStepCompletion sc " +
+           "WHERE sc.completion.id IN :completionIds GROUP BY sc.step.id, sc.status")
+    List<StatusCount> countByStepForCompletionIds(@Param("completionIds") Collection<Long> completionIds);
+
+    @Query("SELECT sc.completion.id AS groupId, sc.status AS status, COUNT(sc) AS count FROM RoutineStepCompletion sc " +
+           "WHERE sc.completion.id IN :completionIds GROUP BY sc.completion.id, sc.status")
+    List<StatusCount> countByCompletionForCompletionIds(@Param("completionIds") Collection<Long> completionIds);
+
     @Query("SELECT COUNT(sc) FROM RoutineStepCompletion sc WHERE sc.completion.id = :completionId AND sc.status = :status")
     Long countByCompletionIdAndStatus(@Param("completionId") Long completionId, @Param("status") RoutineStepCompletionStatus status);
 
@@ -1,9 +1,13 @@
 package com.ethan.todue.repository;
 
+import com.ethan.todue.dto.RoutineStepResponse;
 import com.ethan.todue.model.RoutineStep;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,9 +16,15 @@ import java.util.List;
 @Repository
 public interface RoutineStepRepository extends JpaRepository<RoutineStep, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT s FROM RoutineStep s WHERE s.routine.id = :routineId ORDER BY s.position ASC")
     List<RoutineStep> findByRoutineIdOrderByPosition(@Param("routineId") Long routineId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.ethan.todue.dto.RoutineStepResponse(s.id, s.text, s.notes, s.position) " +
+           "FROM RoutineStep s WHERE s.routine.id = :routineId ORDER BY s.position ASC")
+    List<RoutineStepResponse> findResponsesByRoutineId(@Param("routineId") Long routineId);
+
     @Query("SELECT COALESCE(MAX(s.position), 0) FROM RoutineStep s WHERE s.routine.id = :routineId")
     Integer findMaxPosition(@Param("routineId") Long routineId);
 
@@ -22,6 +32,7 @@ public interface RoutineStepRepository extends JpaRepository<RoutineStep, Long>
     @Query("UPDATE RoutineStep s SET s.position = s.position + 1 WHERE s.routine.id = :routineId AND s.position >= :position")
     void incrementPositions(@Param("routineId") Long routineId, @Param("position") Integer position);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(s) FROM RoutineStep s WHERE s.routine.id = :routineId")
     Integer countByRoutineId(@Param("routineId") Long routineId);
 }
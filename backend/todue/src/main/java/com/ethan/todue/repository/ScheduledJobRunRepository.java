@@ -0,0 +1,30 @@
+package com.ethan.todue.repository;
+
+import com.ethan.todue.model.ScheduledJobRun;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface ScheduledJobRunRepository extends JpaRepository<ScheduledJobRun, String> {
+
+    // Fails with a duplicate key when another node claimed the run first
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "scheduled_job_runs"))
+    @Transactional
+    @Query(value = "INSERT INTO scheduled_job_runs (run_id, node_id, claimed_at) VALUES (:runId, :nodeId, :at)", nativeQuery = true)
+    void insertClaim(@Param("runId") String runId, @Param("nodeId") String nodeId, @Param("at") Instant at);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ScheduledJobRun r WHERE r.claimedAt < :before")
+    int deleteByClaimedAtBefore(@Param("before") Instant before);
+}
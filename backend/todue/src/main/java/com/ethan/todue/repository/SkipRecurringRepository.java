@@ -1,7 +1,12 @@
 package com.ethan.todue.repository;
 
 import com.ethan.todue.model.SkipRecurring;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -10,7 +15,17 @@ import java.util.List;
 @Repository
 public interface SkipRecurringRepository extends JpaRepository<SkipRecurring, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByRecurringTodoIdAndSkipDate(Long recurringTodoId, LocalDate skipDate);
 
     List<SkipRecurring> findByRecurringTodoId(Long recurringTodoId);
+
+    // Skipped instances of all the user's recurring todos in a date range, for virtual todos and the horizon
+    @Query("SELECT s.recurringTodo.id AS recurringTodoId, s.skipDate AS instanceDate FROM SkipRecurring s " +
+           "WHERE s.recurringTodo.user.id = :userId AND s.skipDate BETWEEN :startDate AND :endDate")
+    List<TodoRepository.RecurringInstance> findSkippedInstances(
+        @Param("userId") Long userId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
 }
@@ -1,5 +1,6 @@
 package com.ethan.todue.repository;
 
+import com.ethan.todue.dto.TodoResponse;
 import com.ethan.todue.model.Todo;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -7,25 +8,38 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TodoRepository extends JpaRepository<Todo, Long> {
 
+    // Read straight into responses for the views: no entities, proxies or dirty-checking snapshots
+    String SELECT_RESPONSE = "SELECT new com.ethan.todue.dto.TodoResponse(t.id, t.text, t.assignedDate, t.instanceDate, " +
+           "t.position, t.recurringTodo.id, t.isCompleted, t.completedAt, t.isRolledOver, FALSE) FROM Todo t ";
+
     @Query("SELECT t FROM Todo t WHERE t.user.id = :userId AND t.assignedDate = :assignedDate " +
            "ORDER BY t.isCompleted ASC, t.position ASC, t.id ASC")
     List<Todo> findByUserIdAndAssignedDate(@Param("userId") Long userId, @Param("assignedDate") LocalDate assignedDate);
 
-    @Query("SELECT t FROM Todo t WHERE t.user.id = :userId " +
+    @Query(SELECT_RESPONSE + "WHERE t.user.id = :userId AND t.assignedDate = :assignedDate " +
+           "ORDER BY t.isCompleted ASC, t.position ASC, t.id ASC")
+    List<TodoResponse> findResponsesByUserIdAndAssignedDate(@Param("userId") Long userId, @Param("assignedDate") LocalDate assignedDate);
+
+    @Query(SELECT_RESPONSE + "WHERE t.user.id = :userId " +
            "AND t.assignedDate BETWEEN :startDate AND :endDate " +
            "ORDER BY t.assignedDate ASC, t.isCompleted ASC, t.position ASC, t.id ASC")
-    List<Todo> findByUserIdAndAssignedDateBetween(
+    List<TodoResponse> findResponsesByUserIdAndAssignedDateBetween(
         @Param("userId") Long userId,
         @Param("startDate") LocalDate startDate,
         @Param("endDate") LocalDate endDate
     );
 
+    @Query(SELECT_RESPONSE + "WHERE t.user.id = :userId AND t.assignedDate IN :dates " +
+           "ORDER BY t.assignedDate ASC, t.isCompleted ASC, t.position ASC, t.id ASC")
+    List<TodoResponse> findResponsesByUserIdAndAssignedDateIn(@Param("userId") Long userId, @Param("dates") Collection<LocalDate> dates);
+
     @Query("SELECT t FROM Todo t WHERE t.user.id = :userId " +
            "AND t.assignedDate < :date AND t.isCompleted = false " +
            "ORDER BY t.assignedDate DESC, t.position ASC")
@@ -34,6 +48,21 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
     // Changed to findFirst to handle duplicates gracefully during cleanup period
     Optional<Todo> findFirstByRecurringTodoIdAndInstanceDate(Long recurringTodoId, LocalDate instanceDate);
 
+    // Which recurring instances of a date range already have a row, for virtual todos and the horizon
+    @Query("SELECT t.recurringTodo.id AS recurringTodoId, t.instanceDate AS instanceDate FROM Todo t " +
+           "WHERE t.user.id = :userId AND t.recurringTodo IS NOT NULL " +
+           "AND t.instanceDate BETWEEN :startDate AND :endDate")
+    List<RecurringInstance> findRecurringInstances(
+        @Param("userId") Long userId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    interface RecurringInstance {
+        Long getRecurringTodoId();
+        LocalDate getInstanceDate();
+    }
+
     @Query("SELECT t FROM Todo t WHERE t.recurringTodo.id = :recurringTodoId " +
            "AND t.instanceDate > :afterDate AND t.isCompleted = false")
     List<Todo> findFutureIncompleteTodosForRecurring(
@@ -41,6 +70,21 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
         @Param("afterDate") LocalDate afterDate
     );
 
+    // Just what the search index needs, oldest first so building it only appends
+    @Query("SELECT t.id AS id, t.text AS text, t.assignedDate AS assignedDate FROM Todo t " +
+           "WHERE t.user.id = :userId ORDER BY t.id ASC")
+    List<SearchRow> findSearchRows(@Param("userId") Long userId);
+
+    @Query("SELECT t.id AS id, t.text AS text, t.assignedDate AS assignedDate FROM Todo t " +
+           "WHERE t.user.id = :userId AND t.assignedDate IN :dates ORDER BY t.id ASC")
+    List<SearchRow> findSearchRowsByDates(@Param("userId") Long userId, @Param("dates") Collection<LocalDate> dates);
+
+    interface SearchRow {
+        Long getId();
+        String getText();
+        LocalDate getAssignedDate();
+    }
+
     @org.springframework.data.jpa.repository.Modifying
     @Query("UPDATE Todo t SET t.position = t.position + 1 WHERE t.user.id = :userId AND t.assignedDate = :date AND t.position >= :position")
     void incrementPositions(
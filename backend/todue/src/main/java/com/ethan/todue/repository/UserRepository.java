@@ -1,15 +1,126 @@
 package com.ethan.todue.repository;
 
 import com.ethan.todue.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    interface RolloverMark {
+        Long getId();
+        Instant getLastRolloverDate();
+        String getTimezone();
+    }
+
+    interface StatsBackfillCandidate {
+        Long getId();
+        String getEmail();
+    }
+
+    interface RecurringHorizonCandidate {
+        Long getId();
+        String getEmail();
+        String getTimezone();
+        LocalDate getRecurringHorizon();
+    }
+
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    // change_seq is not updatable through the entity, so it is only ever moved by this row-locking increment
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Transactional
+    @Query(value = "UPDATE users SET change_seq = change_seq + 1 WHERE id = :userId", nativeQuery = true)
+    void incrementChangeSeq(@Param("userId") Long userId);
+
+    @Query(value = "SELECT change_seq FROM users WHERE id = :userId", nativeQuery = true)
+    Long findChangeSeqById(@Param("userId") Long userId);
+
+    // Moved forward before any todo of those dates is archived, so views always know to look
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Transactional
+    @Query(value = "UPDATE users SET archived_through = :date WHERE (archived_through IS NULL OR archived_through < :date) " +
+                   "AND id IN (SELECT t.user_id FROM todos t WHERE t.is_completed = TRUE AND t.assigned_date < :cutoff)",
+           nativeQuery = true)
+    int advanceArchivedThrough(@Param("date") LocalDate date, @Param("cutoff") LocalDate cutoff);
+
+    // Claims the rollover of the day starting at dayStart: 0 when it already ran (here or on
+    // another node). Locks the user row until commit, so a concurrent claim waits and then fails.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "UPDATE users SET last_rollover_date = :now " +
+                   "WHERE id = :userId AND (last_rollover_date IS NULL OR last_rollover_date < :dayStart)", nativeQuery = true)
+    int claimRollover(@Param("userId") Long userId, @Param("dayStart") Instant dayStart, @Param("now") Instant now);
+
+    // Warms RolloverTracker at startup - most recent first
+    @Query("SELECT u.id AS id, u.lastRolloverDate AS lastRolloverDate, u.timezone AS timezone FROM User u " +
+           "WHERE u.lastRolloverDate >= :since ORDER BY u.lastRolloverDate DESC")
+    List<RolloverMark> findRolloverMarksSince(@Param("since") Instant since, Limit limit);
+
+    // Set once DailyStatsService has rebuilt the user's daily_stats from their history
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "UPDATE users SET stats_backfilled_at = :at WHERE id = :userId", nativeQuery = true)
+    void markStatsBackfilled(@Param("userId") Long userId, @Param("at") Instant at);
+
+    // Import rewrites history, so its counters are rebuilt on next use
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "UPDATE users SET stats_backfilled_at = NULL WHERE id = :userId", nativeQuery = true)
+    void clearStatsBackfilled(@Param("userId") Long userId);
+
+    // Keyset scan for the nightly stats backfill
+    @Query("SELECT u.id AS id, u.email AS email FROM User u WHERE u.id > :afterId AND u.statsBackfilledAt IS NULL ORDER BY u.id")
+    List<StatsBackfillCandidate> findStatsBackfillCandidates(@Param("afterId") Long afterId, Limit limit);
+
+    // Sets the recurring horizon of a user that has none; 0 when another run got there first.
+    // Locks the user row until commit, like claimRollover.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "UPDATE users SET recurring_horizon = :through WHERE id = :userId AND recurring_horizon IS NULL", nativeQuery = true)
+    int claimRecurringHorizon(@Param("userId") Long userId, @Param("through") LocalDate through);
+
+    // Moves the recurring horizon on from the one the caller extended; 0 when it changed meanwhile
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "UPDATE users SET recurring_horizon = :through WHERE id = :userId AND recurring_horizon = :previous", nativeQuery = true)
+    int extendRecurringHorizon(@Param("userId") Long userId, @Param("previous") LocalDate previous, @Param("through") LocalDate through);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "UPDATE users SET recurring_horizon = NULL WHERE id = :userId AND recurring_horizon IS NOT NULL", nativeQuery = true)
+    void clearRecurringHorizon(@Param("userId") Long userId);
+
+    // Horizons nobody maintains any more (the mode was switched off) must not be trusted later
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Transactional
+    @Query(value = "UPDATE users SET recurring_horizon = NULL WHERE recurring_horizon IS NOT NULL", nativeQuery = true)
+    int clearAllRecurringHorizons();
+
+    // Keyset scan for RecurringHorizonService: recently active users whose horizon may be short of through
+    @Query("SELECT u.id AS id, u.email AS email, u.timezone AS timezone, u.recurringHorizon AS recurringHorizon FROM User u " +
+           "WHERE u.id > :afterId AND u.lastRolloverDate >= :activeSince " +
+           "AND (u.recurringHorizon IS NULL OR u.recurringHorizon < :through) ORDER BY u.id")
+    List<RecurringHorizonCandidate> findRecurringHorizonCandidates(@Param("afterId") Long afterId,
+                                                                   @Param("activeSince") Instant activeSince,
+                                                                   @Param("through") LocalDate through,
+                                                                   Limit limit);
 }
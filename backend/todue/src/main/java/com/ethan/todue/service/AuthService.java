@@ -11,6 +11,7 @@ import com.ethan.todue.repository.PasswordResetTokenRepository;
 import com.ethan.todue.repository.UserRepository;
 import com.ethan.todue.security.JwtUtil;
 import com.ethan.todue.util.PasswordValidator;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -37,8 +38,9 @@ public class AuthService {
     @Autowired
     private JwtUtil jwtUtil;
 
+    // Resolved on use: only registration and password reset send mail, keep Resend out of startup
     @Autowired
-    private EmailService emailService;
+    private ObjectProvider<EmailService> emailService;
 
     @Transactional
     public RegistrationResponse register(String email, String password, String timezone) {
@@ -68,7 +70,7 @@ public class AuthService {
         emailVerificationRepository.save(verification);
 
         // Send verification email
-        emailService.sendVerificationEmail(email, verificationToken);
+        emailService.getObject().sendVerificationEmail(email, verificationToken);
 
         // Don't return token - user must verify email first, then login
         return new RegistrationResponse(
@@ -124,7 +126,7 @@ public class AuthService {
         passwordResetTokenRepository.save(resetToken);
 
         // Send password reset email
-        emailService.sendPasswordResetEmail(email, token);
+        emailService.getObject().sendPasswordResetEmail(email, token);
 
         return token;
     }
@@ -0,0 +1,105 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.model.ChangeLogEntry;
+import com.ethan.todue.model.ChangeScope;
+import com.ethan.todue.repository.ChangeLogRepository;
+import com.ethan.todue.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records the change feed served by GET /api/sync.
+ *
+ * Changes recorded during a transaction are collected and written just before it commits,
+ * all under one new value of the user's change_seq. Incrementing change_seq locks the user row
+ * until commit, so sequence numbers become visible in order and a client holding cursor N has
+ * seen every change up to N.
+ */
+@Service
+public class ChangeLogService {
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private record PendingChange(ChangeScope scope, LocalDate date, Long id) {}
+
+    public void recordTodosChanged(Long userId, LocalDate date) {
+        record(userId, new PendingChange(ChangeScope.TODO_DATE, date, null));
+    }
+
+    public void recordRecurringChanged(Long userId) {
+        record(userId, new PendingChange(ChangeScope.RECURRING, null, null));
+    }
+
+    public void recordLaterListChanged(Long userId, Long listId) {
+        record(userId, new PendingChange(ChangeScope.LATER_LIST, null, listId));
+    }
+
+    public void recordRoutineChanged(Long userId, Long routineId) {
+        record(userId, new PendingChange(ChangeScope.ROUTINE, null, routineId));
+    }
+
+    public void recordAllChanged(Long userId) {
+        record(userId, new PendingChange(ChangeScope.ALL, null, null));
+    }
+
+    private void record(Long userId, PendingChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(Map.of(userId, Set.of(change)));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<Long, Set<PendingChange>> pending = (Map<Long, Set<PendingChange>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Set<PendingChange>> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLogService.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.computeIfAbsent(userId, id -> new LinkedHashSet<>()).add(change);
+    }
+
+    private void write(Map<Long, Set<PendingChange>> changes) {
+        List<ChangeLogEntry> entries = new ArrayList<>();
+        for (Map.Entry<Long, Set<PendingChange>> userChanges : changes.entrySet()) {
+            Long userId = userChanges.getKey();
+            userRepository.incrementChangeSeq(userId);
+            Long seq = userRepository.findChangeSeqById(userId);
+
+            for (PendingChange change : userChanges.getValue()) {
+                ChangeLogEntry entry = new ChangeLogEntry();
+                entry.setUser(userRepository.getReferenceById(userId));
+                entry.setSeq(seq);
+                entry.setScope(change.scope());
+                entry.setScopeDate(change.date());
+                entry.setScopeId(change.id());
+                entries.add(entry);
+            }
+        }
+        changeLogRepository.saveAll(entries);
+    }
+}
@@ -0,0 +1,91 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.repository.ScheduledJobRunRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Identity of this instance, and whether it shares its database with other instances
+ * (app.cluster.enabled, set by the cluster profile). In cluster mode WebSocket notifications and
+ * view invalidations reach the other nodes through the database (see ClusterRelay), and each
+ * nightly job runs on one node only.
+ */
+@Service
+public class ClusterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterService.class);
+
+    private static final int JOB_RUN_RETENTION_DAYS = 30;
+
+    @Autowired
+    private ScheduledJobRunRepository scheduledJobRunRepository;
+
+    @Value("${app.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.cluster.node-id:}")
+    private String configuredNodeId;
+
+    private volatile String nodeId;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * app.cluster.node-id, or the host name plus a random suffix so two instances started on
+     * the same machine never share an id.
+     */
+    public String getNodeId() {
+        if (nodeId == null) {
+            synchronized (this) {
+                if (nodeId == null) {
+                    nodeId = configuredNodeId.isBlank()
+                            ? hostName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                            : configuredNodeId;
+                }
+            }
+        }
+        return nodeId;
+    }
+
+    /**
+     * Whether this node should do today's run of a scheduled job. Every node's scheduler fires;
+     * in cluster mode the first to insert the run's row gets it. Always true for a single instance.
+     */
+    public boolean claimScheduledRun(String job) {
+        if (!enabled) {
+            return true;
+        }
+        LocalDate runDate = LocalDate.now(ZoneOffset.UTC);
+        Instant now = Instant.now();
+        try {
+            scheduledJobRunRepository.insertClaim(job + "@" + runDate, getNodeId(), now);
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Skipping {} run of {}, another node has it", job, runDate);
+            return false;
+        }
+        scheduledJobRunRepository.deleteByClaimedAtBefore(now.minus(JOB_RUN_RETENTION_DAYS, ChronoUnit.DAYS));
+        return true;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node";
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.dto.DailyStatsResponse;
+import com.ethan.todue.dto.StatsResponse;
+import com.ethan.todue.model.DailyStats;
+import com.ethan.todue.model.User;
+import com.ethan.todue.repository.DailyStatsRepository;
+import com.ethan.todue.repository.UserRepository;
+import com.ethan.todue.util.UserMutationSequencer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Per-day activity counters behind the completion heatmap and weekly throughput (daily_stats).
+ *
+ * The writes that change a counter bump it in their own transaction: completing and
+ * uncompleting todos, creating todos, rollover and finishing routines. Days are the user's own
+ * calendar days, so a range of any length is one scan of the (user_id, date) index.
+ *
+ * Counters that predate this table, or that an import rewrote, are rebuilt from the todos,
+ * archived todos and routine completions still on record: lazily before a user's first stats
+ * read, and nightly for everyone else. A rebuild queues behind the user's writes in
+ * UserMutationSequencer like any other write, so no bump can slip in between.
+ */
+@Service
+public class DailyStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyStatsService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 100;
+
+    @Autowired
+    private DailyStatsRepository dailyStatsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.stats.max-days:3660}")
+    private int maxDays;
+
+    // ==================== Counters ====================
+
+    public void recordCompleted(User user) {
+        dailyStatsRepository.increment(user.getId(), today(user), 1, 0, 0, 0);
+    }
+
+    /**
+     * Takes back a completion, on the day it was made.
+     */
+    public void recordUncompleted(User user, Instant completedAt) {
+        LocalDate date = completedAt != null
+                ? completedAt.atZone(ZoneId.of(user.getTimezone())).toLocalDate()
+                : today(user);
+        dailyStatsRepository.increment(user.getId(), date, -1, 0, 0, 0);
+    }
+
+    public void recordCreated(User user) {
+        dailyStatsRepository.increment(user.getId(), today(user), 0, 1, 0, 0);
+    }
+
+    public void recordRolledOver(Long userId, LocalDate date, int count) {
+        if (count > 0) {
+            dailyStatsRepository.increment(userId, date, 0, 0, count, 0);
+        }
+    }
+
+    public void recordRoutineCompleted(Long userId, LocalDate date) {
+        dailyStatsRepository.increment(userId, date, 0, 0, 0, 1);
+    }
+
+    /**
+     * Marks the user's counters for a rebuild from history, for writes that rewrite history
+     * wholesale (import) rather than bumping a counter.
+     */
+    public void historyChanged(Long userId) {
+        userRepository.clearStatsBackfilled(userId);
+    }
+
+    // ==================== Reads ====================
+
+    public StatsResponse getStats(LocalDate startDate, LocalDate endDate) {
+        User user = userService.getCurrentUser();
+        if (endDate == null) {
+            endDate = today(user);
+        }
+        if (startDate == null) {
+            startDate = endDate.minusYears(1).plusDays(1);
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("Start date must not be after end date");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= maxDays) {
+            throw new RuntimeException("Date range is limited to " + maxDays + " days");
+        }
+
+        if (user.getStatsBackfilledAt() == null) {
+            backfill(user.getId(), user.getEmail());
+        }
+        List<DailyStatsResponse> days =
+                dailyStatsRepository.findResponsesByUserIdAndDateBetween(user.getId(), startDate, endDate);
+
+        // Every week of the range, including empty ones, so charts need no gap filling
+        Map<LocalDate, DailyStatsResponse> weeks = new TreeMap<>();
+        LocalDate firstMonday = startDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        for (LocalDate monday = firstMonday; !monday.isAfter(endDate); monday = monday.plusWeeks(1)) {
+            weeks.put(monday, new DailyStatsResponse(monday, 0, 0, 0, 0));
+        }
+        DailyStatsResponse totals = new DailyStatsResponse(startDate, 0, 0, 0, 0);
+        for (DailyStatsResponse day : days) {
+            add(weeks.get(day.getDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))), day);
+            add(totals, day);
+        }
+        days.removeIf(day -> day.getCompleted() == 0 && day.getCreated() == 0
+                && day.getRolledOver() == 0 && day.getRoutinesCompleted() == 0);
+
+        return new StatsResponse(startDate, endDate, days, new ArrayList<>(weeks.values()), totals);
+    }
+
+    // ==================== Backfill ====================
+
+    @Scheduled(cron = "${app.stats.backfill-cron:0 45 4 * * *}", zone = "UTC")
+    public void backfillPending() {
+        if (!clusterService.claimScheduledRun("stats-backfill")) {
+            return;
+        }
+        long afterId = 0;
+        int users = 0;
+        while (true) {
+            List<UserRepository.StatsBackfillCandidate> batch =
+                    userRepository.findStatsBackfillCandidates(afterId, Limit.of(BACKFILL_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (UserRepository.StatsBackfillCandidate candidate : batch) {
+                try {
+                    backfill(candidate.getId(), candidate.getEmail());
+                    users++;
+                } catch (RuntimeException e) {
+                    logger.warn("Stats backfill failed for user {}: {}", candidate.getId(), e.getMessage());
+                }
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        if (users > 0) {
+            logger.info("Backfilled daily stats for {} users", users);
+        }
+    }
+
+    /**
+     * Replaces the user's counters with ones rebuilt from their history. Exact for completions
+     * and routines; created counts only cover todos still in todos (archived ones have no
+     * creation time), rollovers only todos still flagged as rolled over.
+     */
+    public void backfill(Long userId, String email) {
+        UserMutationSequencer.run(email, () -> new TransactionTemplate(transactionManager).execute(status -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            ZoneId zone = ZoneId.of(user.getTimezone());
+
+            Map<LocalDate, DailyStats> days = new TreeMap<>();
+            Function<LocalDate, DailyStats> day = date -> days.computeIfAbsent(date, d -> {
+                DailyStats stats = new DailyStats();
+                stats.setUser(user);
+                stats.setDate(d);
+                return stats;
+            });
+            for (List<Instant> completions : List.of(
+                    dailyStatsRepository.findTodoCompletedAtByUserId(userId),
+                    dailyStatsRepository.findArchivedTodoCompletedAtByUserId(userId))) {
+                for (Instant completedAt : completions) {
+                    DailyStats stats = day.apply(completedAt.atZone(zone).toLocalDate());
+                    stats.setCompletedCount(stats.getCompletedCount() + 1);
+                }
+            }
+            for (List<Instant> creations : List.of(
+                    dailyStatsRepository.findTodoCreatedAtByUserId(userId),
+                    dailyStatsRepository.findRecurringTodoCreatedAtByUserId(userId))) {
+                for (Instant createdAt : creations) {
+                    DailyStats stats = day.apply(createdAt.atZone(zone).toLocalDate());
+                    stats.setCreatedCount(stats.getCreatedCount() + 1);
+                }
+            }
+            for (DailyStatsRepository.DateCount count : dailyStatsRepository.countRolledOverByUserId(userId)) {
+                day.apply(count.getDate()).setRolledOverCount(count.getCount().intValue());
+            }
+            for (DailyStatsRepository.DateCount count : dailyStatsRepository.countRoutinesCompletedByUserId(userId)) {
+                day.apply(count.getDate()).setRoutinesCompletedCount(count.getCount().intValue());
+            }
+
+            dailyStatsRepository.deleteByUserId(userId);
+            dailyStatsRepository.flush();
+            dailyStatsRepository.saveAll(days.values());
+            userRepository.markStatsBackfilled(userId, Instant.now());
+            logger.debug("Backfilled {} days of stats for user {}", days.size(), userId);
+            return null;
+        }));
+    }
+
+    private static LocalDate today(User user) {
+        return LocalDate.now(ZoneId.of(user.getTimezone()));
+    }
+
+    private static void add(DailyStatsResponse sum, DailyStatsResponse day) {
+        sum.setCompleted(sum.getCompleted() + day.getCompleted());
+        sum.setCreated(sum.getCreated() + day.getCreated());
+        sum.setRolledOver(sum.getRolledOver() + day.getRolledOver());
+        sum.setRoutinesCompleted(sum.getRoutinesCompleted() + day.getRoutinesCompleted());
+    }
+}
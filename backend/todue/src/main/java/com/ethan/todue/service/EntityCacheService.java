@@ -0,0 +1,82 @@
+package com.ethan.todue.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.cache.CacheManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Hit rates and memory use of the Hibernate second-level cache regions (see application.conf),
+ * read straight from the Caffeine caches behind them.
+ */
+@Service
+public class EntityCacheService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> regions = new LinkedHashMap<>();
+        long hits = 0;
+        long misses = 0;
+        long weight = 0;
+        CacheManager cacheManager = cacheManager();
+        if (cacheManager != null) {
+            Set<String> names = new TreeSet<>();
+            cacheManager.getCacheNames().forEach(names::add);
+            for (String name : names) {
+                javax.cache.Cache<Object, Object> cache = cacheManager.getCache(name);
+                if (cache == null) {
+                    continue;
+                }
+                Cache<?, ?> caffeine = cache.unwrap(Cache.class);
+                CacheStats cacheStats = caffeine.stats();
+                Map<String, Object> region = new LinkedHashMap<>();
+                region.put("entries", caffeine.estimatedSize());
+                region.put("hits", cacheStats.hitCount());
+                region.put("misses", cacheStats.missCount());
+                region.put("hitRate", cacheStats.hitRate());
+                region.put("evictions", cacheStats.evictionCount());
+                Policy.Eviction<?, ?> eviction = caffeine.policy().eviction().orElse(null);
+                if (eviction != null && eviction.isWeighted()) {
+                    long regionWeight = eviction.weightedSize().orElse(0);
+                    region.put("weightBytes", regionWeight);
+                    region.put("maxWeightBytes", eviction.getMaximum());
+                    weight += regionWeight;
+                } else if (eviction != null) {
+                    // The timestamps region, bounded by entry count
+                    region.put("maxEntries", eviction.getMaximum());
+                }
+                regions.put(name, region);
+                hits += cacheStats.hitCount();
+                misses += cacheStats.missCount();
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", cacheManager != null);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", hits + misses == 0 ? 1.0 : (double) hits / (hits + misses));
+        stats.put("weightBytes", weight);
+        stats.put("regions", regions);
+        return stats;
+    }
+
+    private CacheManager cacheManager() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        if (sessionFactory.getCache().getRegionFactory() instanceof JCacheRegionFactory regionFactory) {
+            return regionFactory.getCacheManager();
+        }
+        return null;
+    }
+}
@@ -4,6 +4,7 @@ import com.ethan.todue.dto.export.*;
 import com.ethan.todue.model.*;
 import com.ethan.todue.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,6 +13,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Lazy
 public class ExportService {
 
     @Autowired
@@ -20,6 +22,9 @@ public class ExportService {
     @Autowired
     private TodoRepository todoRepository;
 
+    @Autowired
+    private ArchivedTodoRepository archivedTodoRepository;
+
     @Autowired
     private RecurringTodoRepository recurringTodoRepository;
 
@@ -61,7 +66,9 @@ public class ExportService {
                         rt.getText(),
                         rt.getRecurrenceType().name(),
                         rt.getStartDate().toString(),
-                        rt.getEndDate() != null ? rt.getEndDate().toString() : null
+                        rt.getEndDate() != null ? rt.getEndDate().toString() : null,
+                        rt.getRecurrenceInterval(),
+                        rt.getRecurrenceDays()
                 ))
                 .collect(Collectors.toList());
 
@@ -96,6 +103,21 @@ public class ExportService {
                 ))
                 .collect(Collectors.toList());
 
+        // Archived todos export like any other completed todo
+        for (ArchivedTodo todo : archivedTodoRepository.findByUserId(userId)) {
+            exportTodos.add(new ExportTodoDto(
+                    todo.getId(),
+                    todo.getText(),
+                    todo.getAssignedDate().toString(),
+                    todo.getInstanceDate().toString(),
+                    todo.getPosition(),
+                    todo.getRecurringTodo() != null ? recurringIdToRef.get(todo.getRecurringTodo().getId()) : null,
+                    true,
+                    todo.getCompletedAt() != null ? todo.getCompletedAt().toString() : null,
+                    false
+            ));
+        }
+
         // Export later lists with their todos
         List<LaterList> laterLists = laterListRepository.findByUserIdOrderByListName(userId);
         List<ExportLaterListDto> exportLaterLists = laterLists.stream()
@@ -4,10 +4,13 @@ import com.ethan.todue.dto.export.*;
 import com.ethan.todue.dto.importdata.*;
 import com.ethan.todue.model.*;
 import com.ethan.todue.repository.*;
+import com.ethan.todue.util.RecurrenceParser;
+import com.ethan.todue.util.RecurrenceRule;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +21,7 @@ import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @Service
+@Lazy
 public class ImportService {
 
     private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
@@ -28,6 +32,9 @@ public class ImportService {
     @Autowired
     private TodoRepository todoRepository;
 
+    @Autowired
+    private ArchivedTodoRepository archivedTodoRepository;
+
     @Autowired
     private RecurringTodoRepository recurringTodoRepository;
 
@@ -52,17 +59,38 @@ public class ImportService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ViewVersionService viewVersionService;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    @Autowired
+    private RecurringHorizonService recurringHorizonService;
+
     @Transactional
     public ImportResponse importData(ImportRequest request) {
         String format = request.getFormat();
 
+        ImportResponse response;
         if ("TEUXDEUX".equalsIgnoreCase(format)) {
-            return importTeuxDeux(request.getData());
+            response = importTeuxDeux(request.getData());
         } else if ("TODUE".equalsIgnoreCase(format)) {
-            return importTodue(request.getData());
+            response = importTodue(request.getData());
         } else {
             return new ImportResponse(false, "Unknown import format: " + format, null);
         }
+
+        // Imported rows can land on any date, list or routine
+        Long userId = userService.getCurrentUser().getId();
+        viewVersionService.userChanged(userId);
+        changeLogService.recordAllChanged(userId);
+        dailyStatsService.historyChanged(userId);
+        recurringHorizonService.invalidate(userId);
+        return response;
     }
 
     private ImportResponse importTeuxDeux(Object data) {
@@ -87,8 +115,8 @@ public class ImportService {
                 if (workspace.getRecurringTodos() != null) {
                     for (TeuxDeuxRecurringTodo teuxRecurring : workspace.getRecurringTodos()) {
                         try {
-                            RecurrenceType recurrenceType = parseRrule(teuxRecurring.getRecurrenceRule());
-                            if (recurrenceType == null) {
+                            RecurrenceRule rule = RecurrenceParser.parseRrule(teuxRecurring.getRecurrenceRule());
+                            if (rule == null) {
                                 stats.addWarning("Skipped recurring todo with unsupported recurrence rule: " + teuxRecurring.getRecurrenceRule());
                                 continue;
                             }
@@ -96,7 +124,7 @@ public class ImportService {
                             RecurringTodo recurring = new RecurringTodo();
                             recurring.setUser(user);
                             recurring.setText(teuxRecurring.getText());
-                            recurring.setRecurrenceType(recurrenceType);
+                            rule.applyTo(recurring);
                             recurring.setStartDate(parseDate(teuxRecurring.getStartDate()));
                             if (teuxRecurring.getEndDate() != null && !teuxRecurring.getEndDate().isEmpty()) {
                                 recurring.setEndDate(parseDate(teuxRecurring.getEndDate()));
@@ -283,6 +311,8 @@ public class ImportService {
                         recurring.setUser(user);
                         recurring.setText(exportRecurring.getText());
                         recurring.setRecurrenceType(RecurrenceType.valueOf(exportRecurring.getRecurrenceType()));
+                        recurring.setRecurrenceInterval(exportRecurring.getRecurrenceInterval());
+                        recurring.setRecurrenceDays(exportRecurring.getRecurrenceDays());
                         recurring.setStartDate(LocalDate.parse(exportRecurring.getStartDate()));
                         if (exportRecurring.getEndDate() != null) {
                             recurring.setEndDate(LocalDate.parse(exportRecurring.getEndDate()));
@@ -331,6 +361,11 @@ public class ImportService {
                                 skippedDuplicates++;
                                 continue;
                             }
+                            Optional<ArchivedTodo> archived = archivedTodoRepository.findById(exportTodo.getId());
+                            if (archived.isPresent() && archived.get().getUser().getId().equals(user.getId())) {
+                                skippedDuplicates++;
+                                continue;
+                            }
                         }
 
                         Todo todo = new Todo();
@@ -515,34 +550,6 @@ public class ImportService {
         }
     }
 
-    /**
-     * Parse iCal RRULE to RecurrenceType enum
-     */
-    private RecurrenceType parseRrule(String rrule) {
-        if (rrule == null || rrule.isEmpty()) {
-            return null;
-        }
-
-        // Parse the RRULE format, e.g., "FREQ=DAILY", "FREQ=WEEKLY;INTERVAL=2"
-        String uppercaseRule = rrule.toUpperCase();
-
-        if (uppercaseRule.contains("FREQ=DAILY")) {
-            return RecurrenceType.DAILY;
-        } else if (uppercaseRule.contains("FREQ=WEEKLY")) {
-            // Check for biweekly
-            if (uppercaseRule.contains("INTERVAL=2")) {
-                return RecurrenceType.BIWEEKLY;
-            }
-            return RecurrenceType.WEEKLY;
-        } else if (uppercaseRule.contains("FREQ=MONTHLY")) {
-            return RecurrenceType.MONTHLY;
-        } else if (uppercaseRule.contains("FREQ=YEARLY")) {
-            return RecurrenceType.YEARLY;
-        }
-
-        return null;
-    }
-
     /**
      * Combine text and details, appending details in brackets if present
      */
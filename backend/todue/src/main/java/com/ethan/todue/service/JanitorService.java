@@ -0,0 +1,188 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.repository.ChangeLogRepository;
+import com.ethan.todue.repository.EmailVerificationRepository;
+import com.ethan.todue.repository.PasswordResetTokenRepository;
+import com.ethan.todue.repository.RoutineCompletionRepository;
+import com.ethan.todue.repository.RoutinePromptDismissalRepository;
+import com.ethan.todue.websocket.WebSocketService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Nightly cleanup of rows nothing ever removes on its own: expired password reset and email
+ * verification tokens, routine prompt dismissals of past days, executions left IN_PROGRESS on an
+ * earlier day (marked ABANDONED, as starting a new one would), and change feed entries older than
+ * app.janitor.change-log-days (clients behind that get a full resync, see SyncService).
+ *
+ * Every task walks its table in primary key order and changes at most app.janitor.batch-size rows
+ * per short transaction, sleeping app.janitor.pause-ms between batches, so row locks are held
+ * briefly and interactive requests always get a turn. Counts are served by /api/ops/janitor.
+ */
+@Service
+public class JanitorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JanitorService.class);
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private EmailVerificationRepository emailVerificationRepository;
+
+    @Autowired
+    private RoutinePromptDismissalRepository routinePromptDismissalRepository;
+
+    @Autowired
+    private RoutineCompletionRepository routineCompletionRepository;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.janitor.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.janitor.pause-ms:50}")
+    private long pauseMs;
+
+    @Value("${app.janitor.change-log-days:30}")
+    private int changeLogDays;
+
+    @Value("${app.janitor.stale-execution-days:2}")
+    private int staleExecutionDays;
+
+    // Task name -> rows cleaned since startup
+    private final Map<String, AtomicLong> totals = new ConcurrentHashMap<>();
+    private volatile Map<String, Integer> lastRun = Map.of();
+    private volatile Instant lastRunAt;
+
+    @Scheduled(cron = "${app.janitor.cron:0 15 4 * * *}", zone = "UTC")
+    public void runAll() {
+        if (!clusterService.claimScheduledRun("janitor")) {
+            return;
+        }
+        Instant now = Instant.now();
+        // A day of slack so no user's timezone can still be on the cutoff date
+        LocalDate earliestToday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+
+        Map<String, Integer> run = new LinkedHashMap<>();
+        run.put("passwordResetTokens", sweep(
+                afterId -> passwordResetTokenRepository.findExpiredIds(afterId, now, batchSize),
+                ids -> passwordResetTokenRepository.deleteExpired(ids, now)));
+        run.put("emailVerifications", sweep(
+                afterId -> emailVerificationRepository.findExpiredIds(afterId, now, batchSize),
+                ids -> emailVerificationRepository.deleteExpired(ids, now)));
+        run.put("routinePromptDismissals", sweep(
+                afterId -> routinePromptDismissalRepository.findIdsDismissedBefore(afterId, earliestToday, batchSize),
+                ids -> routinePromptDismissalRepository.deleteDismissedBefore(ids, earliestToday)));
+        run.put("abandonedExecutions", abandonStaleExecutions(earliestToday.minusDays(staleExecutionDays)));
+        if (changeLogDays > 0) {
+            Instant cutoff = now.minus(changeLogDays, ChronoUnit.DAYS);
+            run.put("changeLogEntries", sweep(
+                    afterId -> changeLogRepository.findPrunableIds(afterId, cutoff, batchSize),
+                    ids -> changeLogRepository.deleteByIds(ids)));
+        }
+
+        run.forEach((task, count) -> totals.computeIfAbsent(task, k -> new AtomicLong()).addAndGet(count));
+        lastRun = run;
+        lastRunAt = now;
+        logger.info("Janitor run cleaned {}", run);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lastRunAt", lastRunAt != null ? lastRunAt.toString() : null);
+        stats.put("lastRun", lastRun);
+        Map<String, Long> sinceStartup = new LinkedHashMap<>();
+        lastRun.keySet().forEach(task -> sinceStartup.put(task, totals.get(task).get()));
+        stats.put("sinceStartup", sinceStartup);
+        return stats;
+    }
+
+    private int abandonStaleExecutions(LocalDate before) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+        int abandoned = 0;
+        while (true) {
+            List<RoutineCompletionRepository.StaleCompletion> stale =
+                    routineCompletionRepository.findStaleInProgress(afterId, before, batchSize);
+            if (stale.isEmpty()) {
+                break;
+            }
+            List<Long> ids = stale.stream().map(RoutineCompletionRepository.StaleCompletion::getId).toList();
+            Integer changed = transaction.execute(status -> {
+                int updated = routineCompletionRepository.abandonStaleInProgress(ids, before);
+                // Routine views and the change feed show the active execution
+                stale.forEach(row -> webSocketService.notifyRoutineChanged(row.getUserId(), row.getRoutineId(), "EXECUTION_ABANDONED"));
+                return updated;
+            });
+            abandoned += changed != null ? changed : 0;
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+        return abandoned;
+    }
+
+    /**
+     * Applies the change to one batch of ids at a time, each batch in its own transaction.
+     *
+     * @return number of rows changed
+     */
+    private int sweep(LongFunction<List<Long>> nextBatch, Function<List<Long>, Integer> change) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+        int changed = 0;
+        while (true) {
+            List<Long> ids = nextBatch.apply(afterId);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer count = transaction.execute(status -> change.apply(ids));
+            changed += count != null ? count : 0;
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+        return changed;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
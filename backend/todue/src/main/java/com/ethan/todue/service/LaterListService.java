@@ -2,6 +2,7 @@ package com.ethan.todue.service;
 
 import com.ethan.todue.dto.LaterListResponse;
 import com.ethan.todue.dto.LaterListTodoResponse;
+import com.ethan.todue.dto.SearchResponse;
 import com.ethan.todue.model.LaterList;
 import com.ethan.todue.model.LaterListTodo;
 import com.ethan.todue.model.User;
@@ -14,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -33,14 +35,15 @@ public class LaterListService {
     @Autowired
     private WebSocketService webSocketService;
 
+    @Autowired
+    private ViewVersionService viewVersionService;
+
     // ==================== List Operations ====================
 
+    @Transactional(readOnly = true)
     public List<LaterListResponse> getAllLists() {
         User user = userService.getCurrentUser();
-        return laterListRepository.findByUserIdOrderByListName(user.getId())
-                .stream()
-                .map(this::toListResponse)
-                .collect(Collectors.toList());
+        return laterListRepository.findResponsesByUserId(user.getId());
     }
 
     @Transactional
@@ -96,13 +99,18 @@ public class LaterListService {
 
     // ==================== Todo Operations ====================
 
+    @Transactional(readOnly = true)
+    public String getTodosETag(Long listId) {
+        // Ownership first, a 304 must not confirm that someone else's list exists
+        LaterList list = getListAndVerifyOwnership(listId);
+        return viewVersionService.laterListETag(list.getUser().getId(), listId);
+    }
+
+    @Transactional(readOnly = true)
     public List<LaterListTodoResponse> getTodosForList(Long listId) {
         LaterList list = getListAndVerifyOwnership(listId);
 
-        return laterListTodoRepository.findByListIdOrderByPosition(listId)
-                .stream()
-                .map(this::toTodoResponse)
-                .collect(Collectors.toList());
+        return laterListTodoRepository.findResponsesByListId(listId);
     }
 
     @Transactional
@@ -321,6 +329,19 @@ public class LaterListService {
         webSocketService.notifyLaterListChanged(userId, listId, "TODOS_UPDATED");
     }
 
+    /**
+     * The user's later list todos with the given ids, with the list each is on.
+     */
+    @Transactional(readOnly = true)
+    public List<SearchResponse.LaterListMatch> getSearchMatches(Long userId, Collection<Long> todoIds) {
+        return laterListTodoRepository.findByIdsWithList(userId, todoIds).stream()
+                .map(todo -> new SearchResponse.LaterListMatch(
+                        todo.getList().getId(),
+                        todo.getList().getListName(),
+                        toTodoResponse(todo)))
+                .collect(Collectors.toList());
+    }
+
     // ==================== Helper Methods ====================
 
     private LaterList getListAndVerifyOwnership(Long listId) {
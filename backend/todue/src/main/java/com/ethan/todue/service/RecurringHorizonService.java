@@ -0,0 +1,244 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.model.RecurringTodo;
+import com.ethan.todue.model.Todo;
+import com.ethan.todue.model.User;
+import com.ethan.todue.repository.RecurringTodoRepository;
+import com.ethan.todue.repository.SkipRecurringRepository;
+import com.ethan.todue.repository.TodoRepository;
+import com.ethan.todue.repository.UserRepository;
+import com.ethan.todue.util.CompiledRecurrenceRules;
+import com.ethan.todue.util.UserMutationSequencer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional background materialization of recurring todos (app.recurring.horizon-days, 0 = off).
+ *
+ * Normally a future date's recurring instances are virtual: every view of the date works them out
+ * from the rules, skips and existing rows, and they only get a todos row when touched or when
+ * rollover reaches their day. In this mode a worker keeps each recently active user's instances
+ * materialized from their current date through horizon-days ahead, and records that date on the
+ * user (users.recurring_horizon). Views of dates inside the horizon are then just the indexed
+ * read of the day's rows, with no virtual expansion.
+ *
+ * The horizon stays valid as long as every instance inside it has a row or a skip. Deleting,
+ * editing or moving an instance already skips it, so only changes that add instances drop the
+ * horizon (see invalidate): a new recurring pattern, an import, a timezone change. Views fall back
+ * to virtual expansion until the next run fills the horizon again.
+ */
+@Service
+public class RecurringHorizonService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringHorizonService.class);
+
+    private static final int BATCH_SIZE = 100;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private RecurringTodoRepository recurringTodoRepository;
+
+    @Autowired
+    private SkipRecurringRepository skipRecurringRepository;
+
+    @Autowired
+    private ViewVersionService viewVersionService;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.recurring.horizon-days:0}")
+    private int horizonDays;
+
+    @Value("${app.recurring.horizon-active-days:7}")
+    private int activeDays;
+
+    /**
+     * Whether the user's recurring instances on this (current or future) date are all materialized.
+     */
+    public boolean covers(User user, LocalDate date) {
+        return horizonDays > 0 && user.getRecurringHorizon() != null && !date.isAfter(user.getRecurringHorizon());
+    }
+
+    /**
+     * Drops the user's horizon, for changes that may add instances inside it. Part of the caller's
+     * transaction; the next run materializes the horizon again.
+     */
+    public void invalidate(Long userId) {
+        if (horizonDays > 0) {
+            userRepository.clearRecurringHorizon(userId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void clearUnmaintainedHorizons() {
+        if (horizonDays <= 0) {
+            int cleared = userRepository.clearAllRecurringHorizons();
+            if (cleared > 0) {
+                logger.info("Recurring horizon is off, cleared it for {} users", cleared);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.recurring.horizon-interval-seconds:60}",
+            initialDelayString = "${app.recurring.horizon-interval-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void extendHorizons() {
+        if (horizonDays <= 0) {
+            return;
+        }
+        // No timezone is more than a day ahead of UTC, so no user's horizon is due beyond this
+        LocalDate through = LocalDate.now(ZoneOffset.UTC).plusDays(horizonDays + 1);
+        Instant activeSince = Instant.now().minus(activeDays, ChronoUnit.DAYS);
+
+        long afterId = 0;
+        int users = 0;
+        int instances = 0;
+        while (true) {
+            List<UserRepository.RecurringHorizonCandidate> batch =
+                    userRepository.findRecurringHorizonCandidates(afterId, activeSince, through, Limit.of(BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (UserRepository.RecurringHorizonCandidate candidate : batch) {
+                try {
+                    int materialized = extend(candidate);
+                    if (materialized >= 0) {
+                        users++;
+                        instances += materialized;
+                    }
+                } catch (RuntimeException e) {
+                    // E.g. a request materialized the same instance meanwhile; retried next run
+                    logger.warn("Recurring horizon failed for user {}: {}", candidate.getId(), e.getMessage());
+                }
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        if (users > 0) {
+            logger.info("Extended the recurring horizon of {} users, {} instances materialized", users, instances);
+        }
+    }
+
+    /**
+     * Materializes the user's instances between their current horizon (or current date) and the
+     * new one, queued behind their writes like any other write.
+     *
+     * @return instances materialized, -1 when the horizon was already far enough or moved meanwhile
+     */
+    private int extend(UserRepository.RecurringHorizonCandidate candidate) {
+        Long userId = candidate.getId();
+        LocalDate currentDate = LocalDate.now(ZoneId.of(candidate.getTimezone()));
+        LocalDate target = currentDate.plusDays(horizonDays);
+        LocalDate previous = candidate.getRecurringHorizon();
+        if (previous != null && !previous.isBefore(target)) {
+            return -1;
+        }
+        LocalDate from = previous == null || previous.isBefore(currentDate) ? currentDate : previous.plusDays(1);
+
+        return UserMutationSequencer.run(candidate.getEmail(), () -> new TransactionTemplate(transactionManager).execute(status -> {
+            int claimed = previous == null
+                    ? userRepository.claimRecurringHorizon(userId, target)
+                    : userRepository.extendRecurringHorizon(userId, previous, target);
+            if (claimed == 0) {
+                return -1;
+            }
+            return materialize(userId, from, target);
+        }));
+    }
+
+    private int materialize(Long userId, LocalDate from, LocalDate through) {
+        List<RecurringTodo> rules = new ArrayList<>(recurringTodoRepository.findActiveByUserIdAndDate(userId, from));
+        if (rules.isEmpty()) {
+            return 0;
+        }
+        rules.sort(Comparator.comparing(RecurringTodo::getId));
+        CompiledRecurrenceRules compiled = CompiledRecurrenceRules.compile(rules);
+
+        // Instances that already have a row or are skipped, by date
+        Map<LocalDate, Set<Long>> present = new HashMap<>();
+        for (List<TodoRepository.RecurringInstance> instances : List.of(
+                todoRepository.findRecurringInstances(userId, from, through),
+                skipRecurringRepository.findSkippedInstances(userId, from, through))) {
+            for (TodoRepository.RecurringInstance instance : instances) {
+                present.computeIfAbsent(instance.getInstanceDate(), date -> new HashSet<>()).add(instance.getRecurringTodoId());
+            }
+        }
+
+        User user = userRepository.getReferenceById(userId);
+        int materialized = 0;
+        for (LocalDate date = from; !date.isAfter(through); date = date.plusDays(1)) {
+            Set<Long> done = present.getOrDefault(date, Set.of());
+            List<RecurringTodo> missing = compiled.firingOn(date).stream()
+                    .filter(rule -> !done.contains(rule.getId()))
+                    .toList();
+            if (!missing.isEmpty()) {
+                materializeDate(user, date, missing);
+                materialized += missing.size();
+            }
+        }
+        return materialized;
+    }
+
+    /**
+     * Creates the date's missing instances where the view showed them as virtuals - ahead of the
+     * date's rows, in creation order of their patterns - so the list looks the same as before.
+     */
+    private void materializeDate(User user, LocalDate date, List<RecurringTodo> missing) {
+        List<Todo> existing = todoRepository.findByUserIdAndAssignedDate(user.getId(), date);
+        existing.sort(Comparator.comparing(Todo::getPosition).thenComparing(Todo::getId));
+
+        List<Todo> todos = new ArrayList<>();
+        int position = 1;
+        for (RecurringTodo rule : missing) {
+            Todo todo = new Todo();
+            todo.setUser(user);
+            todo.setText(rule.getText());
+            todo.setAssignedDate(date);
+            todo.setInstanceDate(date);
+            todo.setPosition(position++);
+            todo.setRecurringTodo(rule);
+            todo.setIsCompleted(false);
+            todo.setIsRolledOver(false);
+            todos.add(todo);
+        }
+        for (Todo todo : existing) {
+            todo.setPosition(position++);
+            todos.add(todo);
+        }
+        todoRepository.saveAll(todos);
+
+        // Cached views of the date still hold the virtuals
+        viewVersionService.todosChanged(user.getId(), date);
+        changeLogService.recordTodosChanged(user.getId(), date);
+    }
+}
@@ -7,7 +7,7 @@ import com.ethan.todue.repository.RecurringTodoRepository;
 import com.ethan.todue.repository.SkipRecurringRepository;
 import com.ethan.todue.repository.TodoRepository;
 import com.ethan.todue.repository.UserRepository;
-import com.ethan.todue.util.RecurrenceCalculator;
+import com.ethan.todue.util.CompiledRecurrenceRules;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,7 +18,6 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,20 +35,36 @@ public class RolloverService {
     @Autowired
     private SkipRecurringRepository skipRecurringRepository;
 
-    // In-memory session state for last rollover date per user
-    private final ConcurrentHashMap<Long, LocalDate> lastRolloverDateMap = new ConcurrentHashMap<>();
+    @Autowired
+    private ViewVersionService viewVersionService;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private RolloverTracker rolloverTracker;
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
 
     @Transactional
     public void performRollover(Long userId, LocalDate currentDate) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        // Claimed through the database rather than the tracker alone: another instance (or a
+        // request that saw a stale tracker entry) may have rolled this user over already
+        Instant dayStart = currentDate.atStartOfDay(java.time.ZoneId.of(user.getTimezone())).toInstant();
+        if (userRepository.claimRollover(userId, dayStart, Instant.now()) == 0) {
+            rolloverTracker.recordAfterCommit(userId, currentDate);
+            return;
+        }
+
         int position = 1; // Start at position 1 for sequential positioning
 
         // Step 1: Query recurring_todos and filter to only those that actually occur today
         List<RecurringTodo> allActiveRecurring = recurringTodoRepository.findActiveByUserIdAndDate(userId, currentDate);
-        List<RecurringTodo> todaysRecurring = allActiveRecurring.stream()
-                .filter(rec -> RecurrenceCalculator.shouldInstanceExist(rec.getRecurrenceType(), rec.getStartDate(), currentDate))
+        List<RecurringTodo> todaysRecurring = CompiledRecurrenceRules.compile(allActiveRecurring).firingOn(currentDate).stream()
                 .filter(rec -> !skipRecurringRepository.existsByRecurringTodoIdAndSkipDate(rec.getId(), currentDate))
                 .collect(java.util.stream.Collectors.toList());
         java.util.Set<Long> todaysRecurringIds = todaysRecurring.stream()
@@ -65,6 +80,7 @@ public class RolloverService {
                 .map(Todo::getAssignedDate)
                 .collect(Collectors.toSet());
 
+        int rolledOver = 0;
         for (Todo incompleteTodo : incompleteTodos) {
             // Delete if this recurring_todo_id will be materialized today
             if (incompleteTodo.getRecurringTodo() != null
@@ -77,6 +93,7 @@ public class RolloverService {
             incompleteTodo.setAssignedDate(currentDate);
             incompleteTodo.setIsRolledOver(true);
             incompleteTodo.setPosition(position++);
+            rolledOver++;
         }
 
         // Delete skipped recurring instances from past dates
@@ -87,6 +104,8 @@ public class RolloverService {
         }
 
         todoRepository.saveAll(incompleteTodos);
+        // Duplicates of today's recurring instances were deleted, not rolled over
+        dailyStatsService.recordRolledOver(userId, currentDate, rolledOver);
 
         // Renumber remaining todos on source dates to close position gaps
         sourceDates.forEach(date -> renumberPositions(date, userId));
@@ -150,12 +169,12 @@ public class RolloverService {
         todosToSave.addAll(completedNormalTodos);
         todoRepository.saveAll(todosToSave);
 
-        // Update last rollover date
-        user.setLastRolloverDate(Instant.now());
-        userRepository.save(user);
+        rolloverTracker.recordAfterCommit(userId, currentDate);
 
-        // Update session state
-        lastRolloverDateMap.put(userId, currentDate);
+        // Rollover moves todos off every past date, so invalidate all cached todo views
+        viewVersionService.allTodosChanged(userId);
+        sourceDates.forEach(date -> changeLogService.recordTodosChanged(userId, date));
+        changeLogService.recordTodosChanged(userId, currentDate);
     }
 
 
@@ -176,13 +195,13 @@ public class RolloverService {
             return false;
         }
 
-        // Check in-memory cache first (faster)
-        LocalDate lastRollover = lastRolloverDateMap.get(userId);
-        if (lastRollover != null && lastRollover.equals(currentDate)) {
-            return false; // Already done today (in this server session)
+        // Tracked users (warmed at startup) are answered from memory either way
+        LocalDate lastRollover = rolloverTracker.get(userId);
+        if (lastRollover != null) {
+            return lastRollover.isBefore(currentDate);
         }
 
-        // Check database (handles server restarts)
+        // Check database (users not seen recently or evicted)
         User user = userRepository.findById(userId).orElse(null);
         if (user != null && user.getLastRolloverDate() != null) {
             // Convert Instant to LocalDate in user's timezone
@@ -190,9 +209,8 @@ public class RolloverService {
                 .atZone(java.time.ZoneId.of(user.getTimezone()))
                 .toLocalDate();
 
-            // Update in-memory cache
-            if (lastRolloverFromDb.equals(currentDate)) {
-                lastRolloverDateMap.put(userId, currentDate);
+            rolloverTracker.record(userId, lastRolloverFromDb);
+            if (!lastRolloverFromDb.isBefore(currentDate)) {
                 return false; // Already done today (from previous server session)
             }
         }
@@ -0,0 +1,124 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last rollover date per user (in the user's own calendar), so board loads can tell whether
+ * today's rollover already ran without a database lookup. An entry older than today answers
+ * "needs rollover" just as well as a current one answers "done".
+ *
+ * Bounded two ways, so memory follows recently active users instead of everyone seen since boot:
+ * entries older than app.rollover.tracker.expire-days are purged hourly, and beyond
+ * app.rollover.tracker.max-users the least recently used entry is dropped. A miss only means
+ * "ask the database", so eviction never changes behaviour.
+ *
+ * Warmed at startup from one query over the users who rolled over within the expiry window, so
+ * the first board loads after the nightly restart don't each look their user up.
+ */
+@Service
+public class RolloverTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RolloverTracker.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.rollover.tracker.max-users:20000}")
+    private int maxUsers;
+
+    @Value("${app.rollover.tracker.expire-days:7}")
+    private int expireDays;
+
+    // Access-ordered for LRU eviction; guarded by this
+    private final Map<Long, LocalDate> lastRolloverDates = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, LocalDate> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    /**
+     * The last date the user rolled over to, or null if not tracked.
+     */
+    public synchronized LocalDate get(Long userId) {
+        LocalDate date = lastRolloverDates.get(userId);
+        if (date != null && date.isBefore(expiryCutoff())) {
+            lastRolloverDates.remove(userId);
+            return null;
+        }
+        return date;
+    }
+
+    public synchronized void record(Long userId, LocalDate date) {
+        lastRolloverDates.merge(userId, date, (current, added) -> added.isAfter(current) ? added : current);
+    }
+
+    /**
+     * Records the rollover once the surrounding transaction commits, so a rolled back rollover
+     * is never remembered as done.
+     */
+    public void recordAfterCommit(Long userId, LocalDate date) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(userId, date);
+                }
+            });
+        } else {
+            record(userId, date);
+        }
+    }
+
+    public synchronized int size() {
+        return lastRolloverDates.size();
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+    public synchronized void purgeExpired() {
+        LocalDate cutoff = expiryCutoff();
+        lastRolloverDates.values().removeIf(date -> date.isBefore(cutoff));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (maxUsers <= 0) {
+            return;
+        }
+        Instant since = Instant.now().minus(expireDays + 1L, ChronoUnit.DAYS);
+        List<UserRepository.RolloverMark> marks = userRepository.findRolloverMarksSince(since, Limit.of(maxUsers));
+
+        // Oldest first, so the most recent ones end up as the most recently used
+        for (int i = marks.size() - 1; i >= 0; i--) {
+            UserRepository.RolloverMark mark = marks.get(i);
+            record(mark.getId(), mark.getLastRolloverDate().atZone(ZoneId.of(mark.getTimezone())).toLocalDate());
+        }
+        logger.info("Rollover tracker warmed with {} users", marks.size());
+    }
+
+    // Local dates run up to a day behind UTC, keep that much slack
+    private LocalDate expiryCutoff() {
+        return LocalDate.now(ZoneOffset.UTC).minusDays(expireDays + 1L);
+    }
+}
@@ -39,16 +39,28 @@ public class RoutineService {
     @Autowired
     private WebSocketService webSocketService;
 
+    @Autowired
+    private ViewVersionService viewVersionService;
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
     // ==================== Routine CRUD ====================
 
+    @Transactional(readOnly = true)
     public List<RoutineResponse> getAllRoutines() {
         User user = userService.getCurrentUser();
-        return routineRepository.findByUserIdOrderByName(user.getId())
-                .stream()
-                .map(this::toRoutineResponse)
-                .collect(Collectors.toList());
+        return routineRepository.findResponsesByUserId(user.getId());
     }
 
+    @Transactional(readOnly = true)
+    public String getRoutineDetailETag(Long routineId) {
+        // Ownership first, a 304 must not confirm that someone else's routine exists
+        Routine routine = getRoutineAndVerifyOwnership(routineId);
+        return viewVersionService.routineETag(routine.getUser().getId(), routineId);
+    }
+
+    @Transactional(readOnly = true)
     public RoutineDetailResponse getRoutineDetail(Long routineId) {
         Routine routine = getRoutineAndVerifyOwnership(routineId);
         return toRoutineDetailResponse(routine);
@@ -246,6 +258,7 @@ public class RoutineService {
 
     // ==================== Prompts ====================
 
+    @Transactional(readOnly = true)
     public List<PendingRoutinePromptResponse> getPendingPrompts() {
         User user = userService.getCurrentUser();
         LocalDate today = getCurrentDateForUser(user);
@@ -258,17 +271,13 @@ public class RoutineService {
             return new ArrayList<>();
         }
 
-        // Filter out dismissed routines
+        // Filter out dismissed routines and those already completed today
         List<Long> dismissedIds = routinePromptDismissalRepository.findDismissedRoutineIdsByUserIdAndDate(user.getId(), today);
+        List<Long> completedIds = routineCompletionRepository.findCompletedRoutineIdsByUserIdAndDate(user.getId(), today);
 
-        // Filter out already completed today
         List<PendingRoutinePromptResponse> pendingPrompts = new ArrayList<>();
         for (Long routineId : scheduledRoutineIds) {
-            if (dismissedIds.contains(routineId)) {
-                continue;
-            }
-
-            if (routineCompletionRepository.existsCompletedByRoutineIdAndDate(routineId, today)) {
+            if (dismissedIds.contains(routineId) || completedIds.contains(routineId)) {
                 continue;
             }
 
@@ -337,6 +346,7 @@ public class RoutineService {
         completion.setStatus(RoutineCompletionStatus.IN_PROGRESS);
 
         completion = routineCompletionRepository.save(completion);
+        dailyStatsService.recordRoutineCompleted(user.getId(), today);
 
         // Create step completions for all steps
         List<RoutineStep> steps = routineStepRepository.findByRoutineIdOrderByPosition(routineId);
@@ -403,6 +413,7 @@ public class RoutineService {
         completion.setStatus(RoutineCompletionStatus.COMPLETED);
         completion.setCompletedAt(Instant.now());
         completion = routineCompletionRepository.save(completion);
+        dailyStatsService.recordRoutineCompleted(user.getId(), completion.getDate());
 
         webSocketService.notifyRoutineChanged(user.getId(), completion.getRoutine().getId(), "EXECUTION_COMPLETED");
 
@@ -457,6 +468,7 @@ public class RoutineService {
         completion.setStatus(RoutineCompletionStatus.COMPLETED);
 
         completion = routineCompletionRepository.save(completion);
+        dailyStatsService.recordRoutineCompleted(user.getId(), today);
 
         // Create step completions
         List<RoutineStep> steps = routineStepRepository.findByRoutineIdOrderByPosition(routineId);
@@ -484,6 +496,7 @@ public class RoutineService {
 
     // ==================== Analytics ====================
 
+    @Transactional(readOnly = true)
     public RoutineAnalyticsResponse getAnalytics(Long routineId, LocalDate startDate, LocalDate endDate) {
         Routine routine = getRoutineAndVerifyOwnership(routineId);
 
@@ -502,10 +515,12 @@ public class RoutineService {
         }
 
         // Calculate stats
-        long totalCompletions = routineCompletionRepository.countByRoutineIdAndStatusAndDateRange(
-                routineId, RoutineCompletionStatus.COMPLETED, startDate, endDate);
-        long totalAbandoned = routineCompletionRepository.countByRoutineIdAndStatusAndDateRange(
-                routineId, RoutineCompletionStatus.ABANDONED, startDate, endDate);
+        long totalCompletions = completions.stream()
+                .filter(c -> c.getStatus() == RoutineCompletionStatus.COMPLETED)
+                .count();
+        long totalAbandoned = completions.stream()
+                .filter(c -> c.getStatus() == RoutineCompletionStatus.ABANDONED)
+                .count();
 
         // Calculate completion rate based on scheduled days in range
         List<RoutineSchedule> schedules = routineScheduleRepository.findByRoutineIdOrderByDayOfWeek(routineId);
@@ -526,11 +541,12 @@ public class RoutineService {
         double completionRate = scheduledDays > 0 ? (totalCompletions * 100.0 / scheduledDays) : 0;
 
         // Calculate streaks
-        int currentStreak = calculateCurrentStreak(routineId);
-        int longestStreak = calculateLongestStreak(routineId);
+        List<RoutineCompletion> completedByDateDesc = routineCompletionRepository.findCompletedByRoutineIdOrderByDateDesc(routineId);
+        int currentStreak = calculateCurrentStreak(completedByDateDesc, getCurrentDateForUser(routine.getUser()));
+        int longestStreak = calculateLongestStreak(completedByDateDesc);
 
         // Calculate per-step analytics
-        List<RoutineAnalyticsResponse.StepAnalytics> stepAnalytics = calculateStepAnalytics(routineId, startDate, endDate);
+        List<RoutineAnalyticsResponse.StepAnalytics> stepAnalytics = calculateStepAnalytics(routineId, completions);
 
         return new RoutineAnalyticsResponse(
                 routineId,
@@ -545,14 +561,22 @@ public class RoutineService {
         );
     }
 
+    @Transactional(readOnly = true)
     public List<RoutineHistoryResponse> getHistory(Long routineId, LocalDate startDate, LocalDate endDate) {
         getRoutineAndVerifyOwnership(routineId);
 
         List<RoutineCompletion> completions = routineCompletionRepository
                 .findByRoutineIdAndDateRange(routineId, startDate, endDate);
+        if (completions.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Step counts for every completion in one query: completion id -> status -> count
+        Map<Long, Map<RoutineStepCompletionStatus, Long>> stepCounts = groupCounts(routineStepCompletionRepository
+                .countByCompletionForCompletionIds(completions.stream().map(RoutineCompletion::getId).toList()));
 
         return completions.stream()
-                .map(this::toHistoryResponse)
+                .map(completion -> toHistoryResponse(completion, stepCounts.getOrDefault(completion.getId(), Map.of())))
                 .collect(Collectors.toList());
     }
 
@@ -600,16 +624,11 @@ public class RoutineService {
         return LocalDate.now(userZone);
     }
 
-    private int calculateCurrentStreak(Long routineId) {
-        List<RoutineCompletion> completions = routineCompletionRepository
-                .findCompletedByRoutineIdOrderByDateDesc(routineId);
-
+    private int calculateCurrentStreak(List<RoutineCompletion> completions, LocalDate today) {
         if (completions.isEmpty()) {
             return 0;
         }
 
-        User user = userService.getCurrentUser();
-        LocalDate today = getCurrentDateForUser(user);
         LocalDate expectedDate = today;
 
         int streak = 0;
@@ -632,15 +651,13 @@ public class RoutineService {
         return streak;
     }
 
-    private int calculateLongestStreak(Long routineId) {
-        List<RoutineCompletion> completions = routineCompletionRepository
-                .findCompletedByRoutineIdOrderByDateDesc(routineId);
-
-        if (completions.isEmpty()) {
+    private int calculateLongestStreak(List<RoutineCompletion> completedByDateDesc) {
+        if (completedByDateDesc.isEmpty()) {
             return 0;
         }
 
         // Sort by date ascending for streak calculation
+        List<RoutineCompletion> completions = new ArrayList<>(completedByDateDesc);
         completions.sort(Comparator.comparing(RoutineCompletion::getDate));
 
         int longestStreak = 1;
@@ -661,34 +678,25 @@ public class RoutineService {
         return longestStreak;
     }
 
-    private List<RoutineAnalyticsResponse.StepAnalytics> calculateStepAnalytics(Long routineId, LocalDate startDate, LocalDate endDate) {
+    private List<RoutineAnalyticsResponse.StepAnalytics> calculateStepAnalytics(Long routineId, List<RoutineCompletion> completions) {
         List<RoutineStep> steps = routineStepRepository.findByRoutineIdOrderByPosition(routineId);
-        List<RoutineCompletion> completions = routineCompletionRepository
-                .findByRoutineIdAndDateRange(routineId, startDate, endDate);
 
         List<Long> completionIds = completions.stream()
                 .filter(c -> c.getStatus() == RoutineCompletionStatus.COMPLETED)
                 .map(RoutineCompletion::getId)
                 .collect(Collectors.toList());
 
+        // Step id -> status -> count over all completed runs, in one query
+        Map<Long, Map<RoutineStepCompletionStatus, Long>> stepCounts = completionIds.isEmpty()
+                ? Map.of()
+                : groupCounts(routineStepCompletionRepository.countByStepForCompletionIds(completionIds));
+
         List<RoutineAnalyticsResponse.StepAnalytics> analytics = new ArrayList<>();
 
         for (RoutineStep step : steps) {
-            long completedCount = 0;
-            long skippedCount = 0;
-
-            for (Long completionId : completionIds) {
-                Optional<RoutineStepCompletion> stepCompletion = routineStepCompletionRepository
-                        .findByCompletionIdAndStepId(completionId, step.getId());
-
-                if (stepCompletion.isPresent()) {
-                    if (stepCompletion.get().getStatus() == RoutineStepCompletionStatus.COMPLETED) {
-                        completedCount++;
-                    } else if (stepCompletion.get().getStatus() == RoutineStepCompletionStatus.SKIPPED) {
-                        skippedCount++;
-                    }
-                }
-            }
+            Map<RoutineStepCompletionStatus, Long> counts = stepCounts.getOrDefault(step.getId(), Map.of());
+            long completedCount = counts.getOrDefault(RoutineStepCompletionStatus.COMPLETED, 0L);
+            long skippedCount = counts.getOrDefault(RoutineStepCompletionStatus.SKIPPED, 0L);
 
             long total = completedCount + skippedCount;
             double completionRate = total > 0 ? (completedCount * 100.0 / total) : 0;
@@ -705,6 +713,16 @@ public class RoutineService {
         return analytics;
     }
 
+    private static Map<Long, Map<RoutineStepCompletionStatus, Long>> groupCounts(
+            List<RoutineStepCompletionRepository.StatusCount> counts) {
+        Map<Long, Map<RoutineStepCompletionStatus, Long>> grouped = new HashMap<>();
+        for (RoutineStepCompletionRepository.StatusCount count : counts) {
+            grouped.computeIfAbsent(count.getGroupId(), id -> new EnumMap<>(RoutineStepCompletionStatus.class))
+                    .put(count.getStatus(), count.getCount());
+        }
+        return grouped;
+    }
+
     // ==================== Response Mappers ====================
 
     private RoutineResponse toRoutineResponse(Routine routine) {
@@ -717,15 +735,8 @@ public class RoutineService {
     }
 
     private RoutineDetailResponse toRoutineDetailResponse(Routine routine) {
-        List<RoutineStepResponse> steps = routineStepRepository.findByRoutineIdOrderByPosition(routine.getId())
-                .stream()
-                .map(this::toStepResponse)
-                .collect(Collectors.toList());
-
-        List<RoutineScheduleResponse> schedules = routineScheduleRepository.findByRoutineIdOrderByDayOfWeek(routine.getId())
-                .stream()
-                .map(this::toScheduleResponse)
-                .collect(Collectors.toList());
+        List<RoutineStepResponse> steps = routineStepRepository.findResponsesByRoutineId(routine.getId());
+        List<RoutineScheduleResponse> schedules = routineScheduleRepository.findResponsesByRoutineId(routine.getId());
 
         return new RoutineDetailResponse(
                 routine.getId(),
@@ -795,17 +806,11 @@ public class RoutineService {
         );
     }
 
-    private RoutineHistoryResponse toHistoryResponse(RoutineCompletion completion) {
-        List<RoutineStepCompletion> stepCompletions = routineStepCompletionRepository
-                .findByCompletionIdOrderByStepPosition(completion.getId());
-
-        int totalSteps = stepCompletions.size();
-        int completedSteps = (int) stepCompletions.stream()
-                .filter(sc -> sc.getStatus() == RoutineStepCompletionStatus.COMPLETED)
-                .count();
-        int skippedSteps = (int) stepCompletions.stream()
-                .filter(sc -> sc.getStatus() == RoutineStepCompletionStatus.SKIPPED)
-                .count();
+    private RoutineHistoryResponse toHistoryResponse(RoutineCompletion completion,
+                                                     Map<RoutineStepCompletionStatus, Long> stepCounts) {
+        int totalSteps = (int) stepCounts.values().stream().mapToLong(Long::longValue).sum();
+        int completedSteps = stepCounts.getOrDefault(RoutineStepCompletionStatus.COMPLETED, 0L).intValue();
+        int skippedSteps = stepCounts.getOrDefault(RoutineStepCompletionStatus.SKIPPED, 0L).intValue();
 
         return new RoutineHistoryResponse(
                 completion.getId(),
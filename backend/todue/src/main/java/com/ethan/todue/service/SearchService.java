@@ -0,0 +1,238 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.dto.SearchResponse;
+import com.ethan.todue.dto.TodoResponse;
+import com.ethan.todue.model.User;
+import com.ethan.todue.repository.ArchivedTodoRepository;
+import com.ethan.todue.repository.LaterListTodoRepository;
+import com.ethan.todue.repository.TodoRepository;
+import com.ethan.todue.util.TokenIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.ref.SoftReference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prefix search over a user's todos (live and archived) and later list todos, answered from an
+ * in-memory TokenIndex per user instead of a LIKE scan.
+ *
+ * An index is built on the user's first search with one query per table, then kept current
+ * from the stamps ViewVersionService already takes for every todo date and later list a
+ * mutation touches: before answering, only the dates and lists changed since the last search
+ * are reloaded. Changes that may touch everything (import, recurring patterns, rollover) and
+ * more than app.search.max-changed-dates dates rebuild it instead.
+ *
+ * At most app.search.max-users indexes are kept, least recently searched first out, and they
+ * are only softly referenced so the GC can drop them under memory pressure; a dropped index is
+ * simply rebuilt on the next search.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 200;
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private ArchivedTodoRepository archivedTodoRepository;
+
+    @Autowired
+    private LaterListTodoRepository laterListTodoRepository;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private LaterListService laterListService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ViewVersionService viewVersionService;
+
+    @Value("${app.search.max-users:200}")
+    private int maxUsers;
+
+    @Value("${app.search.max-changed-dates:200}")
+    private int maxChangedDates;
+
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    // Access-ordered for LRU eviction; guarded by this map
+    private final Map<Long, SoftReference<UserIndex>> indexes = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, SoftReference<UserIndex>> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    private static class UserIndex {
+        // Todos grouped by assigned date, later list todos by list
+        final TokenIndex<LocalDate> todos = new TokenIndex<>();
+        final TokenIndex<Long> laterListTodos = new TokenIndex<>();
+        // ViewVersionService version the index reflects, -1 until built
+        long version = -1;
+    }
+
+    public SearchResponse search(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("Search query is required");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new RuntimeException("Search query is too long");
+        }
+        int max = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        User user = userService.getCurrentUser();
+
+        UserIndex index = indexFor(user.getId());
+        long[] todoIds;
+        long[] laterListTodoIds;
+        List<Long> topTodoIds;
+        synchronized (index) {
+            refresh(user, index);
+            todoIds = index.todos.search(query);
+            laterListTodoIds = index.laterListTodos.search(query);
+            topTodoIds = newestFirst(index.todos, todoIds, max);
+        }
+
+        SearchResponse response = new SearchResponse();
+        response.setTodoMatches(todoIds.length);
+        response.setLaterListTodoMatches(laterListTodoIds.length);
+        if (!topTodoIds.isEmpty()) {
+            List<TodoResponse> todos = new ArrayList<>(todoService.getTodosByIds(user.getId(), topTodoIds));
+            todos.sort(Comparator.comparing(TodoResponse::getAssignedDate)
+                    .thenComparing(TodoResponse::getId)
+                    .reversed());
+            response.setTodos(todos);
+        }
+        if (laterListTodoIds.length > 0) {
+            // Highest ids are the most recently added
+            List<Long> topLaterListTodoIds = new ArrayList<>();
+            for (int i = laterListTodoIds.length - 1; i >= 0 && topLaterListTodoIds.size() < max; i--) {
+                topLaterListTodoIds.add(laterListTodoIds[i]);
+            }
+            List<SearchResponse.LaterListMatch> matches = new ArrayList<>(
+                    laterListService.getSearchMatches(user.getId(), topLaterListTodoIds));
+            matches.sort(Comparator.comparing((SearchResponse.LaterListMatch match) -> match.getTodo().getId()).reversed());
+            response.setLaterListTodos(matches);
+        }
+        return response;
+    }
+
+    public Map<String, Object> getStats() {
+        int indexed = 0;
+        long items = 0;
+        synchronized (indexes) {
+            for (SoftReference<UserIndex> ref : indexes.values()) {
+                UserIndex index = ref.get();
+                if (index != null) {
+                    indexed++;
+                    items += index.todos.size() + index.laterListTodos.size();
+                }
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("indexedUsers", indexed);
+        stats.put("indexedItems", items);
+        stats.put("builds", builds.get());
+        stats.put("refreshes", refreshes.get());
+        return stats;
+    }
+
+    private UserIndex indexFor(Long userId) {
+        synchronized (indexes) {
+            SoftReference<UserIndex> ref = indexes.get(userId);
+            UserIndex index = ref != null ? ref.get() : null;
+            if (index == null) {
+                index = new UserIndex();
+                indexes.put(userId, new SoftReference<>(index));
+            }
+            return index;
+        }
+    }
+
+    private void refresh(User user, UserIndex index) {
+        if (index.version < 0) {
+            build(user, index);
+            return;
+        }
+        ViewVersionService.Changes changes = viewVersionService.changesSince(user.getId(), index.version);
+        if (changes.all() || changes.todoDates().size() > maxChangedDates) {
+            build(user, index);
+            return;
+        }
+        if (!changes.todoDates().isEmpty()) {
+            changes.todoDates().forEach(index.todos::removeGroup);
+            List<TodoRepository.SearchRow> rows = new ArrayList<>();
+            if (user.getArchivedThrough() != null) {
+                rows.addAll(archivedTodoRepository.findSearchRowsByDates(user.getId(), changes.todoDates()));
+            }
+            rows.addAll(todoRepository.findSearchRowsByDates(user.getId(), changes.todoDates()));
+            rows.forEach(row -> index.todos.put(row.getId(), row.getAssignedDate(), row.getText()));
+        }
+        if (!changes.laterLists().isEmpty()) {
+            changes.laterLists().forEach(index.laterListTodos::removeGroup);
+            laterListTodoRepository.findSearchRowsByListIds(user.getId(), changes.laterLists())
+                    .forEach(row -> index.laterListTodos.put(row.getId(), row.getListId(), row.getText()));
+        }
+        if (!changes.todoDates().isEmpty() || !changes.laterLists().isEmpty()) {
+            refreshes.incrementAndGet();
+        }
+        index.version = changes.version();
+    }
+
+    private void build(User user, UserIndex index) {
+        // Taken before loading: every change stamped up to here committed before the queries run
+        long version = viewVersionService.currentVersion();
+        index.todos.clear();
+        index.laterListTodos.clear();
+        // Archived ids predate live ones, and each query is in id order, so building only appends
+        if (user.getArchivedThrough() != null) {
+            archivedTodoRepository.findSearchRows(user.getId())
+                    .forEach(row -> index.todos.put(row.getId(), row.getAssignedDate(), row.getText()));
+        }
+        todoRepository.findSearchRows(user.getId())
+                .forEach(row -> index.todos.put(row.getId(), row.getAssignedDate(), row.getText()));
+        laterListTodoRepository.findSearchRows(user.getId())
+                .forEach(row -> index.laterListTodos.put(row.getId(), row.getListId(), row.getText()));
+        index.version = version;
+        builds.incrementAndGet();
+        logger.debug("Built search index for user {} with {} todos and {} later list todos",
+                user.getId(), index.todos.size(), index.laterListTodos.size());
+    }
+
+    /**
+     * Up to max of the ids, newest assigned date first, without sorting all of them.
+     */
+    private static List<Long> newestFirst(TokenIndex<LocalDate> todos, long[] ids, int max) {
+        Comparator<Long> newest = Comparator.comparing((Long id) -> todos.groupOf(id)).thenComparing(id -> id);
+        PriorityQueue<Long> top = new PriorityQueue<>(max + 1, newest);
+        for (long id : ids) {
+            top.offer(id);
+            if (top.size() > max) {
+                top.poll();
+            }
+        }
+        List<Long> result = new ArrayList<>(top);
+        result.sort(newest.reversed());
+        return result;
+    }
+}
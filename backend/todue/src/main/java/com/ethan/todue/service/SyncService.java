@@ -0,0 +1,115 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.dto.LaterListResponse;
+import com.ethan.todue.dto.SyncResponse;
+import com.ethan.todue.model.ChangeLogEntry;
+import com.ethan.todue.model.User;
+import com.ethan.todue.repository.ChangeLogRepository;
+import com.ethan.todue.repository.RoutineRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class SyncService {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private RoutineRepository routineRepository;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private LaterListService laterListService;
+
+    @Autowired
+    private RoutineService routineService;
+
+    /**
+     * Everything that changed after the given cursor, as the current state of each changed
+     * date, later list and routine. Cost scales with the number of edits, not with data size.
+     *
+     * One read-only transaction, so the cursor and every scope come from the same snapshot, and
+     * no side effects: the changed dates are read as they are, without rolling the user over.
+     */
+    @Transactional(readOnly = true)
+    public SyncResponse getChangesSince(Long since) {
+        User user = userService.getCurrentUser();
+        Long cursor = user.getChangeSeq();
+
+        SyncResponse response = new SyncResponse();
+        response.setCursor(cursor);
+
+        if (since == null || since > cursor) {
+            response.setFullResync(true);
+            return response;
+        }
+        if (since.equals(cursor)) {
+            return response;
+        }
+
+        // Sequence numbers are gapless per user, so a missing since + 1 means it was pruned
+        Long oldestSeq = changeLogRepository.findOldestSeqByUserId(user.getId());
+        if (oldestSeq == null || oldestSeq > since + 1) {
+            response.setFullResync(true);
+            return response;
+        }
+
+        Set<LocalDate> dates = new TreeSet<>();
+        Set<Long> listIds = new LinkedHashSet<>();
+        Set<Long> routineIds = new LinkedHashSet<>();
+        for (ChangeLogEntry entry : changeLogRepository.findByUserIdAndSeqRange(user.getId(), since, cursor)) {
+            switch (entry.getScope()) {
+                case TODO_DATE -> dates.add(entry.getScopeDate());
+                case RECURRING -> response.setRecurringChanged(true);
+                case LATER_LIST -> listIds.add(entry.getScopeId());
+                case ROUTINE -> routineIds.add(entry.getScopeId());
+                case ALL -> response.setFullResync(true);
+            }
+        }
+        if (response.getFullResync()) {
+            return response;
+        }
+
+        response.getTodos().putAll(todoService.getTodosForDates(user, dates));
+
+        if (!listIds.isEmpty()) {
+            Map<Long, LaterListResponse> lists = laterListService.getAllLists().stream()
+                    .collect(Collectors.toMap(LaterListResponse::getId, Function.identity()));
+            for (Long listId : listIds) {
+                LaterListResponse list = lists.get(listId);
+                if (list == null) {
+                    response.getDeletedLaterListIds().add(listId);
+                } else {
+                    response.getLaterLists().add(list);
+                    response.getLaterListTodos().put(listId, laterListService.getTodosForList(listId));
+                }
+            }
+        }
+
+        for (Long routineId : routineIds) {
+            if (routineRepository.existsById(routineId)) {
+                response.getRoutines().add(routineService.getRoutineDetail(routineId));
+            } else {
+                response.getDeletedRoutineIds().add(routineId);
+            }
+        }
+
+        return response;
+    }
+}
@@ -0,0 +1,158 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.dto.TodoResponse;
+import com.ethan.todue.model.ArchivedTodo;
+import com.ethan.todue.model.User;
+import com.ethan.todue.repository.ArchivedTodoRepository;
+import com.ethan.todue.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Moves completed todos older than app.archive.after-days out of the hot todos table into
+ * archived_todos, so the indexes the day views and rollover scan only cover recent data.
+ *
+ * Archiving is invisible to clients: the todo views merge archived rows back in for dates up to
+ * the user's archived_through, and touching an archived todo (uncomplete, edit, move...) restores
+ * it into todos under the same id first.
+ */
+@Service
+public class TodoArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoArchiveService.class);
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private ArchivedTodoRepository archivedTodoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.archive.after-days:365}")
+    private int afterDays;
+
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}", zone = "UTC")
+    public void archiveOldTodos() {
+        if (afterDays <= 0 || !clusterService.claimScheduledRun("archive")) {
+            return;
+        }
+        // A day of slack so no user's timezone can still be on the cutoff date
+        archiveCompletedBefore(LocalDate.now(ZoneOffset.UTC).minusDays(afterDays + 1L));
+    }
+
+    /**
+     * Archives every completed todo assigned before the cutoff, in batches of their own
+     * transaction so no lock is held for long.
+     *
+     * @return number of todos archived
+     */
+    public int archiveCompletedBefore(LocalDate cutoff) {
+        // Advance the read horizon first: between two batches a view must already know to look.
+        // Only for users with something to archive - the others' views keep skipping the archive
+        userRepository.advanceArchivedThrough(cutoff.minusDays(1), cutoff);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+        int archived = 0;
+        while (true) {
+            List<Long> ids = archivedTodoRepository.findArchivableTodoIds(afterId, cutoff, BATCH_SIZE);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer moved = transaction.execute(status -> {
+                int copied = archivedTodoRepository.copyFromTodos(ids);
+                int deleted = archivedTodoRepository.deleteFromTodos(ids);
+                if (copied != deleted) {
+                    // A todo was uncompleted in between - try again with the next run
+                    status.setRollbackOnly();
+                    return 0;
+                }
+                return deleted;
+            });
+            archived += moved != null ? moved : 0;
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        if (archived > 0) {
+            logger.info("Archived {} completed todos assigned before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    /**
+     * Puts the user's archived todo back into todos under its original id, inside the caller's
+     * transaction. Does nothing if the id is not archived or is someone else's.
+     *
+     * @return true if the todo was restored
+     */
+    @Transactional
+    public boolean restore(Long userId, Long todoId) {
+        if (archivedTodoRepository.copyToTodos(userId, todoId) == 0) {
+            return false;
+        }
+        archivedTodoRepository.deleteArchived(todoId);
+        return true;
+    }
+
+    /**
+     * Archived todos of the user in a date range, or none without a query when the range is
+     * newer than anything archived for them.
+     */
+    @Transactional(readOnly = true)
+    public List<TodoResponse> getArchivedTodos(User user, LocalDate startDate, LocalDate endDate) {
+        if (!mayHaveArchived(user, startDate)) {
+            return Collections.emptyList();
+        }
+        return archivedTodoRepository.findResponsesByUserIdAndAssignedDateBetween(user.getId(), startDate, endDate);
+    }
+
+    /**
+     * Archived todos of the user on the given dates, or none without a query when all of them
+     * are newer than anything archived for them.
+     */
+    @Transactional(readOnly = true)
+    public List<TodoResponse> getArchivedTodos(User user, Collection<LocalDate> dates) {
+        if (dates.isEmpty() || !mayHaveArchived(user, Collections.min(dates))) {
+            return Collections.emptyList();
+        }
+        return archivedTodoRepository.findResponsesByUserIdAndAssignedDateIn(user.getId(), dates);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ArchivedTodo> getArchivedTodosByIds(Long userId, Collection<Long> ids) {
+        return archivedTodoRepository.findAllById(ids).stream()
+                .filter(archived -> archived.getUser().getId().equals(userId))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public int getMaxArchivedPosition(User user, LocalDate date) {
+        if (!mayHaveArchived(user, date)) {
+            return 0;
+        }
+        return archivedTodoRepository.findMaxPosition(user.getId(), date);
+    }
+
+    private boolean mayHaveArchived(User user, LocalDate date) {
+        return user.getArchivedThrough() != null && !date.isAfter(user.getArchivedThrough());
+    }
+}
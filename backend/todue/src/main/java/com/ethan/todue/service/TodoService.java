@@ -1,25 +1,41 @@
 package com.ethan.todue.service;
 
+import com.ethan.todue.dto.TodoBatchRequest;
 import com.ethan.todue.dto.TodoResponse;
+import com.ethan.todue.model.ArchivedTodo;
 import com.ethan.todue.model.RecurringTodo;
 import com.ethan.todue.model.Todo;
 import com.ethan.todue.model.User;
 import com.ethan.todue.repository.RecurringTodoRepository;
 import com.ethan.todue.repository.SkipRecurringRepository;
 import com.ethan.todue.repository.TodoRepository;
+import com.ethan.todue.util.CompiledRecurrenceRules;
 import com.ethan.todue.util.RecurrenceCalculator;
 import com.ethan.todue.util.RecurrenceParser;
+import com.ethan.todue.util.UserMutationSequencer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -43,36 +59,60 @@ public class TodoService {
     @Autowired
     private RolloverService rolloverService;
 
+    @Autowired
+    private TodoArchiveService todoArchiveService;
+
     @Autowired
     private com.ethan.todue.websocket.WebSocketService webSocketService;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ViewVersionService viewVersionService;
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    @Autowired
+    private RecurringHorizonService recurringHorizonService;
+
+    // Dates whose gap-closing renumber is postponed while applyBatch runs on this thread
+    private final ThreadLocal<Set<LocalDate>> deferredRenumbers = new ThreadLocal<>();
+
     @Transactional
     public TodoResponse createTodo(String text, LocalDate assignedDate, Integer position) {
         User user = userService.getCurrentUser();
+        dailyStatsService.recordCreated(user);
 
         // Check if text contains recurrence pattern
         RecurrenceParser.RecurrenceInfo recurrenceInfo = RecurrenceParser.parseText(text);
 
         if (recurrenceInfo != null) {
+            // A weekday rule starts on its first matching day (e.g. "every monday" typed on a Wednesday)
+            assignedDate = RecurrenceCalculator.firstInstanceOnOrAfter(recurrenceInfo.getRule(), assignedDate);
+
             // Create recurring todo
             RecurringTodo recurringTodo = new RecurringTodo();
             recurringTodo.setUser(user);
             recurringTodo.setText(recurrenceInfo.getStrippedText());
-            recurringTodo.setRecurrenceType(recurrenceInfo.getType());
+            recurrenceInfo.getRule().applyTo(recurringTodo);
             recurringTodo.setStartDate(assignedDate);
 
             recurringTodo = recurringTodoRepository.save(recurringTodo);
+            recurringHorizonService.invalidate(user.getId());
 
             // Check if we're creating this on the current date
             LocalDate currentDate = userService.getCurrentDateForUser();
             if (assignedDate.equals(currentDate)) {
                 // If specific position requested
                 if (position != null) {
-                    int virtualCount = getVirtualCount(user.getId(), assignedDate);
+                    RecurringDay day = recurringDay(user.getId(), assignedDate);
+                    int virtualCount = day.virtualCount();
                     
                     if (position <= virtualCount) {
                         // Inserting into the virtual zone - materialize everything to establish order
-                        materializeAllVirtuals(user.getId(), assignedDate);
+                        materializeAllVirtuals(user.getId(), assignedDate, day);
                         // virtuals are now real, so position is used as-is against the real list
                     } else {
                         // Inserting after virtuals - adjust position to be relative to real list
@@ -104,7 +144,7 @@ public class TodoService {
                     if (position != null) {
                         firstInstance.setPosition(position);
                     } else {
-                        firstInstance.setPosition(getNextPosition(user.getId(), assignedDate));
+                        firstInstance.setPosition(getNextPosition(user, assignedDate));
                     }
 
                     firstInstance.setRecurringTodo(recurringTodo);
@@ -143,11 +183,12 @@ public class TodoService {
         } else {
             // If specific position requested
             if (position != null) {
-                int virtualCount = getVirtualCount(user.getId(), assignedDate);
+                RecurringDay day = recurringDay(user.getId(), assignedDate);
+                int virtualCount = day.virtualCount();
                 
                 if (position <= virtualCount) {
                     // Inserting into the virtual zone - materialize everything to establish order
-                    materializeAllVirtuals(user.getId(), assignedDate);
+                    materializeAllVirtuals(user.getId(), assignedDate, day);
                     // virtuals are now real, so position is used as-is against the real list
                 } else {
                     // Inserting after virtuals - adjust position to be relative to real list
@@ -168,7 +209,7 @@ public class TodoService {
             if (position != null) {
                 todo.setPosition(position);
             } else {
-                todo.setPosition(getNextPosition(user.getId(), assignedDate));
+                todo.setPosition(getNextPosition(user, assignedDate));
             }
             
             todo.setIsCompleted(false);
@@ -183,50 +224,62 @@ public class TodoService {
         }
     }
 
-    private int getVirtualCount(Long userId, LocalDate date) {
-        int count = 0;
-        List<RecurringTodo> allRecurring = recurringTodoRepository.findActiveByUserIdAndDate(userId, date);
-        
-        for (RecurringTodo rec : allRecurring) {
-            if (RecurrenceCalculator.shouldInstanceExist(rec.getRecurrenceType(), rec.getStartDate(), date)) {
-                // Check if not already materialized
-                if (todoRepository.findFirstByRecurringTodoIdAndInstanceDate(rec.getId(), date).isEmpty()) {
-                    // Check if not skipped
-                    if (!skipRecurringRepository.existsByRecurringTodoIdAndSkipDate(rec.getId(), date)) {
-                        count++;
-                    }
-                }
-            }
+    /**
+     * A date's recurring instances, looked up once per request: the rules firing on it in
+     * creation order, and which of them already have a todo or are skipped.
+     */
+    private record RecurringDay(List<RecurringTodo> firing, Set<Long> materialized, Set<Long> skipped) {
+
+        boolean isVirtual(RecurringTodo rule) {
+            return !materialized.contains(rule.getId()) && !skipped.contains(rule.getId());
+        }
+
+        int virtualCount() {
+            return (int) firing.stream().filter(this::isVirtual).count();
         }
-        return count;
     }
 
-    @Transactional
+    private RecurringDay recurringDay(Long userId, LocalDate date) {
+        List<RecurringTodo> rules = new ArrayList<>(recurringTodoRepository.findActiveByUserIdAndDate(userId, date));
+        rules.sort(Comparator.comparing(RecurringTodo::getId));
+        List<RecurringTodo> firing = CompiledRecurrenceRules.compile(rules).firingOn(date);
+        if (firing.isEmpty()) {
+            return new RecurringDay(firing, Set.of(), Set.of());
+        }
+        return new RecurringDay(firing,
+                recurringTodoIds(todoRepository.findRecurringInstances(userId, date, date)),
+                recurringTodoIds(skipRecurringRepository.findSkippedInstances(userId, date, date)));
+    }
+
+    private static Set<Long> recurringTodoIds(List<TodoRepository.RecurringInstance> instances) {
+        return instances.stream().map(TodoRepository.RecurringInstance::getRecurringTodoId).collect(Collectors.toSet());
+    }
+
     public List<TodoResponse> getTodosForDate(LocalDate date) {
         User user = userService.getCurrentUser();
         LocalDate currentDate = userService.getCurrentDateForUser();
 
-        // Check if rollover is needed
+        // Check if rollover is needed (runs in its own read-write transaction)
         if (rolloverService.shouldTriggerRollover(user.getId(), date, currentDate)) {
-            rolloverService.performRollover(user.getId(), currentDate);
+            performRollover(user, currentDate);
         }
 
-        // Get real todos (sorted by repository: isCompleted ASC, position ASC, id ASC)
-        List<Todo> realTodos = todoRepository.findByUserIdAndAssignedDate(user.getId(), date);
-        List<TodoResponse> responses = realTodos.stream()
-                .map(this::toTodoResponse)
-                .collect(Collectors.toList());
+        return inReadOnlyTransaction(() -> {
+            // Get real todos (sorted by repository: isCompleted ASC, position ASC, id ASC)
+            List<TodoResponse> responses = new ArrayList<>(todoRepository.findResponsesByUserIdAndAssignedDate(user.getId(), date));
+            responses.addAll(todoArchiveService.getArchivedTodos(user, date, date));
 
-        // Generate virtual todos for current or future dates
-        if (!date.isBefore(currentDate)) {
-            List<TodoResponse> virtuals = generateVirtualTodos(user.getId(), date);
-            responses.addAll(virtuals);
-        }
+            // Generate virtual todos for current or future dates, unless they are all materialized already
+            if (!date.isBefore(currentDate) && !recurringHorizonService.covers(user, date)) {
+                List<TodoResponse> virtuals = generateVirtualTodos(user.getId(), date);
+                responses.addAll(virtuals);
+            }
 
-        // Sort by position only (position determines order including completion status)
-        responses.sort(Comparator.comparing(TodoResponse::getPosition));
+            // Sort by position only (position determines order including completion status)
+            responses.sort(Comparator.comparing(TodoResponse::getPosition));
 
-        return responses;
+            return responses;
+        });
     }
 
     public List<TodoResponse> getTodosForDateRange(LocalDate startDate, LocalDate endDate) {
@@ -236,84 +289,174 @@ public class TodoService {
         // Check if rollover is needed (if current date is in requested range)
         if (!currentDate.isBefore(startDate) && !currentDate.isAfter(endDate)) {
             if (rolloverService.shouldTriggerRollover(user.getId(), currentDate, currentDate)) {
-                rolloverService.performRollover(user.getId(), currentDate);
+                performRollover(user, currentDate);
             }
         }
 
-        // Get real todos (already sorted by repository)
-        List<Todo> realTodos = todoRepository.findByUserIdAndAssignedDateBetween(user.getId(), startDate, endDate);
-        List<TodoResponse> responses = realTodos.stream()
-                .map(this::toTodoResponse)
-                .collect(Collectors.toList());
+        return inReadOnlyTransaction(() -> {
+            // Get real todos (already sorted by repository)
+            List<TodoResponse> responses = new ArrayList<>(
+                    todoRepository.findResponsesByUserIdAndAssignedDateBetween(user.getId(), startDate, endDate));
+            responses.addAll(todoArchiveService.getArchivedTodos(user, startDate, endDate));
+
+            // Generate virtual todos for the range's current and future dates, all rules compiled once
+            List<LocalDate> virtualDates = new ArrayList<>();
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                if (!date.isBefore(currentDate) && !recurringHorizonService.covers(user, date)) {
+                    virtualDates.add(date);
+                }
+            }
+            generateVirtualTodos(user.getId(), virtualDates).values().forEach(responses::addAll);
 
-        // Generate virtual todos for each date in range
-        LocalDate date = startDate;
-        while (!date.isAfter(endDate)) {
-            if (!date.isBefore(currentDate)) {
-                List<TodoResponse> virtuals = generateVirtualTodos(user.getId(), date);
-                responses.addAll(virtuals);
+            // Sort by assigned date, then position (position determines order including completion status)
+            responses.sort(Comparator
+                    .comparing(TodoResponse::getAssignedDate)
+                    .thenComparing(TodoResponse::getPosition));
+
+            return responses;
+        });
+    }
+
+    /**
+     * The todo views of several dates for the sync feed, in one read-only transaction. Unlike
+     * getTodosForDate this never rolls over: a sync only reports state, and the client's next
+     * view of today rolls over (and logs the change) as usual.
+     */
+    public Map<LocalDate, List<TodoResponse>> getTodosForDates(User user, Collection<LocalDate> dates) {
+        LocalDate currentDate = LocalDate.now(ZoneId.of(user.getTimezone()));
+
+        return inReadOnlyTransaction(() -> {
+            Map<LocalDate, List<TodoResponse>> views = new TreeMap<>();
+            dates.forEach(date -> views.put(date, new ArrayList<>()));
+            if (dates.isEmpty()) {
+                return views;
+            }
+
+            List<TodoResponse> responses = new ArrayList<>(todoRepository.findResponsesByUserIdAndAssignedDateIn(user.getId(), dates));
+            responses.addAll(todoArchiveService.getArchivedTodos(user, dates));
+
+            List<LocalDate> virtualDates = dates.stream()
+                    .filter(date -> !date.isBefore(currentDate) && !recurringHorizonService.covers(user, date))
+                    .toList();
+            generateVirtualTodos(user.getId(), virtualDates).values().forEach(responses::addAll);
+
+            for (TodoResponse response : responses) {
+                views.get(response.getAssignedDate()).add(response);
+            }
+            views.values().forEach(view -> view.sort(Comparator.comparing(TodoResponse::getPosition)));
+            return views;
+        });
+    }
+
+    /**
+     * Rollover rewrites the user's todos, so it queues behind their in-flight mutations like any
+     * other write instead of racing them for row locks.
+     */
+    private void performRollover(User user, LocalDate currentDate) {
+        UserMutationSequencer.run(user.getEmail(), () -> {
+            rolloverService.performRollover(user.getId(), currentDate);
+            return null;
+        });
+    }
+
+    /**
+     * ETag for the todo view of a date range, cheap enough to check before building the view.
+     * Runs a pending rollover first so the tag describes the list the caller is about to get.
+     */
+    public String getTodosETag(LocalDate startDate, LocalDate endDate) {
+        User user = userService.getCurrentUser();
+        LocalDate currentDate = LocalDate.now(ZoneId.of(user.getTimezone()));
+
+        if (!currentDate.isBefore(startDate) && !currentDate.isAfter(endDate)) {
+            if (rolloverService.shouldTriggerRollover(user.getId(), currentDate, currentDate)) {
+                performRollover(user, currentDate);
             }
-            date = date.plusDays(1);
         }
 
-        // Sort by assigned date, then position (position determines order including completion status)
-        responses.sort(Comparator
-                .comparing(TodoResponse::getAssignedDate)
-                .thenComparing(TodoResponse::getPosition));
+        return viewVersionService.todosETag(user.getId(), startDate, endDate, currentDate);
+    }
 
-        return responses;
+    /**
+     * Runs the view queries in a read-only transaction: Hibernate skips flushing and dirty-checking
+     * snapshots, and the read/write routing DataSource (if configured) serves them from the read pool.
+     * Rollover is done beforehand in its own transaction so the views themselves never write.
+     */
+    private <T> T inReadOnlyTransaction(Supplier<T> work) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> work.get());
     }
 
     public List<TodoResponse> generateVirtualTodos(Long userId, LocalDate date) {
-        List<TodoResponse> virtuals = new ArrayList<>();
+        return generateVirtualTodos(userId, List.of(date)).getOrDefault(date, List.of());
+    }
 
-        // Get all active recurring todos for user
-        List<RecurringTodo> recurringTodos = recurringTodoRepository.findActiveByUserIdAndDate(userId, date);
+    /**
+     * Virtual todos of several dates, with one lookup each for the rules, the instances that
+     * already have a row and the skipped ones, however many rules and dates there are.
+     */
+    private Map<LocalDate, List<TodoResponse>> generateVirtualTodos(Long userId, Collection<LocalDate> dates) {
+        Map<LocalDate, List<TodoResponse>> virtuals = new HashMap<>();
+        if (dates.isEmpty()) {
+            return virtuals;
+        }
+        LocalDate startDate = Collections.min(dates);
+        LocalDate endDate = Collections.max(dates);
+
+        // Rules not ended by the first date, in creation order like materialized ones; the compiled
+        // rules check each one's window per date
+        List<RecurringTodo> recurringTodos = new ArrayList<>(recurringTodoRepository.findActiveByUserIdAndDate(userId, startDate));
+        if (recurringTodos.isEmpty()) {
+            return virtuals;
+        }
+        recurringTodos.sort(Comparator.comparing(RecurringTodo::getId));
+        CompiledRecurrenceRules compiled = CompiledRecurrenceRules.compile(recurringTodos);
+
+        // Instances that already have a real todo or are skipped, by date
+        Map<LocalDate, Set<Long>> present = new HashMap<>();
+        for (List<TodoRepository.RecurringInstance> instances : List.of(
+                todoRepository.findRecurringInstances(userId, startDate, endDate),
+                skipRecurringRepository.findSkippedInstances(userId, startDate, endDate))) {
+            for (TodoRepository.RecurringInstance instance : instances) {
+                present.computeIfAbsent(instance.getInstanceDate(), date -> new HashSet<>()).add(instance.getRecurringTodoId());
+            }
+        }
 
-        for (RecurringTodo recurring : recurringTodos) {
-            // Check if instance should exist on this date
-            if (RecurrenceCalculator.shouldInstanceExist(recurring.getRecurrenceType(), recurring.getStartDate(), date)) {
-                // Check if real todo already exists
-                if (todoRepository.findFirstByRecurringTodoIdAndInstanceDate(recurring.getId(), date).isEmpty()) {
-                    // Check if this instance is skipped
-                    if (!skipRecurringRepository.existsByRecurringTodoIdAndSkipDate(recurring.getId(), date)) {
-                        // Create virtual todo (position 0, will sort by recurring ID)
-                        TodoResponse virtual = new TodoResponse();
-                        virtual.setId(null); // Virtual has no ID
-                        virtual.setText(recurring.getText());
-                        virtual.setAssignedDate(date);
-                        virtual.setInstanceDate(date);
-                        virtual.setPosition(0);
-                        virtual.setRecurringTodoId(recurring.getId());
-                        virtual.setIsCompleted(false);
-                        virtual.setCompletedAt(null);
-                        virtual.setIsRolledOver(false);
-                        virtual.setIsVirtual(true);
-                        virtuals.add(virtual);
-                    }
+        for (LocalDate date : dates) {
+            Set<Long> done = present.getOrDefault(date, Set.of());
+            for (RecurringTodo recurring : compiled.firingOn(date)) {
+                if (done.contains(recurring.getId())) {
+                    continue;
                 }
+                // Create virtual todo (position 0, will sort by recurring ID)
+                TodoResponse virtual = new TodoResponse();
+                virtual.setId(null); // Virtual has no ID
+                virtual.setText(recurring.getText());
+                virtual.setAssignedDate(date);
+                virtual.setInstanceDate(date);
+                virtual.setPosition(0);
+                virtual.setRecurringTodoId(recurring.getId());
+                virtual.setIsCompleted(false);
+                virtual.setCompletedAt(null);
+                virtual.setIsRolledOver(false);
+                virtual.setIsVirtual(true);
+                virtuals.computeIfAbsent(date, d -> new ArrayList<>()).add(virtual);
             }
         }
 
         return virtuals;
     }
 
-    private void materializeAllVirtuals(Long userId, LocalDate date) {
-        List<RecurringTodo> allRecurring = recurringTodoRepository.findActiveByUserIdAndDate(userId, date);
-        allRecurring.sort(Comparator.comparing(RecurringTodo::getId));
-
+    private void materializeAllVirtuals(Long userId, LocalDate date, RecurringDay day) {
+        User user = userService.getCurrentUser();
         int pos = 1;
         boolean anyMaterialized = false;
 
-        for (RecurringTodo rec : allRecurring) {
-            if (!RecurrenceCalculator.shouldInstanceExist(rec.getRecurrenceType(), rec.getStartDate(), date)) {
-                continue;
-            }
-
-            if (todoRepository.findFirstByRecurringTodoIdAndInstanceDate(rec.getId(), date).isEmpty()) {
-                if (!skipRecurringRepository.existsByRecurringTodoIdAndSkipDate(rec.getId(), date)) {
+        for (RecurringTodo rec : day.firing()) {
+            if (!day.materialized().contains(rec.getId())) {
+                if (!day.skipped().contains(rec.getId())) {
                     Todo materialized = new Todo();
-                    materialized.setUser(userService.getCurrentUser());
+                    materialized.setUser(user);
                     materialized.setText(rec.getText());
                     materialized.setAssignedDate(date);
                     materialized.setInstanceDate(date);
@@ -401,9 +544,10 @@ public class TodoService {
             RecurringTodo recurringTodo = new RecurringTodo();
             recurringTodo.setUser(todo.getUser());
             recurringTodo.setText(recurrenceInfo.getStrippedText());
-            recurringTodo.setRecurrenceType(recurrenceInfo.getType());
+            recurrenceInfo.getRule().applyTo(recurringTodo);
             recurringTodo.setStartDate(todo.getAssignedDate());
             recurringTodo = recurringTodoRepository.save(recurringTodo);
+            recurringHorizonService.invalidate(userId);
 
             // Update this todo to be the first materialized instance
             todo.setText(recurrenceInfo.getStrippedText());
@@ -435,23 +579,17 @@ public class TodoService {
         LocalDate assignedDate = todo.getAssignedDate();
         LocalDate currentDate = userService.getCurrentDateForUser();
 
-        // Check if we need to materialize virtuals
-        boolean needsMaterialization = false;
-
         // Only check for current/future dates (past dates don't have virtuals)
         if (!assignedDate.isBefore(currentDate)) {
-            int virtualCount = getVirtualCount(userId, assignedDate);
+            RecurringDay day = recurringDay(userId, assignedDate);
+            int virtualCount = day.virtualCount();
 
             // If moving a normal todo to a position that would overlap with virtuals, materialize them
             if (virtualCount > 0 && newPosition < virtualCount) {
-                needsMaterialization = true;
+                materializeAllVirtuals(userId, assignedDate, day);
             }
         }
 
-        if (needsMaterialization) {
-            materializeAllVirtuals(userId, assignedDate);
-        }
-
         // Now perform the actual reordering
         List<Todo> allTodos = todoRepository.findByUserIdAndAssignedDate(userId, assignedDate);
         allTodos.sort(Comparator.comparing(Todo::getPosition).thenComparing(Todo::getId));
@@ -571,7 +709,10 @@ public class TodoService {
             }
         }
 
-        // Mark as completed
+        // Mark as completed (counted once, completing again only reorders)
+        if (!todo.getIsCompleted()) {
+            dailyStatsService.recordCompleted(todo.getUser());
+        }
         todo.setIsCompleted(true);
         todo.setCompletedAt(Instant.now());
 
@@ -583,7 +724,7 @@ public class TodoService {
 
         // Renumber all todos from the earlier affected position to the end
         // This ensures no position collisions
-        int startIdx = Math.min(oldIndex, newIndex);
+        int startIdx = renumberStart(assignedDate, Math.min(oldIndex, newIndex));
 
         List<Todo> affectedTodos = new ArrayList<>();
         for (int i = startIdx; i < allTodos.size(); i++) {
@@ -637,6 +778,9 @@ public class TodoService {
         }
 
         // Mark as incomplete
+        if (todo.getIsCompleted()) {
+            dailyStatsService.recordUncompleted(todo.getUser(), todo.getCompletedAt());
+        }
         todo.setIsCompleted(false);
         todo.setCompletedAt(null);
 
@@ -648,7 +792,7 @@ public class TodoService {
 
         // Renumber all todos from the earlier affected position to the end
         // This ensures no position collisions
-        int startIdx = Math.min(oldIndex, newIndex);
+        int startIdx = renumberStart(assignedDate, Math.min(oldIndex, newIndex));
 
         List<Todo> affectedTodos = new ArrayList<>();
         for (int i = startIdx; i < allTodos.size(); i++) {
@@ -671,6 +815,11 @@ public class TodoService {
         Long userId = todo.getUser().getId();
         LocalDate assignedDate = todo.getAssignedDate();
 
+        // A deleted completion no longer counts, same as uncompleting it (futureTodos are incomplete)
+        if (todo.getIsCompleted()) {
+            dailyStatsService.recordUncompleted(todo.getUser(), todo.getCompletedAt());
+        }
+
         if (deleteAllFuture != null && deleteAllFuture && todo.getRecurringTodo() != null) {
             // Update recurring todo end_date
             RecurringTodo recurring = todo.getRecurringTodo();
@@ -709,6 +858,143 @@ public class TodoService {
         }
     }
 
+    // Batch operations
+
+    /**
+     * Applies an ordered list of operations in one transaction, with the same semantics as
+     * calling the single-operation endpoints one after another. Gap-closing renumbers are
+     * postponed per date until an operation needs that date's positions again or the batch
+     * ends, so e.g. clearing a day renumbers it once. Notifications are coalesced by
+     * WebSocketService, so each affected date is announced once.
+     *
+     * @return one entry per operation, null for deletes
+     */
+    @Transactional
+    public List<TodoResponse> applyBatch(List<TodoBatchRequest.Operation> operations) {
+        Long userId = userService.getCurrentUser().getId();
+        Set<LocalDate> pendingRenumbers = new LinkedHashSet<>();
+        deferredRenumbers.set(pendingRenumbers);
+        try {
+            List<TodoResponse> results = new ArrayList<>();
+            for (int i = 0; i < operations.size(); i++) {
+                TodoBatchRequest.Operation operation = operations.get(i);
+
+                // Positions must be contiguous again before an operation places todos by them
+                if (readsPositions(operation)) {
+                    for (LocalDate date : getDatesTouchedBy(operation)) {
+                        if (pendingRenumbers.remove(date)) {
+                            renumberPositions(date, userId);
+                        }
+                    }
+                }
+
+                try {
+                    results.add(applyOperation(operation));
+                } catch (RuntimeException e) {
+                    if (e.getClass() != RuntimeException.class) {
+                        throw e; // Keep lock/conflict exceptions intact for DeadlockRetry and the 409 handler
+                    }
+                    throw new RuntimeException("Operation " + (i + 1) + " (" + operation.getType() + "): " + e.getMessage());
+                }
+            }
+
+            for (LocalDate date : pendingRenumbers) {
+                renumberPositions(date, userId);
+            }
+            return results;
+        } finally {
+            deferredRenumbers.remove();
+        }
+    }
+
+    private TodoResponse applyOperation(TodoBatchRequest.Operation op) {
+        boolean virtual = op.getId() == null;
+        if (op.getType() != TodoBatchRequest.OperationType.CREATE && virtual
+                && (op.getRecurringTodoId() == null || op.getInstanceDate() == null)) {
+            throw new RuntimeException("Either id or recurringTodoId and instanceDate are required");
+        }
+
+        switch (op.getType()) {
+            case CREATE:
+                if (op.getAssignedDate() == null) {
+                    throw new RuntimeException("Assigned date is required");
+                }
+                return createTodo(requireText(op), op.getAssignedDate(), op.getPosition());
+            case UPDATE_TEXT:
+                return virtual
+                        ? updateVirtualTodoText(op.getRecurringTodoId(), op.getInstanceDate(), requireText(op))
+                        : updateTodoText(op.getId(), requireText(op));
+            case COMPLETE:
+                return virtual
+                        ? completeVirtualTodo(op.getRecurringTodoId(), op.getInstanceDate())
+                        : completeTodo(op.getId());
+            case UNCOMPLETE:
+                if (virtual) {
+                    throw new RuntimeException("Virtual todos cannot be uncompleted");
+                }
+                return uncompleteTodo(op.getId());
+            case MOVE:
+                if (op.getToDate() == null) {
+                    throw new RuntimeException("Target date is required");
+                }
+                return virtual
+                        ? updateVirtualTodoAssignedDate(op.getRecurringTodoId(), op.getInstanceDate(), op.getToDate())
+                        : updateTodoAssignedDate(op.getId(), op.getToDate());
+            case REORDER:
+                if (op.getPosition() == null) {
+                    throw new RuntimeException("Position is required");
+                }
+                return virtual
+                        ? updateVirtualTodoPosition(op.getRecurringTodoId(), op.getInstanceDate(), op.getPosition())
+                        : updateTodoPosition(op.getId(), op.getPosition());
+            case DELETE:
+                if (virtual) {
+                    deleteVirtualTodo(op.getRecurringTodoId(), op.getInstanceDate(), op.getDeleteAllFuture());
+                } else {
+                    deleteTodo(op.getId(), op.getDeleteAllFuture());
+                }
+                return null;
+            default:
+                throw new RuntimeException("Unsupported operation: " + op.getType());
+        }
+    }
+
+    /**
+     * Whether the operation places todos by position. Deletes, completions and edits of real todos
+     * keep the relative order of the date whatever its gaps, so they leave them to the batch end.
+     */
+    private boolean readsPositions(TodoBatchRequest.Operation op) {
+        return switch (op.getType()) {
+            case MOVE, REORDER -> true;
+            case CREATE -> op.getPosition() != null;
+            // Touching a virtual todo materializes the date's virtuals ahead of its todos
+            default -> op.getId() == null;
+        };
+    }
+
+    private List<LocalDate> getDatesTouchedBy(TodoBatchRequest.Operation op) {
+        List<LocalDate> dates = new ArrayList<>();
+        if (op.getType() == TodoBatchRequest.OperationType.CREATE) {
+            dates.add(op.getAssignedDate());
+        } else if (op.getId() != null) {
+            findTodo(op.getId()).ifPresent(todo -> dates.add(todo.getAssignedDate()));
+        } else {
+            dates.add(op.getInstanceDate());
+        }
+        if (op.getType() == TodoBatchRequest.OperationType.MOVE) {
+            dates.add(op.getToDate());
+        }
+        dates.removeIf(Objects::isNull);
+        return dates;
+    }
+
+    private String requireText(TodoBatchRequest.Operation op) {
+        if (op.getText() == null || op.getText().isBlank()) {
+            throw new RuntimeException("Text is required");
+        }
+        return op.getText();
+    }
+
     // Virtual todo operations
 
     @Transactional
@@ -730,6 +1016,13 @@ public class TodoService {
             throw new RuntimeException("Unauthorized access");
         }
 
+        // Materialized meanwhile (e.g. by RecurringHorizonService while the client showed it as virtual)
+        Optional<Todo> existing = todoRepository.findFirstByRecurringTodoIdAndInstanceDate(recurringTodoId, instanceDate);
+        if (existing.isPresent()) {
+            deleteTodo(existing.get().getId(), deleteAllFuture);
+            return;
+        }
+
         if (deleteAllFuture != null && deleteAllFuture) {
             // Delete all future instances
             recurringTodo.setEndDate(instanceDate.minusDays(1));
@@ -765,23 +1058,23 @@ public class TodoService {
         User user = userService.getCurrentUser();
         Long userId = user.getId();
 
+        // Materialized meanwhile (e.g. by RecurringHorizonService while the client showed it as virtual)
+        Optional<Todo> existing = todoRepository.findFirstByRecurringTodoIdAndInstanceDate(recurringTodoId, instanceDate);
+        if (existing.isPresent()) {
+            return updateTodoText(existing.get().getId(), newText);
+        }
+
         // Skip this instance (prevents it from appearing as virtual)
         skipRecurringService.skipInstance(recurringTodoId, instanceDate);
 
-        // Get all recurring todos for this date
-        List<RecurringTodo> allRecurring = recurringTodoRepository.findActiveByUserIdAndDate(userId, instanceDate);
-        allRecurring.sort(Comparator.comparing(RecurringTodo::getId)); // Sort by ID (creation order)
+        // Recurring todos of this date, in creation order
+        RecurringDay day = recurringDay(userId, instanceDate);
 
         // Materialize all virtuals, creating the orphaned one in place of the edited virtual
         int pos = 1;
         Todo orphanedTodo = null;
 
-        for (RecurringTodo rec : allRecurring) {
-            // Check if this recurring todo should have an instance on this date
-            if (!RecurrenceCalculator.shouldInstanceExist(rec.getRecurrenceType(), rec.getStartDate(), instanceDate)) {
-                continue; // Skip - no instance on this date
-            }
-
+        for (RecurringTodo rec : day.firing()) {
             if (rec.getId().equals(recurringTodoId)) {
                 // This is the one being edited - create orphaned version instead of materializing
                 orphanedTodo = new Todo();
@@ -795,9 +1088,9 @@ public class TodoService {
                 // Note: no recurringTodoId - it's orphaned
             } else {
                 // Check if not already materialized
-                if (todoRepository.findFirstByRecurringTodoIdAndInstanceDate(rec.getId(), instanceDate).isEmpty()) {
+                if (!day.materialized().contains(rec.getId())) {
                     // Check if not skipped
-                    if (!skipRecurringRepository.existsByRecurringTodoIdAndSkipDate(rec.getId(), instanceDate)) {
+                    if (!day.skipped().contains(rec.getId())) {
                         Todo materialized = new Todo();
                         materialized.setUser(user);
                         materialized.setText(rec.getText());
@@ -869,28 +1162,19 @@ public class TodoService {
             // If user is placing virtual todo at position that would mix with normal todos, materialize all virtuals
             if (newPosition <= normalTodos.size()) {
                 // Materialize all virtuals for this date
-                List<RecurringTodo> allRecurring = recurringTodoRepository.findActiveByUserIdAndDate(
-                        user.getId(), instanceDate);
+                RecurringDay day = recurringDay(user.getId(), instanceDate);
 
                 int pos = 1;
                 Todo targetMaterialized = null;
 
-                for (RecurringTodo rec : allRecurring) {
-                    // Check if instance should exist on this date
-                    if (!RecurrenceCalculator.shouldInstanceExist(rec.getRecurrenceType(), rec.getStartDate(), instanceDate)) {
-                        continue;
-                    }
-
+                for (RecurringTodo rec : day.firing()) {
                     // Check if this instance is skipped
-                    if (skipRecurringRepository.existsByRecurringTodoIdAndSkipDate(rec.getId(), instanceDate)) {
+                    if (day.skipped().contains(rec.getId())) {
                         continue;
                     }
 
                     // Check if not already materialized
-                    Optional<Todo> existingTodo = todoRepository.findFirstByRecurringTodoIdAndInstanceDate(
-                            rec.getId(), instanceDate);
-
-                    if (existingTodo.isEmpty()) {
+                    if (!day.materialized().contains(rec.getId())) {
                         Todo materialized = new Todo();
                         materialized.setUser(user);
                         materialized.setText(rec.getText());
@@ -908,7 +1192,8 @@ public class TodoService {
                             targetMaterialized = materialized;
                         }
                     } else if (rec.getId().equals(recurringTodoId)) {
-                        targetMaterialized = existingTodo.get();
+                        targetMaterialized = todoRepository.findFirstByRecurringTodoIdAndInstanceDate(
+                                rec.getId(), instanceDate).orElse(null);
                     }
                 }
 
@@ -1004,6 +1289,25 @@ public class TodoService {
     }
 
     private void renumberPositionsAfterRemoval(LocalDate date, Long userId) {
+        // Inside a batch the gap is closed once, right before the date is used again (see applyBatch)
+        Set<LocalDate> deferred = deferredRenumbers.get();
+        if (deferred != null) {
+            deferred.add(date);
+            return;
+        }
+        renumberPositions(date, userId);
+    }
+
+    /**
+     * Index from which an operation renumbers the date's list: the first todo it moved, or the
+     * top when a batch postponed closing the date's gaps, which the operation then does instead.
+     */
+    private int renumberStart(LocalDate date, int firstMovedIndex) {
+        Set<LocalDate> deferred = deferredRenumbers.get();
+        return deferred != null && deferred.remove(date) ? 0 : firstMovedIndex;
+    }
+
+    private void renumberPositions(LocalDate date, Long userId) {
         List<Todo> todos = todoRepository.findByUserIdAndAssignedDate(userId, date);
         todos.sort(Comparator.comparing(Todo::getPosition).thenComparing(Todo::getId));
 
@@ -1023,7 +1327,7 @@ public class TodoService {
     }
 
     private Todo getTodoAndVerifyOwnership(Long todoId) {
-        Todo todo = todoRepository.findById(todoId)
+        Todo todo = findTodo(todoId)
                 .orElseThrow(() -> new RuntimeException("Todo not found"));
 
         User currentUser = userService.getCurrentUser();
@@ -1034,12 +1338,48 @@ public class TodoService {
         return todo;
     }
 
-    private Integer getNextPosition(Long userId, LocalDate date) {
-        List<Todo> todos = todoRepository.findByUserIdAndAssignedDate(userId, date);
-        return todos.stream()
+    /**
+     * Looks a todo up by id, bringing it back from the archive if it was archived - any change
+     * to an archived todo happens on the live row. Only the current user's archived todos are
+     * restored; someone else's stays archived and is not found.
+     */
+    private Optional<Todo> findTodo(Long todoId) {
+        Optional<Todo> todo = todoRepository.findById(todoId);
+        if (todo.isEmpty() && todoArchiveService.restore(userService.getCurrentUser().getId(), todoId)) {
+            todo = todoRepository.findById(todoId);
+        }
+        return todo;
+    }
+
+    /**
+     * The user's todos with the given ids, live or archived, in no particular order. Ids that
+     * don't exist (any more) or belong to someone else are skipped.
+     */
+    @Transactional(readOnly = true)
+    public List<TodoResponse> getTodosByIds(Long userId, Collection<Long> todoIds) {
+        List<TodoResponse> responses = new ArrayList<>();
+        Set<Long> missing = new HashSet<>(todoIds);
+        for (Todo todo : todoRepository.findAllById(todoIds)) {
+            missing.remove(todo.getId());
+            if (todo.getUser().getId().equals(userId)) {
+                responses.add(toTodoResponse(todo));
+            }
+        }
+        if (!missing.isEmpty()) {
+            todoArchiveService.getArchivedTodosByIds(userId, missing).forEach(archived -> responses.add(toTodoResponse(archived)));
+        }
+        return responses;
+    }
+
+    private Integer getNextPosition(User user, LocalDate date) {
+        List<Todo> todos = todoRepository.findByUserIdAndAssignedDate(user.getId(), date);
+        int maxPosition = todos.stream()
                 .mapToInt(Todo::getPosition)
                 .max()
-                .orElse(0) + 1; // Sequential: max + 1
+                .orElse(0);
+        // Archived todos of old dates keep their positions, so new ones go after them too
+        int maxArchived = todoArchiveService.getMaxArchivedPosition(user, date);
+        return Math.max(maxPosition, maxArchived) + 1; // Sequential: max + 1
     }
 
     private TodoResponse toTodoResponse(Todo todo) {
@@ -1056,4 +1396,19 @@ public class TodoService {
                 false // isVirtual - will be true for generated todos
         );
     }
+
+    private TodoResponse toTodoResponse(ArchivedTodo todo) {
+        return new TodoResponse(
+                todo.getId(),
+                todo.getText(),
+                todo.getAssignedDate(),
+                todo.getInstanceDate(),
+                todo.getPosition(),
+                todo.getRecurringTodo() != null ? todo.getRecurringTodo().getId() : null,
+                true,
+                todo.getCompletedAt(),
+                false,
+                false
+        );
+    }
 }
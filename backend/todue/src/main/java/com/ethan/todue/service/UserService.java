@@ -19,6 +19,9 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RecurringHorizonService recurringHorizonService;
+
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
@@ -30,6 +33,8 @@ public class UserService {
     public User updateTimezone(String timezone) {
         User user = getCurrentUser();
         user.setTimezone(timezone);
+        // The user's current date may move back to a day the horizon was never filled from
+        recurringHorizonService.invalidate(user.getId());
         return userRepository.save(user);
     }
 
@@ -0,0 +1,265 @@
+package com.ethan.todue.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Version stamps for the cacheable GET views, used to build their ETags.
+ *
+ * Every change takes the next value of a single process-wide sequence, so the version of a
+ * view spanning several stamps (e.g. a week of dates) is simply the largest of them. Stamps live
+ * in memory only; the per-boot epoch in every tag makes sure a tag issued before a restart never
+ * matches afterwards.
+ *
+ * Bumps made inside a transaction are applied after commit, so a tag can never be paired with
+ * data that is older than it. The same stamps tell in-memory views (see SearchService) which
+ * dates and lists to reload, via changesSince.
+ *
+ * Bounded like RolloverTracker: users untouched for app.view-versions.expire-hours are dropped
+ * hourly, and beyond app.view-versions.max-users the least recently used one is. Every stamp of a
+ * dropped user is at most evictedThrough, which is where a user's versions start when they come
+ * back, so their old tags stop matching and in-memory views reload everything once.
+ */
+@Service
+public class ViewVersionService {
+
+    @Value("${app.view-versions.max-users:20000}")
+    private int maxUsers;
+
+    @Value("${app.view-versions.expire-hours:24}")
+    private int expireHours;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Access-ordered for LRU eviction; guarded by itself
+    private final Map<Long, UserVersions> versionsByUser = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UserVersions> eldest) {
+            if (size() <= maxUsers) {
+                return false;
+            }
+            retire(eldest.getValue());
+            return true;
+        }
+    };
+
+    // The sequence when a user was last dropped; written under the versionsByUser lock
+    private volatile long evictedThrough;
+
+    private static class UserVersions {
+        // Dropped from versionsByUser; bumps must go to the user's new entry instead
+        boolean retired;
+        volatile long lastUsedMillis = System.currentTimeMillis();
+        // Changes that may touch every view of the user (e.g. import)
+        volatile long user;
+        // Changes that may touch every todo date (recurring patterns, rollover)
+        volatile long allTodos;
+        final ConcurrentHashMap<LocalDate, Long> todoDates = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, Long> laterLists = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, Long> routines = new ConcurrentHashMap<>();
+    }
+
+    // ==================== Bumps ====================
+
+    public void todosChanged(Long userId, LocalDate date) {
+        afterCommit(userId, versions -> versions.todoDates.put(date, sequence.incrementAndGet()));
+    }
+
+    public void allTodosChanged(Long userId) {
+        afterCommit(userId, versions -> versions.allTodos = sequence.incrementAndGet());
+    }
+
+    public void laterListChanged(Long userId, Long listId) {
+        afterCommit(userId, versions -> versions.laterLists.put(listId, sequence.incrementAndGet()));
+    }
+
+    public void routineChanged(Long userId, Long routineId) {
+        afterCommit(userId, versions -> versions.routines.put(routineId, sequence.incrementAndGet()));
+    }
+
+    public void userChanged(Long userId) {
+        afterCommit(userId, versions -> versions.user = sequence.incrementAndGet());
+    }
+
+    // ==================== Change Feed ====================
+
+    /**
+     * Todo and later list changes committed after the given version. Changes.version covers
+     * exactly what is reported, pass it back as the next since.
+     */
+    public Changes changesSince(Long userId, long since) {
+        while (true) {
+            UserVersions versions = versions(userId);
+            // Bumps take the same lock, so no stamp up to current can still be on its way in
+            synchronized (versions) {
+                if (versions.retired) {
+                    continue;
+                }
+                long current = sequence.get();
+                boolean all = versions.user > since || versions.allTodos > since;
+                Set<LocalDate> dates = new HashSet<>();
+                Set<Long> lists = new HashSet<>();
+                if (!all) {
+                    versions.todoDates.forEach((date, version) -> {
+                        if (version > since) {
+                            dates.add(date);
+                        }
+                    });
+                    versions.laterLists.forEach((listId, version) -> {
+                        if (version > since) {
+                            lists.add(listId);
+                        }
+                    });
+                }
+                return new Changes(current, all, dates, lists);
+            }
+        }
+    }
+
+    public long currentVersion() {
+        return sequence.get();
+    }
+
+    /**
+     * @param all every todo and list may have changed (import, recurring pattern, rollover)
+     */
+    public record Changes(long version, boolean all, Set<LocalDate> todoDates, Set<Long> laterLists) {
+    }
+
+    // ==================== Tags ====================
+
+    /**
+     * Tag for the todo view of a date range. The user's current date is part of the tag because
+     * it decides which dates show virtual recurring instances.
+     */
+    public String todosETag(Long userId, LocalDate startDate, LocalDate endDate, LocalDate currentDate) {
+        UserVersions versions = peek(userId);
+        long version = evictedThrough;
+        if (versions != null) {
+            version = Math.max(versions.user, versions.allTodos);
+            long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+            if (days <= versions.todoDates.size()) {
+                for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                    version = Math.max(version, versions.todoDates.getOrDefault(date, 0L));
+                }
+            } else {
+                for (Map.Entry<LocalDate, Long> entry : versions.todoDates.entrySet()) {
+                    LocalDate date = entry.getKey();
+                    if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
+                        version = Math.max(version, entry.getValue());
+                    }
+                }
+            }
+        }
+        return tag(userId, version) + "-" + currentDate;
+    }
+
+    public String laterListETag(Long userId, Long listId) {
+        UserVersions versions = peek(userId);
+        long version = versions == null ? evictedThrough : Math.max(versions.user, versions.laterLists.getOrDefault(listId, 0L));
+        return tag(userId, version);
+    }
+
+    public String routineETag(Long userId, Long routineId) {
+        UserVersions versions = peek(userId);
+        long version = versions == null ? evictedThrough : Math.max(versions.user, versions.routines.getOrDefault(routineId, 0L));
+        return tag(userId, version);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private String tag(Long userId, long version) {
+        return epoch + "-" + userId + "-" + Long.toString(version, 36);
+    }
+
+    public int size() {
+        synchronized (versionsByUser) {
+            return versionsByUser.size();
+        }
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(expireHours);
+        synchronized (versionsByUser) {
+            versionsByUser.values().removeIf(versions -> {
+                if (versions.lastUsedMillis >= cutoff) {
+                    return false;
+                }
+                retire(versions);
+                return true;
+            });
+        }
+    }
+
+    // Called under the versionsByUser lock
+    private void retire(UserVersions versions) {
+        synchronized (versions) {
+            versions.retired = true;
+            // Stamps are taken under the same lock, so none of this user's is above the sequence now
+            evictedThrough = Math.max(evictedThrough, sequence.get());
+        }
+    }
+
+    private UserVersions peek(Long userId) {
+        synchronized (versionsByUser) {
+            UserVersions versions = versionsByUser.get(userId);
+            if (versions != null) {
+                versions.lastUsedMillis = System.currentTimeMillis();
+            }
+            return versions;
+        }
+    }
+
+    private UserVersions versions(Long userId) {
+        synchronized (versionsByUser) {
+            UserVersions versions = versionsByUser.computeIfAbsent(userId, id -> {
+                UserVersions created = new UserVersions();
+                // Newer than any tag or stamp the user may have had before being dropped
+                created.user = evictedThrough;
+                return created;
+            });
+            versions.lastUsedMillis = System.currentTimeMillis();
+            return versions;
+        }
+    }
+
+    private void afterCommit(Long userId, Consumer<UserVersions> change) {
+        Runnable bump = () -> {
+            while (true) {
+                UserVersions versions = versions(userId);
+                synchronized (versions) {
+                    if (!versions.retired) {
+                        change.accept(versions);
+                        return;
+                    }
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        } else {
+            bump.run();
+        }
+    }
+}
@@ -5,29 +5,44 @@ import org.slf4j.LoggerFactory;
 import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 /**
  * Retries a transactional operation on MySQL deadlock or optimistic lock conflict.
  * Must be called from outside the @Transactional boundary
  * (e.g., from a controller) so each retry gets a fresh transaction.
+ *
+ * The whole operation, retries included, runs through {@link UserMutationSequencer}, so a
+ * user's own concurrent writes no longer deadlock each other; retries remain as a safety net
+ * for conflicts with other writers (e.g. rollover from another device). Retry counts are
+ * exposed for monitoring.
  */
 public final class DeadlockRetry {
 
     private static final Logger log = LoggerFactory.getLogger(DeadlockRetry.class);
     private static final int MAX_RETRIES = 3;
 
+    private static final AtomicLong retries = new AtomicLong();
+    private static final AtomicLong exhausted = new AtomicLong();
+
     private DeadlockRetry() {}
 
     public static <T> T execute(Supplier<T> operation) {
+        return UserMutationSequencer.run(() -> executeWithRetry(operation));
+    }
+
+    private static <T> T executeWithRetry(Supplier<T> operation) {
         int attempt = 0;
         while (true) {
             try {
                 return operation.get();
             } catch (CannotAcquireLockException | OptimisticLockingFailureException e) {
                 attempt++;
+                retries.incrementAndGet();
                 log.warn("{} (attempt {}/{}), retrying...", e.getClass().getSimpleName(), attempt, MAX_RETRIES, e);
                 if (attempt >= MAX_RETRIES) {
+                    exhausted.incrementAndGet();
                     throw e;
                 }
                 try {
@@ -46,4 +61,14 @@ public final class DeadlockRetry {
             return null;
         });
     }
+
+    /** Lock conflicts that were retried. */
+    public static long getRetryCount() {
+        return retries.get();
+    }
+
+    /** Operations that still failed after MAX_RETRIES attempts. */
+    public static long getExhaustedCount() {
+        return exhausted.get();
+    }
 }
@@ -1,31 +1,86 @@
 package com.ethan.todue.util;
 
 import com.ethan.todue.model.RecurrenceType;
+import com.ethan.todue.model.RecurringTodo;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 
 public class RecurrenceCalculator {
 
+    public static boolean shouldInstanceExist(RecurringTodo recurringTodo, LocalDate targetDate) {
+        Integer interval = recurringTodo.getRecurrenceInterval();
+        Integer weekdays = recurringTodo.getRecurrenceDays();
+        return shouldInstanceExist(recurringTodo.getRecurrenceType(), interval != null ? interval : 1,
+                weekdays != null ? weekdays : 0, recurringTodo.getStartDate(), targetDate);
+    }
+
+    public static boolean shouldInstanceExist(RecurrenceRule rule, LocalDate startDate, LocalDate targetDate) {
+        return shouldInstanceExist(rule.type(), rule.interval(), rule.weekdays(), startDate, targetDate);
+    }
+
     public static boolean shouldInstanceExist(RecurrenceType recurrenceType, LocalDate startDate, LocalDate targetDate) {
+        return shouldInstanceExist(recurrenceType, 1, 0, startDate, targetDate);
+    }
+
+    public static boolean shouldInstanceExist(RecurrenceType recurrenceType, int interval, int weekdays,
+                                              LocalDate startDate, LocalDate targetDate) {
         if (targetDate.isBefore(startDate)) {
             return false;
         }
 
         return switch (recurrenceType) {
-            case DAILY -> true;
-            case WEEKLY -> calculateWeekly(startDate, targetDate);
+            case DAILY -> interval <= 1 || (targetDate.toEpochDay() - startDate.toEpochDay()) % interval == 0;
+            case WEEKLY -> interval <= 1 && weekdays == 0
+                    ? calculateWeekly(startDate, targetDate)
+                    : calculateWeeklyRule(startDate, targetDate, interval, weekdays);
             case BIWEEKLY -> calculateBiweekly(startDate, targetDate);
             case MONTHLY -> calculateMonthly(startDate, targetDate);
             case YEARLY -> calculateYearly(startDate, targetDate);
         };
     }
 
+    /**
+     * First date on or after the given one the rule can fire on. Only weekday sets can skip
+     * days; every other rule fires on its own start date.
+     */
+    public static LocalDate firstInstanceOnOrAfter(RecurrenceRule rule, LocalDate date) {
+        if (rule.type() != RecurrenceType.WEEKLY || rule.weekdays() == 0) {
+            return date;
+        }
+        LocalDate candidate = date;
+        while ((rule.weekdays() & RecurrenceRule.bit(candidate.getDayOfWeek())) == 0) {
+            candidate = candidate.plusDays(1);
+        }
+        return candidate;
+    }
+
     private static boolean calculateWeekly(LocalDate startDate, LocalDate targetDate) {
         long daysBetween = ChronoUnit.DAYS.between(startDate, targetDate);
         return daysBetween % 7 == 0;
     }
 
+    /**
+     * Every interval-th week, counted in Monday-based weeks from the start date's week, on the
+     * weekdays in the mask (or the start date's weekday when the mask is empty).
+     */
+    private static boolean calculateWeeklyRule(LocalDate startDate, LocalDate targetDate, int interval, int weekdays) {
+        long startDay = startDate.toEpochDay();
+        long targetDay = targetDate.toEpochDay();
+        int targetWeekday = weekdayIndex(targetDay);
+        int mask = weekdays != 0 ? weekdays : 1 << weekdayIndex(startDay);
+        if ((mask & (1 << targetWeekday)) == 0) {
+            return false;
+        }
+        long weeks = (targetDay - (startDay - weekdayIndex(startDay))) / 7;
+        return interval <= 1 || weeks % interval == 0;
+    }
+
+    // 0 = Monday ... 6 = Sunday; epoch day 0 (1970-01-01) was a Thursday
+    private static int weekdayIndex(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+
     private static boolean calculateBiweekly(LocalDate startDate, LocalDate targetDate) {
         long daysBetween = ChronoUnit.DAYS.between(startDate, targetDate);
         return daysBetween % 14 == 0;
@@ -63,43 +118,4 @@ public class RecurrenceCalculator {
                targetDate.getDayOfMonth() == startDate.getDayOfMonth() &&
                targetDate.getYear() > startDate.getYear();
     }
-
-    public static LocalDate getNextInstanceDate(RecurrenceType recurrenceType, LocalDate startDate, LocalDate afterDate) {
-        LocalDate candidate = afterDate.plusDays(1);
-
-        return switch (recurrenceType) {
-            case DAILY -> candidate;
-            case WEEKLY -> calculateNextWeekly(startDate, afterDate);
-            case BIWEEKLY -> calculateNextBiweekly(startDate, afterDate);
-            case MONTHLY -> calculateNextMonthly(startDate, afterDate);
-            case YEARLY -> calculateNextYearly(startDate, afterDate);
-        };
-    }
-
-    private static LocalDate calculateNextWeekly(LocalDate startDate, LocalDate afterDate) {
-        long daysBetween = ChronoUnit.DAYS.between(startDate, afterDate);
-        long remainder = daysBetween % 7;
-        return afterDate.plusDays(7 - remainder);
-    }
-
-    private static LocalDate calculateNextBiweekly(LocalDate startDate, LocalDate afterDate) {
-        long daysBetween = ChronoUnit.DAYS.between(startDate, afterDate);
-        long remainder = daysBetween % 14;
-        return afterDate.plusDays(14 - remainder);
-    }
-
-    private static LocalDate calculateNextMonthly(LocalDate startDate, LocalDate afterDate) {
-        int targetDay = startDate.getDayOfMonth();
-        LocalDate next = afterDate.plusMonths(1);
-        int maxDay = next.lengthOfMonth();
-        return next.withDayOfMonth(Math.min(targetDay, maxDay));
-    }
-
-    private static LocalDate calculateNextYearly(LocalDate startDate, LocalDate afterDate) {
-        LocalDate next = afterDate.plusYears(1);
-        if (startDate.getMonthValue() == 2 && startDate.getDayOfMonth() == 29 && !next.isLeapYear()) {
-            return LocalDate.of(next.getYear(), 2, 28);
-        }
-        return LocalDate.of(next.getYear(), startDate.getMonthValue(), startDate.getDayOfMonth());
-    }
 }
@@ -4,49 +4,262 @@ import com.ethan.todue.model.RecurrenceType;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
-import java.util.regex.Pattern;
+import java.time.DayOfWeek;
 
+/**
+ * Recognises a recurrence phrase at the end of a todo's text, e.g. "Water plants every 3 days".
+ *
+ * Hand-written tail parser: it walks back over at most the last three words once, without
+ * regexes or lower-casing copies, since it runs on every todo create and text edit and almost
+ * all texts carry no phrase at all. Recognised phrases (case-insensitive, must follow some text):
+ *
+ *   every day | every other day | every N days
+ *   every week | every other week | every N weeks
+ *   every month | every year
+ *   every monday ... every sunday (also "every mondays")
+ *   every weekday | weekdays
+ *
+ * "Other" is just interval 2, so "every other week" and "every 2 weeks" are the same WEEKLY rule.
+ * BIWEEKLY is never produced; it only remains for rules stored before intervals existed.
+ */
 public class RecurrenceParser {
 
     @Data
     @AllArgsConstructor
     public static class RecurrenceInfo {
-        private RecurrenceType type;
+        private RecurrenceRule rule;
         private String strippedText;
+
+        public RecurrenceType getType() {
+            return rule.type();
+        }
     }
 
-    private static final Pattern DAILY_PATTERN = Pattern.compile("\\s+every\\s+day\\s*$", Pattern.CASE_INSENSITIVE);
-    private static final Pattern WEEKLY_PATTERN = Pattern.compile("\\s+every\\s+week\\s*$", Pattern.CASE_INSENSITIVE);
-    private static final Pattern BIWEEKLY_PATTERN = Pattern.compile("\\s+every\\s+other\\s+week\\s*$", Pattern.CASE_INSENSITIVE);
-    private static final Pattern MONTHLY_PATTERN = Pattern.compile("\\s+every\\s+month\\s*$", Pattern.CASE_INSENSITIVE);
-    private static final Pattern YEARLY_PATTERN = Pattern.compile("\\s+every\\s+year\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final int MAX_WORDS = 3;
+    private static final int MAX_INTERVAL = 365;
+
+    private static final String[] DAY_NAMES = {"monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"};
 
     public static RecurrenceInfo parseText(String text) {
-        if (text == null || text.trim().isEmpty()) {
+        if (text == null) {
             return null;
         }
 
-        // Check for each pattern in order
-        if (DAILY_PATTERN.matcher(text).find()) {
-            return new RecurrenceInfo(RecurrenceType.DAILY, stripRecurrencePattern(text, DAILY_PATTERN));
+        int end = text.length();
+        while (end > 0 && isSpace(text.charAt(end - 1))) {
+            end--;
         }
-        if (BIWEEKLY_PATTERN.matcher(text).find()) {
-            return new RecurrenceInfo(RecurrenceType.BIWEEKLY, stripRecurrencePattern(text, BIWEEKLY_PATTERN));
+        if (end == 0) {
+            return null;
+        }
+
+        // Word boundaries of the last MAX_WORDS words, index 0 = last word
+        int[] starts = new int[MAX_WORDS];
+        int[] ends = new int[MAX_WORDS];
+        int words = 0;
+        int pos = end;
+        while (words < MAX_WORDS && pos > 0) {
+            ends[words] = pos;
+            while (pos > 0 && !isSpace(text.charAt(pos - 1))) {
+                pos--;
+            }
+            starts[words] = pos;
+            words++;
+            while (pos > 0 && isSpace(text.charAt(pos - 1))) {
+                pos--;
+            }
         }
-        if (WEEKLY_PATTERN.matcher(text).find()) {
-            return new RecurrenceInfo(RecurrenceType.WEEKLY, stripRecurrencePattern(text, WEEKLY_PATTERN));
+
+        // Longest phrase first; a phrase has to be preceded by text (starts > 0)
+        if (words >= 3 && starts[2] > 0 && is(text, starts[2], ends[2], "every")) {
+            RecurrenceRule rule = parseThreeWords(text, starts, ends);
+            if (rule != null) {
+                return info(text, starts[2], rule);
+            }
         }
-        if (MONTHLY_PATTERN.matcher(text).find()) {
-            return new RecurrenceInfo(RecurrenceType.MONTHLY, stripRecurrencePattern(text, MONTHLY_PATTERN));
+        if (words >= 2 && starts[1] > 0 && is(text, starts[1], ends[1], "every")) {
+            RecurrenceRule rule = parseEveryWord(text, starts[0], ends[0]);
+            if (rule != null) {
+                return info(text, starts[1], rule);
+            }
         }
-        if (YEARLY_PATTERN.matcher(text).find()) {
-            return new RecurrenceInfo(RecurrenceType.YEARLY, stripRecurrencePattern(text, YEARLY_PATTERN));
+        if (starts[0] > 0 && is(text, starts[0], ends[0], "weekdays")) {
+            return info(text, starts[0], new RecurrenceRule(RecurrenceType.WEEKLY, 1, RecurrenceRule.MONDAY_TO_FRIDAY));
         }
 
         return null;
     }
 
-    private static String stripRecurrencePattern(String text, Pattern pattern) {
-        return pattern.matcher(text).replaceAll("").trim();
+    // "every other day|week", "every N day(s)|week(s)"
+    private static RecurrenceRule parseThreeWords(String text, int[] starts, int[] ends) {
+        int unitStart = starts[0];
+        int unitEnd = ends[0];
+        boolean days = is(text, unitStart, unitEnd, "day") || is(text, unitStart, unitEnd, "days");
+        boolean weeks = is(text, unitStart, unitEnd, "week") || is(text, unitStart, unitEnd, "weeks");
+        if (!days && !weeks) {
+            return null;
+        }
+
+        int interval;
+        if (is(text, starts[1], ends[1], "other")) {
+            // Same rule as "every 2 days|weeks"
+            interval = 2;
+        } else {
+            interval = parseInterval(text, starts[1], ends[1]);
+            if (interval < 1) {
+                return null;
+            }
+        }
+        return new RecurrenceRule(days ? RecurrenceType.DAILY : RecurrenceType.WEEKLY, interval, 0);
+    }
+
+    // "every day|week|month|year|weekday|<weekday>"
+    private static RecurrenceRule parseEveryWord(String text, int start, int end) {
+        if (is(text, start, end, "day")) {
+            return RecurrenceRule.of(RecurrenceType.DAILY);
+        }
+        if (is(text, start, end, "week")) {
+            return RecurrenceRule.of(RecurrenceType.WEEKLY);
+        }
+        if (is(text, start, end, "month")) {
+            return RecurrenceRule.of(RecurrenceType.MONTHLY);
+        }
+        if (is(text, start, end, "year")) {
+            return RecurrenceRule.of(RecurrenceType.YEARLY);
+        }
+        if (is(text, start, end, "weekday")) {
+            return new RecurrenceRule(RecurrenceType.WEEKLY, 1, RecurrenceRule.MONDAY_TO_FRIDAY);
+        }
+        for (int i = 0; i < DAY_NAMES.length; i++) {
+            String name = DAY_NAMES[i];
+            int length = end - start;
+            boolean plural = length == name.length() + 1 && Character.toLowerCase(text.charAt(end - 1)) == 's';
+            if ((length == name.length() || plural) && text.regionMatches(true, start, name, 0, name.length())) {
+                return new RecurrenceRule(RecurrenceType.WEEKLY, 1, RecurrenceRule.bit(DayOfWeek.of(i + 1)));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps an iCal RRULE (as exported by TeuxDeux) to a rule, or null if it can't be expressed.
+     * Supports FREQ=DAILY|WEEKLY|MONTHLY|YEARLY, INTERVAL for daily/weekly and a plain BYDAY
+     * weekday list; COUNT and UNTIL are ignored. A single BYMONTHDAY on a monthly rule is ignored
+     * too: exports repeat the start date's day there, which is where monthly rules recur anyway.
+     */
+    public static RecurrenceRule parseRrule(String rrule) {
+        if (rrule == null || rrule.isBlank()) {
+            return null;
+        }
+
+        String rule = rrule.trim().toUpperCase();
+        if (rule.startsWith("RRULE:")) {
+            rule = rule.substring("RRULE:".length());
+        }
+
+        String freq = null;
+        int interval = 1;
+        int weekdays = 0;
+        boolean monthDay = false;
+        for (String part : rule.split(";")) {
+            int eq = part.indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String key = part.substring(0, eq);
+            String value = part.substring(eq + 1);
+            switch (key) {
+                case "FREQ" -> freq = value;
+                case "INTERVAL" -> {
+                    interval = parseInterval(value, 0, value.length());
+                    if (interval < 1) {
+                        return null;
+                    }
+                }
+                case "BYDAY" -> {
+                    for (String day : value.split(",")) {
+                        int bit = rruleDayBit(day);
+                        if (bit == 0) {
+                            return null; // e.g. "1MO" - nth weekday of the month
+                        }
+                        weekdays |= bit;
+                    }
+                }
+                case "BYMONTHDAY" -> {
+                    int day = parseInterval(value, 0, value.length());
+                    if (day < 1 || day > 31) {
+                        return null; // several days, or counted from the end of the month
+                    }
+                    monthDay = true;
+                }
+                case "COUNT", "UNTIL", "WKST" -> { }
+                default -> {
+                    return null; // BYSETPOS, BYMONTH, ...
+                }
+            }
+        }
+        if (freq == null || (monthDay && !"MONTHLY".equals(freq))) {
+            return null;
+        }
+
+        switch (freq) {
+            case "DAILY":
+                // Daily limited to some weekdays is the same as weekly on those weekdays
+                return weekdays != 0
+                        ? (interval == 1 ? new RecurrenceRule(RecurrenceType.WEEKLY, 1, weekdays) : null)
+                        : new RecurrenceRule(RecurrenceType.DAILY, interval, 0);
+            case "WEEKLY":
+                return new RecurrenceRule(RecurrenceType.WEEKLY, interval, weekdays);
+            case "MONTHLY":
+                return interval == 1 && weekdays == 0 ? RecurrenceRule.of(RecurrenceType.MONTHLY) : null;
+            case "YEARLY":
+                return interval == 1 && weekdays == 0 ? RecurrenceRule.of(RecurrenceType.YEARLY) : null;
+            default:
+                return null;
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static RecurrenceInfo info(String text, int phraseStart, RecurrenceRule rule) {
+        return new RecurrenceInfo(rule, text.substring(0, phraseStart).trim());
+    }
+
+    private static boolean is(String text, int start, int end, String word) {
+        return end - start == word.length() && text.regionMatches(true, start, word, 0, word.length());
+    }
+
+    // Parses a small positive integer, or returns -1
+    private static int parseInterval(String text, int start, int end) {
+        if (end - start < 1 || end - start > 3) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value >= 1 && value <= MAX_INTERVAL ? value : -1;
+    }
+
+    private static int rruleDayBit(String day) {
+        return switch (day) {
+            case "MO" -> RecurrenceRule.bit(DayOfWeek.MONDAY);
+            case "TU" -> RecurrenceRule.bit(DayOfWeek.TUESDAY);
+            case "WE" -> RecurrenceRule.bit(DayOfWeek.WEDNESDAY);
+            case "TH" -> RecurrenceRule.bit(DayOfWeek.THURSDAY);
+            case "FR" -> RecurrenceRule.bit(DayOfWeek.FRIDAY);
+            case "SA" -> RecurrenceRule.bit(DayOfWeek.SATURDAY);
+            case "SU" -> RecurrenceRule.bit(DayOfWeek.SUNDAY);
+            default -> 0;
+        };
+    }
+
+    // Same set as the regex \s the old parser used
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
     }
 }
@@ -0,0 +1,45 @@
+package com.ethan.todue.util;
+
+import com.ethan.todue.model.RecurrenceType;
+import com.ethan.todue.model.RecurringTodo;
+
+import java.time.DayOfWeek;
+
+/**
+ * Compact form of a recurrence: the base type plus an interval and a weekday bitmask, all
+ * primitives so {@link RecurrenceCalculator} can evaluate it without allocating.
+ *
+ * @param type     base frequency
+ * @param interval every N days/weeks (DAILY and WEEKLY only), 1 otherwise
+ * @param weekdays WEEKLY only: bit 0 = Monday ... bit 6 = Sunday; 0 means the start date's weekday
+ */
+public record RecurrenceRule(RecurrenceType type, int interval, int weekdays) {
+
+    public static final int MONDAY_TO_FRIDAY = 0b0011111;
+
+    public static RecurrenceRule of(RecurrenceType type) {
+        return new RecurrenceRule(type, 1, 0);
+    }
+
+    public static RecurrenceRule of(RecurringTodo recurringTodo) {
+        return new RecurrenceRule(
+                recurringTodo.getRecurrenceType(),
+                recurringTodo.getRecurrenceInterval() != null ? recurringTodo.getRecurrenceInterval() : 1,
+                recurringTodo.getRecurrenceDays() != null ? recurringTodo.getRecurrenceDays() : 0
+        );
+    }
+
+    public static int bit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+
+    /**
+     * Stores the rule on the entity; defaults are stored as NULL so plain rules look exactly like
+     * rows written before intervals and weekday sets existed.
+     */
+    public void applyTo(RecurringTodo recurringTodo) {
+        recurringTodo.setRecurrenceType(type);
+        recurringTodo.setRecurrenceInterval(interval > 1 ? interval : null);
+        recurringTodo.setRecurrenceDays(weekdays != 0 ? weekdays : null);
+    }
+}
@@ -0,0 +1,220 @@
+package com.ethan.todue.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from word tokens to item ids, for prefix search over short texts.
+ *
+ * Tokens are the lower-cased runs of letters and digits of a text. A query matches an item when
+ * every query token is a prefix of one of the item's tokens, so "wat pla" finds "Water plants".
+ * Tokens sit in a sorted map, making each prefix one range scan, and each token's ids are a sorted
+ * primitive array, so unions and intersections are array merges without boxing.
+ *
+ * Every item also belongs to a group (a date, a list...) so a whole group can be dropped and
+ * re-added when its contents are reloaded. Not thread-safe, callers synchronize.
+ */
+public final class TokenIndex<G> {
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Long, String[]> tokensById = new HashMap<>();
+    private final Map<Long, G> groupById = new HashMap<>();
+    private final Map<G, Set<Long>> idsByGroup = new HashMap<>();
+
+    /**
+     * Adds the item, replacing whatever was indexed under its id before. Ids added in ascending
+     * order are appended, anything else costs a shift of the affected id arrays.
+     */
+    public void put(long id, G group, String text) {
+        remove(id);
+        String[] tokens = tokenize(text);
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, t -> new Postings()).add(id);
+        }
+        tokensById.put(id, tokens);
+        groupById.put(id, group);
+        idsByGroup.computeIfAbsent(group, g -> new HashSet<>()).add(id);
+    }
+
+    public void remove(long id) {
+        String[] tokens = tokensById.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Postings ids = postings.get(token);
+            if (ids != null && ids.remove(id) && ids.size == 0) {
+                postings.remove(token);
+            }
+        }
+        G group = groupById.remove(id);
+        Set<Long> members = idsByGroup.get(group);
+        if (members != null && members.remove(id) && members.isEmpty()) {
+            idsByGroup.remove(group);
+        }
+    }
+
+    public void removeGroup(G group) {
+        Set<Long> members = idsByGroup.get(group);
+        if (members != null) {
+            for (Long id : new ArrayList<>(members)) {
+                remove(id);
+            }
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        tokensById.clear();
+        groupById.clear();
+        idsByGroup.clear();
+    }
+
+    public G groupOf(long id) {
+        return groupById.get(id);
+    }
+
+    public int size() {
+        return tokensById.size();
+    }
+
+    /**
+     * Ids of the items matching every token of the query as a prefix, in ascending order.
+     * A query without any letters or digits matches nothing.
+     */
+    public long[] search(String query) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0) {
+            return new long[0];
+        }
+        long[] result = null;
+        for (String term : terms) {
+            long[] matches = prefixMatches(term);
+            result = result == null ? matches : intersect(result, matches);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Distinct lower-cased runs of letters and digits, in order of appearance.
+     */
+    public static String[] tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return new String[0];
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i < lower.length(); ) {
+            int codePoint = lower.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            tokens.add(lower.substring(start));
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private long[] prefixMatches(String prefix) {
+        // Every token starting with the prefix sorts between the prefix itself and prefix + U+FFFF
+        NavigableMap<String, Postings> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        if (range.isEmpty()) {
+            return new long[0];
+        }
+        if (range.size() == 1) {
+            Postings only = range.firstEntry().getValue();
+            return Arrays.copyOf(only.ids, only.size);
+        }
+        int total = 0;
+        for (Postings ids : range.values()) {
+            total += ids.size;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (Postings ids : range.values()) {
+            System.arraycopy(ids.ids, 0, all, offset, ids.size);
+            offset += ids.size;
+        }
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (distinct == 0 || all[i] != all[distinct - 1]) {
+                all[distinct++] = all[i];
+            }
+        }
+        return distinct == all.length ? all : Arrays.copyOf(all, distinct);
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return size == out.length ? out : Arrays.copyOf(out, size);
+    }
+
+    // Sorted, duplicate-free ids of one token
+    private static final class Postings {
+        long[] ids = new long[2];
+        int size;
+
+        void add(long id) {
+            if (size > 0 && id <= ids[size - 1]) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                insert(-at - 1, id);
+            } else {
+                insert(size, id);
+            }
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        private void insert(int at, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ethan.todue.util;
+
+import com.ethan.todue.exception.UserBusyException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs one user's writes one at a time, in arrival order, before they reach the database.
+ * Concurrent requests from the same user (two tabs, phone + laptop, a fast double-click) used to
+ * lock the same day's rows in opposite orders and deadlock in MySQL; queueing them here means
+ * they never meet inside the database. Different users still run fully in parallel.
+ *
+ * Keyed by the authenticated username (the email), which identifies the user without a lookup.
+ * Slots exist only while someone holds or waits for them, so idle users cost nothing.
+ */
+public final class UserMutationSequencer {
+
+    // Not final so tests can shorten it
+    private static volatile long maxWaitSeconds = 10;
+
+    private static final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+    private static final AtomicLong sequenced = new AtomicLong();
+    private static final AtomicLong waited = new AtomicLong();
+
+    private UserMutationSequencer() {}
+
+    private static class Slot {
+        final ReentrantLock lock = new ReentrantLock(true); // fair - FIFO for queued writes
+        int holders; // guarded by slots.compute
+    }
+
+    /**
+     * Runs the operation for the currently authenticated user, or directly if there is none.
+     */
+    public static <T> T run(Supplier<T> operation) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getName() == null) {
+            return operation.get();
+        }
+        return run(authentication.getName(), operation);
+    }
+
+    public static <T> T run(String userKey, Supplier<T> operation) {
+        Slot slot = slots.compute(userKey, (key, existing) -> {
+            Slot s = existing != null ? existing : new Slot();
+            s.holders++;
+            return s;
+        });
+        try {
+            acquire(slot);
+            try {
+                sequenced.incrementAndGet();
+                return operation.get();
+            } finally {
+                slot.lock.unlock();
+            }
+        } finally {
+            slots.computeIfPresent(userKey, (key, s) -> --s.holders == 0 ? null : s);
+        }
+    }
+
+    private static void acquire(Slot slot) {
+        try {
+            // Untimed tryLock() would barge ahead of queued writes even on a fair lock
+            if (slot.lock.tryLock(0, TimeUnit.SECONDS)) {
+                return;
+            }
+            waited.incrementAndGet();
+            if (!slot.lock.tryLock(maxWaitSeconds, TimeUnit.SECONDS)) {
+                throw new UserBusyException("Another change is still being processed, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserBusyException("Interrupted while waiting for a previous change");
+        }
+    }
+
+    /** Writes that went through the sequencer. */
+    public static long getSequencedCount() {
+        return sequenced.get();
+    }
+
+    /** Writes that had to queue behind another write of the same user. */
+    public static long getWaitedCount() {
+        return waited.get();
+    }
+
+    /** Users with a write in progress or queued right now. */
+    public static int getActiveUserCount() {
+        return slots.size();
+    }
+}
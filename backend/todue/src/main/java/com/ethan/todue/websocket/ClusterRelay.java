@@ -0,0 +1,282 @@
+package com.ethan.todue.websocket;
+
+import com.ethan.todue.model.ClusterNode;
+import com.ethan.todue.repository.ChangeLogRepository;
+import com.ethan.todue.repository.ClusterNodeRepository;
+import com.ethan.todue.repository.OutboxMessageRepository;
+import com.ethan.todue.service.ClusterService;
+import com.ethan.todue.service.ViewVersionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cluster mode's receiving half: brings what other nodes committed to this node's STOMP
+ * sessions and in-memory views. Every app.cluster.relay-interval-ms a dedicated thread (not the
+ * scheduler, which nightly jobs hold for minutes) reads two tables:
+ *
+ * - websocket_outbox: notifications written by other nodes in the transaction that caused them,
+ *   delivered to this node's sessions of their user. The simple broker only knows local sessions,
+ *   and the writing node has already delivered to its own.
+ * - change_log: the change feed every write already records, applied to ViewVersionService so
+ *   ETags and the search index here move when a view changed on another node. Changes this node
+ *   made come back too; bumping their stamps again costs at most one full response.
+ *
+ * The outbox is read first and delivered last, so the invalidations committed with a notification
+ * are always applied before it goes out and the refetch it triggers never gets a stale 304.
+ *
+ * Ids are taken at insert but become visible at commit, so a lower id can turn up after a higher
+ * one was read. Ids skipped over are rechecked on every poll until they appear or GAP_TIMEOUT
+ * passes (a rolled back insert never appears).
+ *
+ * Reading starts at the current end of both tables, older rows predate every local session. The
+ * node's cursors and a heartbeat go to cluster_nodes every few seconds; outbox rows every live node
+ * has read past are deleted once older than app.cluster.outbox-retention-seconds.
+ */
+@Service
+public class ClusterRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterRelay.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_GAPS = 1_000;
+    private static final long GAP_TIMEOUT_MILLIS = 10_000;
+    private static final long HEARTBEAT_MILLIS = 5_000;
+    private static final TypeReference<WebSocketMessage<Map<String, Object>>> MESSAGE_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private ClusterNodeRepository clusterNodeRepository;
+
+    @Autowired
+    private ViewVersionService viewVersionService;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.cluster.relay-interval-ms:200}")
+    private long relayIntervalMs;
+
+    @Value("${app.cluster.node-timeout-seconds:60}")
+    private int nodeTimeoutSeconds;
+
+    @Value("${app.cluster.outbox-retention-seconds:300}")
+    private int outboxRetentionSeconds;
+
+    private final Tail<OutboxMessageRepository.RelayRow> outbox = new Tail<>(
+            afterId -> outboxMessageRepository.findRelayRowsAfter(afterId, Limit.of(BATCH_SIZE)),
+            ids -> outboxMessageRepository.findRelayRowsByIdIn(ids),
+            OutboxMessageRepository.RelayRow::getId);
+    private final Tail<ChangeLogRepository.RelayRow> changes = new Tail<>(
+            afterId -> changeLogRepository.findRelayRowsAfter(afterId, Limit.of(BATCH_SIZE)),
+            ids -> changeLogRepository.findRelayRowsByIdIn(ids),
+            ChangeLogRepository.RelayRow::getId);
+
+    private ScheduledExecutorService executor;
+    private Instant startedAt;
+    private long lastHeartbeatMillis;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong invalidated = new AtomicLong();
+    private final AtomicLong failedPolls = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!clusterService.isEnabled()) {
+            return;
+        }
+        outbox.cursor = outboxMessageRepository.findMaxId();
+        changes.cursor = changeLogRepository.findMaxId();
+        startedAt = Instant.now();
+        heartbeat();
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::poll, relayIntervalMs, relayIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Cluster relay started on node {} at outbox {} and change log {}",
+                clusterService.getNodeId(), outbox.cursor, changes.cursor);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * One relay pass, on the calling thread. The relay thread calls this; so can tests.
+     */
+    public synchronized void poll() {
+        try {
+            boolean more;
+            do {
+                List<OutboxMessageRepository.RelayRow> messages = outbox.next();
+                List<ChangeLogRepository.RelayRow> changed = changes.next();
+                changed.forEach(this::invalidate);
+                messages.forEach(this::deliver);
+                more = messages.size() >= BATCH_SIZE || changed.size() >= BATCH_SIZE;
+            } while (more);
+
+            if (startedAt != null && System.currentTimeMillis() - lastHeartbeatMillis >= HEARTBEAT_MILLIS) {
+                heartbeat();
+                prune();
+            }
+        } catch (RuntimeException e) {
+            // Thrown out of the executor it would cancel every later poll
+            failedPolls.incrementAndGet();
+            logger.warn("Cluster relay poll failed: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", clusterService.isEnabled());
+        stats.put("nodeId", clusterService.getNodeId());
+        if (!clusterService.isEnabled()) {
+            return stats;
+        }
+        stats.put("outboxCursor", outbox.cursor);
+        stats.put("changeLogCursor", changes.cursor);
+        stats.put("pendingGaps", outbox.gapCount() + changes.gapCount());
+        stats.put("delivered", delivered.get());
+        stats.put("invalidated", invalidated.get());
+        stats.put("failedPolls", failedPolls.get());
+        List<Map<String, Object>> nodes = new ArrayList<>();
+        for (ClusterNode node : clusterNodeRepository.findByHeartbeatAtAfterOrderByNodeId(
+                Instant.now().minusSeconds(nodeTimeoutSeconds))) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("nodeId", node.getNodeId());
+            entry.put("startedAt", node.getStartedAt().toString());
+            entry.put("heartbeatAt", node.getHeartbeatAt().toString());
+            entry.put("outboxCursor", node.getOutboxCursor());
+            entry.put("changeLogCursor", node.getChangeLogCursor());
+            nodes.add(entry);
+        }
+        stats.put("liveNodes", nodes);
+        return stats;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void invalidate(ChangeLogRepository.RelayRow change) {
+        Long userId = change.getUserId();
+        switch (change.getScope()) {
+            case TODO_DATE -> viewVersionService.todosChanged(userId, change.getScopeDate());
+            case RECURRING -> viewVersionService.allTodosChanged(userId);
+            case LATER_LIST -> viewVersionService.laterListChanged(userId, change.getScopeId());
+            case ROUTINE -> viewVersionService.routineChanged(userId, change.getScopeId());
+            case ALL -> viewVersionService.userChanged(userId);
+        }
+        invalidated.incrementAndGet();
+    }
+
+    private void deliver(OutboxMessageRepository.RelayRow row) {
+        if (clusterService.getNodeId().equals(row.getOriginNode())) {
+            return;
+        }
+        try {
+            webSocketService.deliverLocally(row.getUserId(), objectMapper.readValue(row.getPayload(), MESSAGE_TYPE));
+            delivered.incrementAndGet();
+        } catch (JsonProcessingException e) {
+            logger.warn("Skipping unreadable outbox message {}: {}", row.getId(), e.getMessage());
+        }
+    }
+
+    private void heartbeat() {
+        Instant now = Instant.now();
+        clusterNodeRepository.save(new ClusterNode(clusterService.getNodeId(), outbox.cursor, changes.cursor, startedAt, now));
+        lastHeartbeatMillis = now.toEpochMilli();
+    }
+
+    private void prune() {
+        Instant now = Instant.now();
+        long upToId = clusterNodeRepository.findByHeartbeatAtAfterOrderByNodeId(now.minusSeconds(nodeTimeoutSeconds)).stream()
+                .mapToLong(ClusterNode::getOutboxCursor)
+                .min()
+                .orElse(outbox.cursor);
+        outboxMessageRepository.deleteRelayed(upToId, now.minusSeconds(outboxRetentionSeconds));
+        clusterNodeRepository.deleteByHeartbeatAtBefore(now.minus(1, ChronoUnit.DAYS));
+    }
+
+    /**
+     * Reads a table's new rows in id order, rechecking ids it skipped over.
+     */
+    private static final class Tail<T> {
+        private final LongFunction<List<T>> after;
+        private final Function<Collection<Long>, List<T>> byIds;
+        private final ToLongFunction<T> idOf;
+        // Missing id -> when it was first found missing
+        private final Map<Long, Long> gaps = new LinkedHashMap<>();
+        volatile long cursor;
+
+        Tail(LongFunction<List<T>> after, Function<Collection<Long>, List<T>> byIds, ToLongFunction<T> idOf) {
+            this.after = after;
+            this.byIds = byIds;
+            this.idOf = idOf;
+        }
+
+        synchronized List<T> next() {
+            long now = System.currentTimeMillis();
+            List<T> rows = new ArrayList<>();
+            if (!gaps.isEmpty()) {
+                for (T row : byIds.apply(new ArrayList<>(gaps.keySet()))) {
+                    gaps.remove(idOf.applyAsLong(row));
+                    rows.add(row);
+                }
+                gaps.values().removeIf(missingSince -> now - missingSince > GAP_TIMEOUT_MILLIS);
+            }
+            for (T row : after.apply(cursor)) {
+                long id = idOf.applyAsLong(row);
+                for (long missing = cursor + 1; missing < id && gaps.size() < MAX_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                cursor = id;
+                rows.add(row);
+            }
+            return rows;
+        }
+
+        synchronized int gapCount() {
+            return gaps.size();
+        }
+    }
+}
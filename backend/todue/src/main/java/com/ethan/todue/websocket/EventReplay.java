@@ -0,0 +1,21 @@
+package com.ethan.todue.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Reply to a replay subscription (see EventReplayBuffer): the events after the client's last-seen
+ * sequence, or resync when some of them are no longer buffered and the client has to refetch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventReplay {
+    private String stream;
+    private long latestSeq;
+    private boolean resync;
+    private List<WebSocketMessage<?>> events;
+}
@@ -0,0 +1,122 @@
+package com.ethan.todue.websocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The last app.websocket.replay.buffer-size WebSocket events sent to each user, so a client that
+ * was briefly disconnected gets only what it missed instead of refetching everything.
+ *
+ * Every event sent to a user goes out with the user's stream id and the next sequence number in
+ * that stream. Clients keep the stream and highest seq they have seen; after reconnecting (or on
+ * seeing a seq jump by more than one) they subscribe to /app/updates/replay with "stream" and
+ * "last-seq" headers and get an EventReplay with the events after it. A full refetch is only
+ * needed when the reply says resync: the missed events have already left the buffer, or the
+ * stream is unknown here because the buffer was evicted, the instance restarted or, in cluster
+ * mode, the client reconnected to another node. Events are refetch hints, so one replayed that
+ * was also received live is harmless.
+ *
+ * Buffers exist for users with a session on this node or with a buffer already (a disconnected
+ * client's events keep being recorded), and are dropped after app.websocket.replay.expire-minutes
+ * without events or replays, or beyond app.websocket.replay.max-users least recently used first.
+ */
+@Service
+public class EventReplayBuffer {
+
+    @Value("${app.websocket.replay.buffer-size:50}")
+    private int bufferSize;
+
+    @Value("${app.websocket.replay.max-users:2000}")
+    private int maxUsers;
+
+    @Value("${app.websocket.replay.expire-minutes:60}")
+    private int expireMinutes;
+
+    // Access-ordered for LRU eviction; guarded by this
+    private final Map<Long, UserEvents> buffers = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UserEvents> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    public synchronized boolean isTracking(Long userId) {
+        return buffers.containsKey(userId);
+    }
+
+    /**
+     * Stamps the message with the user's next sequence number, buffers it and hands it to send.
+     * Sending happens under the user's buffer lock, so the user's events go out in sequence order.
+     */
+    public void append(Long userId, WebSocketMessage<?> message, Consumer<WebSocketMessage<?>> send) {
+        UserEvents user = buffer(userId);
+        synchronized (user) {
+            WebSocketMessage<?> sequenced = message.sequenced(user.stream, ++user.lastSeq);
+            user.events.addLast(sequenced);
+            while (user.events.size() > bufferSize) {
+                user.events.removeFirst();
+            }
+            user.lastActiveMillis = System.currentTimeMillis();
+            send.accept(sequenced);
+        }
+    }
+
+    /**
+     * The user's events after lastSeq in the given stream. Without a stream (a first connect) there
+     * is nothing to replay, the reply only tells the client where the stream stands.
+     */
+    public EventReplay replay(Long userId, String stream, Long lastSeq) {
+        UserEvents user = buffer(userId);
+        synchronized (user) {
+            user.lastActiveMillis = System.currentTimeMillis();
+            if (stream == null) {
+                return new EventReplay(user.stream, user.lastSeq, false, List.of());
+            }
+            long oldestSeq = user.lastSeq - user.events.size() + 1;
+            if (!stream.equals(user.stream) || lastSeq == null || lastSeq > user.lastSeq || lastSeq + 1 < oldestSeq) {
+                return new EventReplay(user.stream, user.lastSeq, true, List.of());
+            }
+            List<WebSocketMessage<?>> missed = new ArrayList<>();
+            Iterator<WebSocketMessage<?>> events = user.events.descendingIterator();
+            for (long seq = user.lastSeq; seq > lastSeq; seq--) {
+                missed.add(events.next());
+            }
+            Collections.reverse(missed);
+            return new EventReplay(user.stream, user.lastSeq, false, missed);
+        }
+    }
+
+    public synchronized int size() {
+        return buffers.size();
+    }
+
+    @Scheduled(fixedDelay = 10, initialDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public synchronized void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(expireMinutes);
+        buffers.values().removeIf(user -> user.lastActiveMillis < cutoff);
+    }
+
+    private synchronized UserEvents buffer(Long userId) {
+        return buffers.computeIfAbsent(userId, id -> new UserEvents());
+    }
+
+    private static final class UserEvents {
+        // A new stream per buffer, so seqs from an evicted buffer or another node never match
+        final String stream = UUID.randomUUID().toString().substring(0, 8);
+        final ArrayDeque<WebSocketMessage<?>> events = new ArrayDeque<>();
+        long lastSeq;
+        volatile long lastActiveMillis = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,33 @@
+package com.ethan.todue.websocket;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+/**
+ * STOMP side of event replay. Subscribing to /app/updates/replay, with the stream and last-seq
+ * headers of the last event seen, answers once with an EventReplay sent straight to the
+ * subscribing session.
+ */
+@Controller
+public class EventReplayController {
+
+    @Autowired
+    private EventReplayBuffer eventReplayBuffer;
+
+    @SubscribeMapping("/updates/replay")
+    public EventReplay replay(SimpMessageHeaderAccessor accessor,
+                              @Header(name = "stream", required = false) String stream,
+                              @Header(name = "last-seq", required = false) Long lastSeq) {
+        Long userId = accessor.getSessionAttributes() != null
+                ? (Long) accessor.getSessionAttributes().get("userId")
+                : null;
+        if (userId == null) {
+            throw new MessageDeliveryException("Authentication required for replay");
+        }
+        return eventReplayBuffer.replay(userId, stream, lastSeq);
+    }
+}
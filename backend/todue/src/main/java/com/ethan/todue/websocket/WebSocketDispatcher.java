@@ -0,0 +1,264 @@
+package com.ethan.todue.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers WebSocket messages off the committing thread. WebSocketService hands each message
+ * over after commit; encoding and pushing it through the broker happen on a small pool of
+ * dispatcher threads (app.websocket.dispatch.threads), so request latency no longer depends on
+ * how many sessions a user has.
+ *
+ * Each user has a queue of at most app.websocket.dispatch.queue-size messages, drained by one
+ * thread at a time so the user's messages keep their order. A drain starts
+ * app.websocket.dispatch.linger-ms after the first message, so a transaction's messages and any
+ * that follow closely go out together: one frame per message on /queue/updates (and its CBOR
+ * copy), and the whole run as one JSON array frame to sessions subscribed to /queue/updates.batch.
+ *
+ * A queue that fills up (dispatch can't keep up with the user's writes) is replaced by a single
+ * RESYNC message, stamped with the sequence number of the newest message dropped: the client
+ * refetches everything and continues from there.
+ */
+@Service
+public class WebSocketDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketDispatcher.class);
+
+    private static final String JSON_DESTINATION = "/queue/updates";
+    private static final String CBOR_DESTINATION = "/queue/updates.cbor";
+    private static final String BATCH_DESTINATION = "/queue/updates.batch";
+    private static final int LATENCY_SAMPLES = 1024;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private SimpUserRegistry simpUserRegistry;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Value("${app.websocket.dispatch.threads:2}")
+    private int threads;
+
+    @Value("${app.websocket.dispatch.queue-size:100}")
+    private int queueSize;
+
+    @Value("${app.websocket.dispatch.linger-ms:5}")
+    private long lingerMs;
+
+    private final Map<Long, UserQueue> queues = new ConcurrentHashMap<>();
+    private volatile ScheduledThreadPoolExecutor executor;
+
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger peakDepth = new AtomicInteger();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    // Enqueue-to-sent latency of the most recent messages, in microseconds; guarded by itself
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private long latencyCount;
+
+    private record Queued(WebSocketMessage<?> message, long enqueuedNanos) {}
+
+    private static final class UserQueue {
+        final ArrayDeque<Queued> messages = new ArrayDeque<>();
+        boolean scheduled;
+        // Removed from the map once drained empty; enqueuers holding it start a new one
+        boolean retired;
+    }
+
+    /**
+     * Queues a message for the user's sessions on this node.
+     */
+    public void enqueue(Long userId, WebSocketMessage<?> message) {
+        while (true) {
+            UserQueue queue = queues.computeIfAbsent(userId, id -> new UserQueue());
+            synchronized (queue) {
+                if (queue.retired) {
+                    continue;
+                }
+                if (queue.messages.size() >= queueSize) {
+                    overflow(queue, message);
+                } else {
+                    queue.messages.addLast(new Queued(message, System.nanoTime()));
+                    peakDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+                }
+                if (!queue.scheduled) {
+                    try {
+                        executor().schedule(() -> drain(userId, queue), lingerMs, TimeUnit.MILLISECONDS);
+                        queue.scheduled = true;
+                    } catch (RejectedExecutionException e) {
+                        // Shutting down, nothing will be delivered any more
+                        failures.incrementAndGet();
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queuedUsers", queues.size());
+        stats.put("queueDepth", depth.get());
+        stats.put("peakQueueDepth", peakDepth.get());
+        stats.put("messagesSent", messagesSent.get());
+        stats.put("framesSent", framesSent.get());
+        stats.put("overflows", overflows.get());
+        stats.put("dropped", dropped.get());
+        stats.put("failures", failures.get());
+
+        long[] sorted;
+        synchronized (latencies) {
+            sorted = Arrays.copyOf(latencies, (int) Math.min(latencyCount, LATENCY_SAMPLES));
+        }
+        Arrays.sort(sorted);
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("samples", sorted.length);
+        if (sorted.length > 0) {
+            latency.put("p50Micros", sorted[(int) (sorted.length * 0.50)]);
+            latency.put("p99Micros", sorted[(int) (sorted.length * 0.99)]);
+            latency.put("maxMicros", sorted[sorted.length - 1]);
+        }
+        stats.put("sendLatency", latency);
+        return stats;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    // Caller holds the queue
+    private void overflow(UserQueue queue, WebSocketMessage<?> newest) {
+        int discarded = queue.messages.size() + 1;
+        depth.addAndGet(1 - queue.messages.size());
+        queue.messages.clear();
+
+        WebSocketMessage<Map<String, Object>> resync = new WebSocketMessage<>(WebSocketMessageType.RESYNC, new HashMap<>());
+        resync.setStream(newest.getStream());
+        resync.setSeq(newest.getSeq());
+        queue.messages.addLast(new Queued(resync, System.nanoTime()));
+        overflows.incrementAndGet();
+        dropped.addAndGet(discarded);
+    }
+
+    private void drain(Long userId, UserQueue queue) {
+        while (true) {
+            List<Queued> batch;
+            synchronized (queue) {
+                if (queue.messages.isEmpty()) {
+                    queue.scheduled = false;
+                    queue.retired = true;
+                    queues.remove(userId, queue);
+                    return;
+                }
+                batch = new ArrayList<>(queue.messages);
+                queue.messages.clear();
+                depth.addAndGet(-batch.size());
+            }
+            try {
+                send(userId, batch);
+            } catch (RuntimeException e) {
+                // Thrown out of the executor it would leave the queue scheduled forever
+                failures.incrementAndGet();
+                logger.warn("Could not deliver {} WebSocket message(s) to user {}: {}", batch.size(), userId, e.getMessage());
+            }
+        }
+    }
+
+    private void send(Long userId, List<Queued> batch) {
+        SimpUser user = simpUserRegistry.getUser(userId.toString());
+        if (user == null) {
+            return;
+        }
+        List<String> destinations = user.getSessions().stream()
+                .flatMap(session -> session.getSubscriptions().stream())
+                .map(subscription -> subscription.getDestination())
+                .toList();
+        boolean json = destinations.stream().anyMatch(destination -> destination.endsWith(JSON_DESTINATION));
+        boolean cbor = destinations.stream().anyMatch(destination -> destination.endsWith(CBOR_DESTINATION));
+        boolean batched = destinations.stream().anyMatch(destination -> destination.endsWith(BATCH_DESTINATION));
+
+        List<WebSocketMessage<?>> messages = batch.stream().<WebSocketMessage<?>>map(Queued::message).toList();
+        for (WebSocketMessage<?> message : messages) {
+            if (json) {
+                messagingTemplate.convertAndSendToUser(userId.toString(), JSON_DESTINATION, message);
+                framesSent.incrementAndGet();
+            }
+
+            // Clients on the raw WebSocket transport may subscribe to a CBOR copy instead. As a
+            // byte[] payload it goes out as an application/octet-stream binary frame (not usable
+            // over SockJS, which is text-only).
+            if (cbor) {
+                try {
+                    messagingTemplate.convertAndSendToUser(userId.toString(), CBOR_DESTINATION,
+                            cborConverter.getObjectMapper().writeValueAsBytes(message));
+                    framesSent.incrementAndGet();
+                } catch (JsonProcessingException e) {
+                    logger.warn("Could not encode WebSocket message {} as CBOR: {}", message.getType(), e.getMessage());
+                }
+            }
+        }
+        if (batched) {
+            messagingTemplate.convertAndSendToUser(userId.toString(), BATCH_DESTINATION, messages);
+            framesSent.incrementAndGet();
+        }
+
+        long now = System.nanoTime();
+        synchronized (latencies) {
+            for (Queued queued : batch) {
+                latencies[(int) (latencyCount++ % LATENCY_SAMPLES)] = (now - queued.enqueuedNanos()) / 1_000;
+            }
+        }
+        messagesSent.addAndGet(batch.size());
+    }
+
+    private ScheduledThreadPoolExecutor executor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+                        Thread thread = new Thread(runnable, "ws-dispatch-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+}
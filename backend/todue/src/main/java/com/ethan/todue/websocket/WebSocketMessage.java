@@ -13,10 +13,20 @@ public class WebSocketMessage<T> {
     private WebSocketMessageType type;
     private T data;
     private Instant timestamp;
+    // Position in the user's event stream on the sending node, see EventReplayBuffer
+    private String stream;
+    private Long seq;
 
     public WebSocketMessage(WebSocketMessageType type, T data) {
         this.type = type;
         this.data = data;
         this.timestamp = Instant.now();
     }
+
+    /**
+     * A copy of this message at the given position of a user's event stream.
+     */
+    public WebSocketMessage<T> sequenced(String stream, long seq) {
+        return new WebSocketMessage<>(type, data, timestamp, stream, seq);
+    }
 }
@@ -1,45 +1,143 @@
 package com.ethan.todue.websocket;
 
+import com.ethan.todue.model.OutboxMessage;
+import com.ethan.todue.repository.OutboxMessageRepository;
+import com.ethan.todue.repository.UserRepository;
+import com.ethan.todue.service.ChangeLogService;
+import com.ethan.todue.service.ClusterService;
+import com.ethan.todue.service.ViewVersionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class WebSocketService {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketService.class);
+
+    @Autowired
+    private ViewVersionService viewVersionService;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private SimpUserRegistry simpUserRegistry;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EventReplayBuffer eventReplayBuffer;
+
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private WebSocketDispatcher webSocketDispatcher;
+
+    // Notifications queued by the current transaction, keyed so duplicates collapse
+    private record PendingMessage(Long userId, WebSocketMessageType type, Object data) {}
 
     /**
      * Send a WebSocket message to a user. If called inside a transaction,
      * the send is deferred until after the transaction commits, preventing
-     * clients from refetching stale data.
+     * clients from refetching stale data. Delivery itself happens on the
+     * dispatcher's threads (see WebSocketDispatcher). Identical messages queued by one
+     * transaction (e.g. a batch touching the same date) are sent once.
+     *
+     * In cluster mode the messages are also written to the outbox in the same transaction, for
+     * the other nodes to relay to the user's sessions connected there (see ClusterRelay).
+     *
+     * Each message is stamped with the user's next event sequence number as it goes out and kept
+     * for replay to clients that missed it (see EventReplayBuffer).
      */
     public void sendToUser(Long userId, WebSocketMessage<?> message) {
         if (TransactionSynchronizationManager.isSynchronizationActive()) {
-            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                @Override
-                public void afterCommit() {
-                    doSend(userId, message);
-                }
-            });
+            @SuppressWarnings("unchecked")
+            Map<PendingMessage, WebSocketMessage<?>> pending =
+                    (Map<PendingMessage, WebSocketMessage<?>>) TransactionSynchronizationManager.getResource(this);
+            if (pending == null) {
+                Map<PendingMessage, WebSocketMessage<?>> messages = new LinkedHashMap<>();
+                TransactionSynchronizationManager.bindResource(this, messages);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        if (clusterService.isEnabled()) {
+                            writeOutbox(messages);
+                        }
+                    }
+
+                    @Override
+                    public void afterCommit() {
+                        messages.forEach((key, queued) -> doSend(key.userId(), queued));
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(WebSocketService.this);
+                    }
+                });
+                pending = messages;
+            }
+            pending.putIfAbsent(new PendingMessage(userId, message.getType(), message.getData()), message);
         } else {
+            if (clusterService.isEnabled()) {
+                writeOutbox(Map.of(new PendingMessage(userId, message.getType(), message.getData()), message));
+            }
             doSend(userId, message);
         }
     }
 
+    private void writeOutbox(Map<PendingMessage, WebSocketMessage<?>> messages) {
+        List<OutboxMessage> rows = new ArrayList<>();
+        messages.forEach((key, message) -> {
+            try {
+                OutboxMessage row = new OutboxMessage();
+                row.setUser(userRepository.getReferenceById(key.userId()));
+                row.setOriginNode(clusterService.getNodeId());
+                row.setPayload(objectMapper.writeValueAsString(message));
+                rows.add(row);
+            } catch (JsonProcessingException e) {
+                logger.warn("Could not write WebSocket message {} to the outbox: {}", message.getType(), e.getMessage());
+            }
+        });
+        outboxMessageRepository.saveAll(rows);
+    }
+
+    /**
+     * Sends a message another node committed to this node's sessions of the user, if it has any,
+     * and to the user's replay buffer here.
+     */
+    void deliverLocally(Long userId, WebSocketMessage<?> message) {
+        doSend(userId, message);
+    }
+
     private void doSend(Long userId, WebSocketMessage<?> message) {
-        messagingTemplate.convertAndSendToUser(
-                userId.toString(),
-                "/queue/updates",
-                message
-        );
+        // Nobody to deliver to or replay for later
+        if (simpUserRegistry.getUser(userId.toString()) == null && !eventReplayBuffer.isTracking(userId)) {
+            return;
+        }
+        eventReplayBuffer.append(userId, message, sequenced -> webSocketDispatcher.enqueue(userId, sequenced));
     }
 
     /**
@@ -47,8 +145,12 @@ public class WebSocketService {
      * Client should refetch todos for this date.
      *
      * Use for: create regular todo, complete todo, update text, reorder, delete single instance
+     * Also invalidates the ETag of every todo view covering this date and records the date in the sync feed.
      */
     public void notifyTodosChanged(Long userId, LocalDate date) {
+        viewVersionService.todosChanged(userId, date);
+        changeLogService.recordTodosChanged(userId, date);
+
         Map<String, Object> data = new HashMap<>();
         // Send date as string in ISO format (yyyy-MM-dd) for frontend compatibility
         data.put("date", date.toString());
@@ -65,8 +167,12 @@ public class WebSocketService {
      * Client should refetch all currently visible dates.
      *
      * Use for: create recurring pattern, update recurring pattern, delete all future instances
+     * Also invalidates the ETags of all of the user's todo views and records the change in the sync feed.
      */
     public void notifyRecurringChanged(Long userId) {
+        viewVersionService.allTodosChanged(userId);
+        changeLogService.recordRecurringChanged(userId);
+
         Map<String, Object> data = new HashMap<>();
 
         WebSocketMessage<Map<String, Object>> message = new WebSocketMessage<>(
@@ -87,6 +193,8 @@ public class WebSocketService {
     public void notifyLaterListChanged(Long userId, Long listId, String action) {
         Map<String, Object> data = new HashMap<>();
         if (listId != null) {
+            viewVersionService.laterListChanged(userId, listId);
+            changeLogService.recordLaterListChanged(userId, listId);
             data.put("listId", listId);
         }
         data.put("action", action);
@@ -110,6 +218,8 @@ public class WebSocketService {
     public void notifyRoutineChanged(Long userId, Long routineId, String action) {
         Map<String, Object> data = new HashMap<>();
         if (routineId != null) {
+            viewVersionService.routineChanged(userId, routineId);
+            changeLogService.recordRoutineChanged(userId, routineId);
             data.put("routineId", routineId);
         }
         data.put("action", action);
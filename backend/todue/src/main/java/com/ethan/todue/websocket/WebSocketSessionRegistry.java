@@ -0,0 +1,205 @@
+package com.ethan.todue.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every open WebSocket connection on this node (both endpoints, all SockJS transports), so
+ * connections nobody is using give their Tomcat slot back:
+ *
+ * - a connection that has sent nothing for app.websocket.session.idle-timeout-seconds is
+ *   closed. Clients that negotiated STOMP heartbeats send one every few seconds and the broker
+ *   already drops them when those stop; this catches the rest, e.g. a phone that went to sleep
+ *   without heartbeats, whose half-open connection the server can't tell from a quiet one.
+ * - beyond app.websocket.session.max-per-user connections for one user, the least recently
+ *   active is closed (typically a device that reconnected without its old socket being closed).
+ *
+ * Closed clients reconnect and replay what they missed (see EventReplayBuffer). Installed as a
+ * decorator of the STOMP handler (see WebSocketConfig); idle connections are swept on the
+ * broker's scheduler, which nightly jobs don't hold up.
+ */
+@Service
+public class WebSocketSessionRegistry implements WebSocketHandlerDecoratorFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketSessionRegistry.class);
+
+    @Autowired
+    @Lazy
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Value("${app.websocket.session.idle-timeout-seconds:600}")
+    private int idleTimeoutSeconds;
+
+    @Value("${app.websocket.session.max-per-user:10}")
+    private int maxPerUser;
+
+    @Value("${app.websocket.session.sweep-interval-seconds:15}")
+    private int sweepIntervalSeconds;
+
+    private final Map<String, TrackedSession> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<TrackedSession>> sessionsByUser = new ConcurrentHashMap<>();
+
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong closed = new AtomicLong();
+    private final AtomicLong idleEvictions = new AtomicLong();
+    private final AtomicLong overLimitEvictions = new AtomicLong();
+
+    private static final class TrackedSession {
+        final WebSocketSession session;
+        final Long userId;
+        final long openedMillis = System.currentTimeMillis();
+        volatile long lastInboundMillis = openedMillis;
+
+        TrackedSession(WebSocketSession session, Long userId) {
+            this.session = session;
+            this.userId = userId;
+        }
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                register(session);
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+                TrackedSession tracked = sessions.get(session.getId());
+                if (tracked != null) {
+                    tracked.lastInboundMillis = System.currentTimeMillis();
+                }
+                super.handleMessage(session, message);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        messageBrokerTaskScheduler.scheduleWithFixedDelay(this::evictIdle, Duration.ofSeconds(sweepIntervalSeconds));
+    }
+
+    /**
+     * Closes connections that have been silent for longer than the idle timeout.
+     */
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutSeconds * 1_000L;
+        for (TrackedSession tracked : sessions.values()) {
+            if (tracked.lastInboundMillis < cutoff) {
+                evict(tracked, CloseStatus.GOING_AWAY.withReason("Idle"));
+                idleEvictions.incrementAndGet();
+            } else if (!tracked.session.isOpen()) {
+                // Closed without the handler hearing about it
+                remove(tracked.session.getId());
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        // Number of sessions -> number of users with that many
+        Map<Integer, Integer> distribution = new TreeMap<>();
+        int maxSessions = 0;
+        for (Set<TrackedSession> userSessions : sessionsByUser.values()) {
+            distribution.merge(userSessions.size(), 1, Integer::sum);
+            maxSessions = Math.max(maxSessions, userSessions.size());
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", sessions.size());
+        stats.put("users", sessionsByUser.size());
+        stats.put("maxPerUser", maxSessions);
+        stats.put("usersBySessionCount", distribution);
+        stats.put("opened", opened.get());
+        stats.put("closed", closed.get());
+        stats.put("idleEvictions", idleEvictions.get());
+        stats.put("overLimitEvictions", overLimitEvictions.get());
+        return stats;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void register(WebSocketSession session) {
+        Long userId = (Long) session.getAttributes().get("userId");
+        TrackedSession registered = new TrackedSession(session, userId);
+        sessions.put(session.getId(), registered);
+        opened.incrementAndGet();
+        if (userId == null) {
+            return;
+        }
+
+        // Added inside compute, so remove() can't drop the set from the map in between
+        Set<TrackedSession> userSessions = sessionsByUser.compute(userId, (id, current) -> {
+            Set<TrackedSession> updated = current != null ? current : ConcurrentHashMap.newKeySet();
+            updated.add(registered);
+            return updated;
+        });
+        if (userSessions.size() > maxPerUser) {
+            List<TrackedSession> leastActive = new ArrayList<>(userSessions);
+            leastActive.sort(Comparator.comparingLong((TrackedSession tracked) -> tracked.lastInboundMillis)
+                    .thenComparingLong(tracked -> tracked.openedMillis));
+            for (TrackedSession tracked : leastActive.subList(0, Math.max(0, leastActive.size() - maxPerUser))) {
+                evict(tracked, CloseStatus.POLICY_VIOLATION.withReason("Too many connections"));
+                overLimitEvictions.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean remove(String sessionId) {
+        TrackedSession tracked = sessions.remove(sessionId);
+        if (tracked == null) {
+            return false;
+        }
+        closed.incrementAndGet();
+        if (tracked.userId != null) {
+            sessionsByUser.computeIfPresent(tracked.userId, (id, userSessions) -> {
+                userSessions.remove(tracked);
+                return userSessions.isEmpty() ? null : userSessions;
+            });
+        }
+        return true;
+    }
+
+    private void evict(TrackedSession tracked, CloseStatus status) {
+        if (!remove(tracked.session.getId())) {
+            return;
+        }
+        try {
+            tracked.session.close(status);
+        } catch (IOException e) {
+            logger.warn("Could not close WebSocket session {}: {}", tracked.session.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ethan.todue;
+
+import com.ethan.todue.model.User;
+import com.ethan.todue.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the whole application on a real port against embedded H2 and walks through login,
+ * a todo round trip and the SockJS endpoint. On the JVM this is a plain integration test; under
+ * ./mvnw -PnativeTest test it runs inside the native image and catches missing reflection or
+ * proxy hints (Hibernate entities, Jackson DTOs, JWT, STOMP) that only fail at runtime there.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class NativeSmokeTests {
+
+    private static final String EMAIL = "native-smoke@todue.test";
+    private static final String PASSWORD = "Smoke-test-1";
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void loginTodoRoundTripAndWebSocketEndpoint() {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPasswordHash(passwordEncoder.encode(PASSWORD));
+        user.setEmailVerified(true);
+        userRepository.save(user);
+
+        ResponseEntity<String> login = rest.postForEntity("/api/auth/login",
+                json("{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}", null), String.class);
+        assertThat(login.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String token = JsonPath.read(login.getBody(), "$.token");
+
+        ResponseEntity<String> me = rest.exchange("/api/user/me", HttpMethod.GET, json(null, token), String.class);
+        assertThat(me.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((String) JsonPath.read(me.getBody(), "$.email")).isEqualTo(EMAIL);
+
+        LocalDate date = LocalDate.now(ZoneId.of("UTC")).plusDays(3);
+        ResponseEntity<String> created = rest.postForEntity("/api/todos",
+                json("{\"text\":\"Water plants every week\",\"assignedDate\":\"" + date + "\"}", token), String.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> day = rest.exchange("/api/todos?date=" + date, HttpMethod.GET, json(null, token), String.class);
+        assertThat(day.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<String> texts = JsonPath.read(day.getBody(), "$[*].text");
+        assertThat(texts).contains("Water plants");
+
+        ResponseEntity<String> sockJsInfo = rest.getForEntity("/ws/info", String.class);
+        assertThat(sockJsInfo.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((Boolean) JsonPath.read(sockJsInfo.getBody(), "$.websocket")).isTrue();
+    }
+
+    private HttpEntity<String> json(String body, String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        return new HttpEntity<>(body, headers);
+    }
+}
@@ -0,0 +1,109 @@
+package com.ethan.todue.benchmark;
+
+import com.ethan.todue.model.RecurrenceType;
+import com.ethan.todue.model.RecurringTodo;
+import com.ethan.todue.util.CompiledRecurrenceRules;
+import com.ethan.todue.util.RecurrenceCalculator;
+import com.ethan.todue.util.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtering a heavy user's rule set for a date: CompiledRecurrenceRules vs calling
+ * RecurrenceCalculator per rule. First proves both agree on every rule and every date over a few
+ * years (month ends, leap days and all rule shapes included), then times them. Run on demand with:
+ *
+ *   mvn test -Dtest=CompiledRecurrenceRulesBenchmark
+ */
+class CompiledRecurrenceRulesBenchmark {
+
+    private static final int RULES = 200;
+    private static final int WARM_UP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1_000;
+
+    @Test
+    void compareWithCalculator() {
+        LocalDate firstDay = LocalDate.of(2023, 1, 1);
+        List<RecurringTodo> rules = rules(firstDay);
+        CompiledRecurrenceRules compiled = CompiledRecurrenceRules.compile(rules);
+
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = firstDay; date.isBefore(firstDay.plusYears(4)); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+
+        for (LocalDate date : dates) {
+            List<RecurringTodo> expected = rules.stream()
+                    .filter(rule -> RecurrenceCalculator.shouldInstanceExist(rule, date))
+                    .filter(rule -> rule.getEndDate() == null || !date.isAfter(rule.getEndDate()))
+                    .toList();
+            assertThat(compiled.firingOn(date)).as(date.toString()).isEqualTo(expected);
+        }
+
+        int[] out = new int[rules.size()];
+        double calculatorNanos = time(dates, date -> {
+            int count = 0;
+            for (RecurringTodo rule : rules) {
+                count += RecurrenceCalculator.shouldInstanceExist(rule, date) ? 1 : 0;
+            }
+            return count;
+        });
+        double compiledNanos = time(dates, date -> compiled.indicesFiringOn(date, out));
+
+        System.out.printf("[recurrence-rules] %d rules per date: calculator %8.0f ns   compiled %8.0f ns   (%.1fx)%n",
+                RULES, calculatorNanos, compiledNanos, calculatorNanos / compiledNanos);
+    }
+
+    private double time(List<LocalDate> dates, java.util.function.ToIntFunction<LocalDate> filter) {
+        long sink = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            for (LocalDate date : dates) {
+                sink += filter.applyAsInt(date);
+            }
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            for (LocalDate date : dates) {
+                sink += filter.applyAsInt(date);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return (double) elapsed / MEASURED_ROUNDS / dates.size();
+    }
+
+    private static List<RecurringTodo> rules(LocalDate firstDay) {
+        RecurrenceRule[] shapes = {
+                RecurrenceRule.of(RecurrenceType.DAILY),
+                RecurrenceRule.of(RecurrenceType.WEEKLY),
+                RecurrenceRule.of(RecurrenceType.BIWEEKLY),
+                RecurrenceRule.of(RecurrenceType.MONTHLY),
+                RecurrenceRule.of(RecurrenceType.YEARLY),
+                new RecurrenceRule(RecurrenceType.DAILY, 3, 0),
+                new RecurrenceRule(RecurrenceType.WEEKLY, 3, 0),
+                new RecurrenceRule(RecurrenceType.WEEKLY, 1, RecurrenceRule.MONDAY_TO_FRIDAY),
+                new RecurrenceRule(RecurrenceType.WEEKLY, 2, 0b1000101),
+        };
+        LocalDate[] specialStarts = {
+                LocalDate.of(2024, 2, 29), LocalDate.of(2023, 1, 31), LocalDate.of(2023, 3, 30), LocalDate.of(2023, 12, 31)
+        };
+
+        List<RecurringTodo> rules = new ArrayList<>();
+        for (int i = 0; i < RULES; i++) {
+            RecurringTodo rule = new RecurringTodo();
+            rule.setId((long) i);
+            shapes[i % shapes.length].applyTo(rule);
+            rule.setStartDate(i % 10 == 0 ? specialStarts[(i / 10) % specialStarts.length] : firstDay.plusDays(i * 7L % 400));
+            if (i % 9 == 8) {
+                rule.setEndDate(rule.getStartDate().plusDays(200));
+            }
+            rules.add(rule);
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,157 @@
+package com.ethan.todue.benchmark;
+
+import com.ethan.todue.dto.LaterListTodoResponse;
+import com.ethan.todue.dto.RoutineDetailResponse;
+import com.ethan.todue.dto.RoutineScheduleResponse;
+import com.ethan.todue.dto.RoutineStepResponse;
+import com.ethan.todue.dto.TodoResponse;
+import com.ethan.todue.websocket.WebSocketMessage;
+import com.ethan.todue.websocket.WebSocketMessageType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Payload size and encode/decode time of JSON vs CBOR for the responses the mobile client
+ * downloads most. Not part of the regular suite (the class name doesn't match surefire's
+ * includes); run it on demand with:
+ *
+ *   mvn test -Dtest=EncodingBenchmark
+ *
+ * Both mappers are configured like the application's (spring.jackson.* in application.properties).
+ * Gzipped sizes are included because production compresses responses.
+ */
+class EncodingBenchmark {
+
+    private static final int WARM_UP_ITERATIONS = 10_000;
+    private static final int MEASURED_ITERATIONS = 20_000;
+
+    private final ObjectMapper json = mapperBuilder().build();
+    private final ObjectMapper cbor = mapperBuilder().factory(new CBORFactory()).build();
+
+    @Test
+    void compareEncodings() throws Exception {
+        LocalDate today = LocalDate.of(2026, 3, 2);
+        List<TodoResponse> day = todos(today, 1, 30);
+        List<TodoResponse> week = todos(today, 7, 30);
+
+        System.out.printf("%-28s %8s %8s %8s %8s %10s %10s %10s %10s%n",
+                "payload", "json B", "cbor B", "json gz", "cbor gz", "json enc", "cbor enc", "json dec", "cbor dec");
+        long jsonTotal = 0, cborTotal = 0;
+        for (Map.Entry<String, Object> payload : Map.<String, Object>of(
+                "day view (30 todos)", day,
+                "week view (210 todos)", week,
+                "later list (50 todos)", laterListTodos(),
+                "routine detail (6 steps)", routineDetail(),
+                "websocket TODOS_CHANGED", new WebSocketMessage<>(WebSocketMessageType.TODOS_CHANGED,
+                        Map.of("date", today.toString()))
+        ).entrySet()) {
+            byte[] jsonBytes = json.writeValueAsBytes(payload.getValue());
+            byte[] cborBytes = cbor.writeValueAsBytes(payload.getValue());
+            jsonTotal += jsonBytes.length;
+            cborTotal += cborBytes.length;
+
+            System.out.printf("%-28s %8d %8d %8d %8d %8.2fus %8.2fus %8.2fus %8.2fus%n",
+                    payload.getKey(), jsonBytes.length, cborBytes.length, gzip(jsonBytes).length, gzip(cborBytes).length,
+                    encodeMicros(json, payload.getValue()), encodeMicros(cbor, payload.getValue()),
+                    decodeMicros(json, jsonBytes), decodeMicros(cbor, cborBytes));
+        }
+
+        assertThat(cborTotal).isLessThan(jsonTotal);
+    }
+
+    private static Jackson2ObjectMapperBuilder mapperBuilder() {
+        return new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .timeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    private double encodeMicros(ObjectMapper mapper, Object value) throws IOException {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        return (System.nanoTime() - start) / 1_000.0 / MEASURED_ITERATIONS;
+    }
+
+    private double decodeMicros(ObjectMapper mapper, byte[] bytes) throws IOException {
+        // Decoded as a tree, like a client without the server's classes would
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            mapper.readTree(bytes);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            mapper.readTree(bytes);
+        }
+        return (System.nanoTime() - start) / 1_000.0 / MEASURED_ITERATIONS;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    // ==================== Payloads ====================
+
+    private static List<TodoResponse> todos(LocalDate start, int days, int perDay) {
+        List<TodoResponse> todos = new ArrayList<>();
+        long id = 100_000;
+        for (int d = 0; d < days; d++) {
+            LocalDate date = start.plusDays(d);
+            for (int k = 0; k < perDay; k++, id++) {
+                boolean completed = k % 4 == 0;
+                boolean recurring = k % 3 == 0;
+                todos.add(new TodoResponse(recurring && k % 2 == 0 ? null : id, "Todo number " + k + " for the day",
+                        date, date, k + 1, recurring ? 2_000L + k : null, completed,
+                        completed ? Instant.parse("2026-03-02T08:15:30.123456Z") : null, k % 7 == 0,
+                        recurring && k % 2 == 0));
+            }
+        }
+        return todos;
+    }
+
+    private static List<LaterListTodoResponse> laterListTodos() {
+        List<LaterListTodoResponse> todos = new ArrayList<>();
+        for (int k = 0; k < 50; k++) {
+            boolean completed = k >= 40;
+            todos.add(new LaterListTodoResponse(50_000L + k, "Later item " + k, completed,
+                    completed ? Instant.parse("2026-03-02T08:15:30.123456Z") : null, k + 1));
+        }
+        return todos;
+    }
+
+    private static RoutineDetailResponse routineDetail() {
+        List<RoutineStepResponse> steps = new ArrayList<>();
+        for (int s = 0; s < 6; s++) {
+            steps.add(new RoutineStepResponse(7_000L + s, "Step " + s, s == 0 ? "Notes for the first step" : null, s + 1));
+        }
+        List<RoutineScheduleResponse> schedules = new ArrayList<>();
+        for (int d = 0; d < 7; d++) {
+            schedules.add(new RoutineScheduleResponse(8_000L + d, d, d < 5 ? LocalTime.of(7, 0) : null));
+        }
+        return new RoutineDetailResponse(900L, "Morning routine", steps, schedules);
+    }
+}
@@ -0,0 +1,176 @@
+package com.ethan.todue.benchmark;
+
+import com.ethan.todue.model.RecurrenceType;
+import com.ethan.todue.util.RecurrenceCalculator;
+import com.ethan.todue.util.RecurrenceParser;
+import com.ethan.todue.util.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Single-pass RecurrenceParser vs the regex parser it replaced, on a realistic mix of todo texts
+ * (most carry no recurrence phrase at all). Checks that both agree on the phrases the regex parser
+ * knew and that the new phrases parse as expected, then times them. Run on demand with:
+ *
+ *   mvn test -Dtest=RecurrenceParserBenchmark
+ */
+class RecurrenceParserBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 100_000;
+
+    private static final String[] TEXTS = {
+            "Buy milk",
+            "Call mom about the weekend plans",
+            "Finish quarterly report for the team meeting",
+            "Dentist 3pm",
+            "Review pull requests from yesterday",
+            "Pay rent every month",
+            "Take vitamins every day",
+            "Team sync every week",
+            "Water the plants every other week",
+            "Renew passport every year",
+            "Pick up dry cleaning",
+            "Email landlord re: heating",
+            "Gym every monday",
+            "Standup weekdays",
+            "Water cactus every 10 days",
+    };
+
+    @Test
+    void compareParsers() {
+        // Same answers on everything the regex parser understood
+        for (String text : TEXTS) {
+            RegexParser.Result legacy = RegexParser.parseText(text);
+            RecurrenceParser.RecurrenceInfo parsed = RecurrenceParser.parseText(text);
+            if (legacy != null) {
+                assertThat(parsed).as(text).isNotNull();
+                // "Every other week" is now the general WEEKLY rule with interval 2
+                RecurrenceRule expected = legacy.type() == RecurrenceType.BIWEEKLY
+                        ? new RecurrenceRule(RecurrenceType.WEEKLY, 2, 0)
+                        : RecurrenceRule.of(legacy.type());
+                assertThat(parsed.getRule()).as(text).isEqualTo(expected);
+                assertThat(parsed.getStrippedText()).as(text).isEqualTo(legacy.strippedText());
+            }
+        }
+        for (String text : new String[]{"every day", "  ", "Word everyday", "Run EVERY   Day  ", "Plan\tevery\tother\tweek"}) {
+            RegexParser.Result legacy = RegexParser.parseText(text);
+            RecurrenceParser.RecurrenceInfo parsed = RecurrenceParser.parseText(text);
+            assertThat(parsed == null).as("'%s'", text).isEqualTo(legacy == null);
+            if (legacy != null) {
+                assertThat(parsed.getStrippedText()).isEqualTo(legacy.strippedText());
+            }
+        }
+
+        // New phrases
+        assertThat(RecurrenceParser.parseText("Gym every Monday").getRule())
+                .isEqualTo(new RecurrenceRule(RecurrenceType.WEEKLY, 1, RecurrenceRule.bit(DayOfWeek.MONDAY)));
+        assertThat(RecurrenceParser.parseText("Bins every thursdays").getRule())
+                .isEqualTo(new RecurrenceRule(RecurrenceType.WEEKLY, 1, RecurrenceRule.bit(DayOfWeek.THURSDAY)));
+        assertThat(RecurrenceParser.parseText("Standup weekdays").getRule())
+                .isEqualTo(new RecurrenceRule(RecurrenceType.WEEKLY, 1, RecurrenceRule.MONDAY_TO_FRIDAY));
+        assertThat(RecurrenceParser.parseText("Standup every weekday").getStrippedText()).isEqualTo("Standup");
+        assertThat(RecurrenceParser.parseText("Water cactus every 10 days").getRule())
+                .isEqualTo(new RecurrenceRule(RecurrenceType.DAILY, 10, 0));
+        assertThat(RecurrenceParser.parseText("Backups every 3 weeks").getRule())
+                .isEqualTo(new RecurrenceRule(RecurrenceType.WEEKLY, 3, 0));
+        assertThat(RecurrenceParser.parseText("Stretch every other day").getRule())
+                .isEqualTo(new RecurrenceRule(RecurrenceType.DAILY, 2, 0));
+        assertThat(RecurrenceParser.parseText("Nothing every 0 days")).isNull();
+        assertThat(RecurrenceParser.parseText("every monday")).isNull();
+
+        // Calculator on the new rules
+        LocalDate wednesday = LocalDate.of(2026, 3, 4);
+        RecurrenceRule mondays = new RecurrenceRule(RecurrenceType.WEEKLY, 1, RecurrenceRule.bit(DayOfWeek.MONDAY));
+        LocalDate start = RecurrenceCalculator.firstInstanceOnOrAfter(mondays, wednesday);
+        assertThat(start).isEqualTo(LocalDate.of(2026, 3, 9));
+        assertThat(RecurrenceCalculator.shouldInstanceExist(mondays, start, start.plusWeeks(5))).isTrue();
+        assertThat(RecurrenceCalculator.shouldInstanceExist(mondays, start, start.plusDays(1))).isFalse();
+        RecurrenceRule weekdays = new RecurrenceRule(RecurrenceType.WEEKLY, 1, RecurrenceRule.MONDAY_TO_FRIDAY);
+        assertThat(RecurrenceCalculator.shouldInstanceExist(weekdays, wednesday, LocalDate.of(2026, 3, 6))).isTrue();
+        assertThat(RecurrenceCalculator.shouldInstanceExist(weekdays, wednesday, LocalDate.of(2026, 3, 7))).isFalse();
+        RecurrenceRule everyThreeWeeks = new RecurrenceRule(RecurrenceType.WEEKLY, 3, 0);
+        assertThat(RecurrenceCalculator.shouldInstanceExist(everyThreeWeeks, wednesday, wednesday.plusWeeks(3))).isTrue();
+        assertThat(RecurrenceCalculator.shouldInstanceExist(everyThreeWeeks, wednesday, wednesday.plusWeeks(2))).isFalse();
+        RecurrenceRule everyTenDays = new RecurrenceRule(RecurrenceType.DAILY, 10, 0);
+        assertThat(RecurrenceCalculator.shouldInstanceExist(everyTenDays, wednesday, wednesday.plusDays(30))).isTrue();
+        assertThat(RecurrenceCalculator.shouldInstanceExist(everyTenDays, wednesday, wednesday.plusDays(31))).isFalse();
+
+        double regexNanos = time(() -> {
+            int hits = 0;
+            for (String text : TEXTS) {
+                hits += RegexParser.parseText(text) != null ? 1 : 0;
+            }
+            return hits;
+        });
+        double parserNanos = time(() -> {
+            int hits = 0;
+            for (String text : TEXTS) {
+                hits += RecurrenceParser.parseText(text) != null ? 1 : 0;
+            }
+            return hits;
+        });
+
+        System.out.printf("[recurrence-parser] regex %8.1f ns/text   single-pass %8.1f ns/text   (%.1fx)%n",
+                regexNanos, parserNanos, regexNanos / parserNanos);
+    }
+
+    private double time(java.util.function.IntSupplier round) {
+        int sink = 0;
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            sink += round.getAsInt();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += round.getAsInt();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return (double) elapsed / MEASURED_ROUNDS / TEXTS.length;
+    }
+
+    /**
+     * The regex-based RecurrenceParser as it was before the single-pass rewrite.
+     */
+    private static class RegexParser {
+
+        record Result(RecurrenceType type, String strippedText) {}
+
+        private static final Pattern DAILY_PATTERN = Pattern.compile("\\s+every\\s+day\\s*$", Pattern.CASE_INSENSITIVE);
+        private static final Pattern WEEKLY_PATTERN = Pattern.compile("\\s+every\\s+week\\s*$", Pattern.CASE_INSENSITIVE);
+        private static final Pattern BIWEEKLY_PATTERN = Pattern.compile("\\s+every\\s+other\\s+week\\s*$", Pattern.CASE_INSENSITIVE);
+        private static final Pattern MONTHLY_PATTERN = Pattern.compile("\\s+every\\s+month\\s*$", Pattern.CASE_INSENSITIVE);
+        private static final Pattern YEARLY_PATTERN = Pattern.compile("\\s+every\\s+year\\s*$", Pattern.CASE_INSENSITIVE);
+
+        static Result parseText(String text) {
+            if (text == null || text.trim().isEmpty()) {
+                return null;
+            }
+            if (DAILY_PATTERN.matcher(text).find()) {
+                return new Result(RecurrenceType.DAILY, strip(text, DAILY_PATTERN));
+            }
+            if (BIWEEKLY_PATTERN.matcher(text).find()) {
+                return new Result(RecurrenceType.BIWEEKLY, strip(text, BIWEEKLY_PATTERN));
+            }
+            if (WEEKLY_PATTERN.matcher(text).find()) {
+                return new Result(RecurrenceType.WEEKLY, strip(text, WEEKLY_PATTERN));
+            }
+            if (MONTHLY_PATTERN.matcher(text).find()) {
+                return new Result(RecurrenceType.MONTHLY, strip(text, MONTHLY_PATTERN));
+            }
+            if (YEARLY_PATTERN.matcher(text).find()) {
+                return new Result(RecurrenceType.YEARLY, strip(text, YEARLY_PATTERN));
+            }
+            return null;
+        }
+
+        private static String strip(String text, Pattern pattern) {
+            return pattern.matcher(text).replaceAll("").trim();
+        }
+    }
+}
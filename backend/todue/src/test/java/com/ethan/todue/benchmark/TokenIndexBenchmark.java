@@ -0,0 +1,120 @@
+package com.ethan.todue.benchmark;
+
+import com.ethan.todue.util.TokenIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prefix search over a heavy user's todos: TokenIndex vs scanning every text, which is what a
+ * LIKE query amounts to. First proves both find exactly the same items for short and long
+ * prefixes and multi-word queries, then times the build, the queries and single-item updates.
+ * Run on demand with:
+ *
+ *   mvn test -Dtest=TokenIndexBenchmark
+ */
+class TokenIndexBenchmark {
+
+    private static final int ITEMS = 30_000;
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+    private static final String[] WORDS = {
+            "call", "email", "buy", "groceries", "milk", "bread", "pay", "rent", "invoice", "review",
+            "report", "dentist", "doctor", "appointment", "water", "plants", "walk", "dog", "clean",
+            "kitchen", "book", "flights", "hotel", "renew", "passport", "birthday", "gift", "mom",
+            "fix", "bike", "tyres", "laundry", "taxes", "insurance", "car", "service", "meeting",
+            "prepare", "slides", "garden", "weeds", "café", "Müller", "q3", "2024"
+    };
+    private static final String[] QUERIES = {
+            "c", "pa", "bu mi", "rent", "app doc", "caf", "mü", "q3 rep", "zzz", "re re", "2024 walk dog"
+    };
+
+    @Test
+    void compareWithScan() {
+        List<String> texts = texts();
+        long buildStart = System.nanoTime();
+        TokenIndex<LocalDate> index = build(texts);
+        double buildMillis = (System.nanoTime() - buildStart) / 1e6;
+
+        for (String query : QUERIES) {
+            assertThat(index.search(query)).as(query).containsExactly(scan(texts, query));
+        }
+
+        double indexMicros = time(query -> index.search(query).length);
+        double scanMicros = time(query -> scan(texts, query).length);
+
+        Random random = new Random(7);
+        long updateStart = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            int id = random.nextInt(ITEMS);
+            index.put(id, LocalDate.of(2024, 1, 1).plusDays(id % 400), texts.get(random.nextInt(ITEMS)));
+        }
+        double updateMicros = (System.nanoTime() - updateStart) / 1e3 / 1_000;
+
+        System.out.printf("[token-index] %d items: build %.0f ms   query %8.1f us   scan %8.1f us   (%.0fx)   update %.1f us%n",
+                ITEMS, buildMillis, indexMicros, scanMicros, scanMicros / indexMicros, updateMicros);
+    }
+
+    private double time(java.util.function.ToIntFunction<String> search) {
+        long sink = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            for (String query : QUERIES) {
+                sink += search.applyAsInt(query);
+            }
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            for (String query : QUERIES) {
+                sink += search.applyAsInt(query);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return elapsed / 1e3 / MEASURED_ROUNDS / QUERIES.length;
+    }
+
+    private static TokenIndex<LocalDate> build(List<String> texts) {
+        TokenIndex<LocalDate> index = new TokenIndex<>();
+        for (int id = 0; id < texts.size(); id++) {
+            index.put(id, LocalDate.of(2024, 1, 1).plusDays(id % 400), texts.get(id));
+        }
+        return index;
+    }
+
+    // Reference: an item matches when every query token prefixes one of its tokens
+    private static long[] scan(List<String> texts, String query) {
+        String[] terms = TokenIndex.tokenize(query);
+        List<Long> matches = new ArrayList<>();
+        for (int id = 0; id < texts.size(); id++) {
+            String[] tokens = TokenIndex.tokenize(texts.get(id));
+            boolean all = terms.length > 0;
+            for (String term : terms) {
+                all &= Arrays.stream(tokens).anyMatch(token -> token.startsWith(term));
+            }
+            if (all) {
+                matches.add((long) id);
+            }
+        }
+        return matches.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static List<String> texts() {
+        Random random = new Random(42);
+        List<String> texts = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            int words = 2 + random.nextInt(5);
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                text.append(w == 0 ? "" : random.nextBoolean() ? " " : ", ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            texts.add(text.toString());
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,190 @@
+package com.ethan.todue.benchmark;
+
+import com.ethan.todue.security.JwtUtil;
+import com.ethan.todue.websocket.WebSocketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.RestTemplateXhrTransport;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-connection cost of the plain WebSocket endpoint (/ws-native) against the SockJS endpoint
+ * (/ws) over its WebSocket and XHR streaming transports: heap retained per open connection,
+ * threads per connection, CPU to connect, and CPU per delivered notification. Not part of the
+ * regular suite; run it on demand with:
+ *
+ *   mvn test -Dtest=WebSocketTransportBenchmark -Dwsbench.connections=200
+ *
+ * Client and server share the JVM, so heap, threads and CPU include the client side of each
+ * connection; the clients are the same STOMP client over each transport, so differences between
+ * rows are the server's and the transport's. Each transport is warmed up with a smaller round first.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "logging.level.com.ethan.todue=WARN")
+@ActiveProfiles("test")
+class WebSocketTransportBenchmark {
+
+    // Connections per user, within app.websocket.session.max-per-user
+    private static final int CONNECTIONS_PER_USER = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Value("${wsbench.connections:100}")
+    private int connections;
+
+    @Value("${wsbench.messages:20}")
+    private int messages;
+
+    private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private record Row(double heapKbPerConnection, double threadsPerConnection, double connectCpuMicros,
+                       double deliveryCpuMicros, double deliveryMillis) {}
+
+    @Test
+    void compareTransports() throws Exception {
+        int users = Math.max(1, connections / CONNECTIONS_PER_USER);
+        List<Long> userIds = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int i = 0; i < users; i++) {
+            String email = "wsbench-" + run + "-" + i + "@todue.test";
+            jdbcTemplate.update("INSERT INTO users (email, password_hash, timezone, email_verified, created_at, updated_at) " +
+                    "VALUES (?, ?, 'UTC', TRUE, ?, ?)", email, "{noop}unused", now, now);
+            userIds.add(jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email));
+            tokens.add(jwtUtil.generateToken(email));
+        }
+
+        Map<String, Supplier<WebSocketStompClient>> transports = new LinkedHashMap<>();
+        transports.put("plain /ws-native", () -> new WebSocketStompClient(new StandardWebSocketClient()));
+        transports.put("SockJS websocket", () -> new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient())))));
+        transports.put("SockJS xhr-streaming", () -> new WebSocketStompClient(
+                new SockJsClient(List.of(new RestTemplateXhrTransport()))));
+
+        System.out.printf("%n%-22s %12s %12s %14s %14s %12s%n",
+                "transport", "heap KB/conn", "threads/conn", "connect cpu us", "deliver cpu us", "deliver ms");
+        List<Long> warmUpUsers = userIds.subList(0, Math.max(1, users / 5));
+        for (Map.Entry<String, Supplier<WebSocketStompClient>> transport : transports.entrySet()) {
+            String path = transport.getKey().startsWith("plain") ? "/ws-native" : "/ws";
+            measure(transport.getValue().get(), path, warmUpUsers, tokens, warmUpUsers.size() * CONNECTIONS_PER_USER);
+            Row row = measure(transport.getValue().get(), path, userIds, tokens, connections);
+            System.out.printf("%-22s %12.1f %12.2f %14.0f %14.1f %12.0f%n", transport.getKey(),
+                    row.heapKbPerConnection(), row.threadsPerConnection(), row.connectCpuMicros(),
+                    row.deliveryCpuMicros(), row.deliveryMillis());
+            assertThat(row.deliveryMillis()).isPositive();
+        }
+    }
+
+    private Row measure(WebSocketStompClient client, String path, List<Long> userIds, List<String> tokens,
+                        int count) throws Exception {
+        client.setMessageConverter(new org.springframework.messaging.converter.MappingJackson2MessageConverter());
+        int users = userIds.size();
+        int perUser = Math.max(1, count / users);
+        CountDownLatch delivered = new CountDownLatch(perUser * users * messages);
+
+        long heapBefore = usedHeapAfterGc();
+        int threadsBefore = Thread.activeCount();
+        long cpuBefore = os.getProcessCpuTime();
+
+        List<StompSession> sessions = new ArrayList<>();
+        for (int i = 0; i < perUser * users; i++) {
+            int user = i % users;
+            String url = "http://localhost:" + port + path + "?token=" + tokens.get(user);
+            if (path.equals("/ws-native")) {
+                url = url.replace("http://", "ws://");
+            }
+            StompSession session = client.connectAsync(url, new WebSocketHttpHeaders(), new StompSessionHandlerAdapter() {})
+                    .get(10, TimeUnit.SECONDS);
+            session.subscribe("/user/" + userIds.get(user) + "/queue/updates", new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return Object.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    delivered.countDown();
+                }
+            });
+            sessions.add(session);
+        }
+        // Let the last subscriptions register
+        Thread.sleep(500);
+        long connectCpu = os.getProcessCpuTime() - cpuBefore;
+        long heapConnected = usedHeapAfterGc();
+        int threadsConnected = Thread.activeCount();
+
+        long deliveryCpuBefore = os.getProcessCpuTime();
+        long start = System.nanoTime();
+        for (int m = 0; m < messages; m++) {
+            for (Long userId : userIds) {
+                webSocketService.notifyLaterListChanged(userId, null, "LIST_UPDATED");
+            }
+        }
+        boolean complete = delivered.await(60, TimeUnit.SECONDS);
+        long deliveryNanos = System.nanoTime() - start;
+        long deliveryCpu = os.getProcessCpuTime() - deliveryCpuBefore;
+        assertThat(complete).as("every notification delivered to every session").isTrue();
+
+        for (StompSession session : sessions) {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        }
+        client.stop();
+        Thread.sleep(1_000);
+
+        int deliveries = perUser * users * messages;
+        return new Row((heapConnected - heapBefore) / 1024.0 / sessions.size(),
+                (threadsConnected - threadsBefore) / (double) sessions.size(),
+                connectCpu / 1_000.0 / sessions.size(),
+                deliveryCpu / 1_000.0 / deliveries,
+                deliveryNanos / 1e6);
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
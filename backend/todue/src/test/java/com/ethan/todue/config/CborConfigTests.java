@@ -0,0 +1,66 @@
+package com.ethan.todue.config;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CborConfigTests {
+
+    private static final String EMAIL = "cbor@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void dayViewNegotiatesCbor() throws Exception {
+        new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        LocalDate date = LocalDate.now(ZoneId.of("UTC")).plusDays(5);
+        for (int i = 1; i <= 10; i++) {
+            mockMvc.perform(post("/api/todos").with(user(EMAIL))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"text\":\"Todo " + i + "\",\"assignedDate\":\"" + date + "\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        MvcResult json = mockMvc.perform(get("/api/todos").param("date", date.toString()).with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult cbor = mockMvc.perform(get("/api/todos").param("date", date.toString())
+                        .accept(MediaType.APPLICATION_CBOR).with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // JSON stays the default for clients that don't ask
+        assertThat(json.getResponse().getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(cbor.getResponse().getHeaders("Vary")).contains("Accept");
+        assertThat(cbor.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        assertThat(cbor.getResponse().getContentAsByteArray().length)
+                .isLessThan(json.getResponse().getContentAsByteArray().length);
+        assertThat(new CBORMapper().readTree(cbor.getResponse().getContentAsByteArray()))
+                .isEqualTo(new ObjectMapper().readTree(json.getResponse().getContentAsByteArray()));
+    }
+}
@@ -0,0 +1,104 @@
+package com.ethan.todue.config;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The read/write split against a stand-in replica: app.datasource.read.url opens the same
+ * in-memory database as a user that may only SELECT, so a write routed to the read pool fails
+ * instead of passing unnoticed. Its own database name keeps it apart from the shared test context.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:td_split;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE USER IF NOT EXISTS reader PASSWORD 'reader'\\\\;GRANT SELECT ON SCHEMA public TO reader",
+        "app.datasource.read.url=jdbc:h2:mem:td_split;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "app.datasource.read.username=reader",
+        "app.datasource.read.password=reader"
+})
+class ReadWriteDataSourceConfigTests {
+
+    private static final String EMAIL = "read-write@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransactionsUseTheReadPool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        String reader = readOnly.execute(status -> currentUser());
+        String writer = new TransactionTemplate(transactionManager).execute(status -> currentUser());
+
+        assertThat(reader).isEqualToIgnoringCase("reader");
+        assertThat(writer).isEqualToIgnoringCase("sa");
+        assertThat(currentUser()).isEqualToIgnoringCase("sa");
+        // The stand-in replica refuses writes, which is what the test below relies on
+        assertThatThrownBy(() -> readOnly.execute(status -> jdbcTemplate.update("UPDATE users SET timezone = 'UTC'")))
+                .isInstanceOf(DataAccessException.class);
+    }
+
+    @Test
+    void writesAndRolloverStayOnThePrimary() throws Exception {
+        Long userId = new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        LocalDate today = LocalDate.now(ZoneId.of("UTC"));
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("INSERT INTO todos (user_id, text, assigned_date, instance_date, position, " +
+                "is_completed, is_rolled_over, version, created_at, updated_at) " +
+                "VALUES (?, 'Left over', ?, ?, 1, FALSE, FALSE, 0, ?, ?)", userId,
+                Date.valueOf(today.minusDays(1)), Date.valueOf(today.minusDays(1)), now, now);
+
+        mockMvc.perform(post("/api/todos").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Written\",\"assignedDate\":\"" + today.plusDays(1) + "\"}"))
+                .andExpect(status().isOk());
+
+        // The day view rolls yesterday's todo over on the primary, then reads it back from the replica
+        mockMvc.perform(get("/api/todos").param("date", today.toString()).with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("Left over"));
+        assertThat(jdbcTemplate.queryForObject("SELECT assigned_date FROM todos WHERE user_id = ? AND text = 'Left over'",
+                Date.class, userId)).isEqualTo(Date.valueOf(today));
+
+        // Read-only endpoints are served by the reader
+        mockMvc.perform(get("/api/routines").with(user(EMAIL)))
+                .andExpect(status().isOk());
+    }
+
+    private String currentUser() {
+        return jdbcTemplate.queryForObject("SELECT CURRENT_USER", String.class);
+    }
+}
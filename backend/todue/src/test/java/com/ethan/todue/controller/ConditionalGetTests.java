@@ -0,0 +1,114 @@
+package com.ethan.todue.controller;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConditionalGetTests {
+
+    private static final String EMAIL = "conditional-get@todue.test";
+    private static final String INTRUDER = "conditional-get-intruder@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private LocalDate today;
+
+    @BeforeAll
+    void seedUsers() {
+        today = LocalDate.now(ZoneId.of("UTC"));
+        SyntheticDataSeeder seeder = new SyntheticDataSeeder(jdbcTemplate);
+        seeder.seedUser(EMAIL);
+        seeder.seedUser(INTRUDER);
+    }
+
+    @Test
+    void unchangedDayViewIsNotModified() throws Exception {
+        LocalDate date = today.plusDays(20);
+        createTodo("Before the tag", date);
+        String etag = mockMvc.perform(get("/api/todos").param("date", date.toString()).with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isNotBlank();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        mockMvc.perform(get("/api/todos").param("date", date.toString())
+                        .header("If-None-Match", etag).with(user(EMAIL)))
+                .andExpect(status().isNotModified());
+        // Only the user lookup - the view itself is never rebuilt
+        assertThat(statistics.getPrepareStatementCount()).as("304 SQL statements").isLessThanOrEqualTo(1);
+
+        // A change on that date invalidates the tag
+        createTodo("ETag check", date);
+        mockMvc.perform(get("/api/todos").param("date", date.toString())
+                        .header("If-None-Match", etag).with(user(EMAIL)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void conditionalGetsCheckOwnershipFirst() throws Exception {
+        String routine = mockMvc.perform(post("/api/routines").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Evening\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String list = mockMvc.perform(post("/api/later-lists").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"listName\":\"Someday\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        for (String path : List.of("/api/routines/" + JsonPath.read(routine, "$.id"),
+                "/api/later-lists/" + JsonPath.read(list, "$.id") + "/todos")) {
+            String etag = mockMvc.perform(get(path).with(user(EMAIL)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("ETag");
+            mockMvc.perform(get(path).header("If-None-Match", etag).with(user(EMAIL)))
+                    .andExpect(status().isNotModified());
+            // The owner's tag tells someone else nothing
+            mockMvc.perform(get(path).header("If-None-Match", etag).with(user(INTRUDER)))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private void createTodo(String text, LocalDate date) throws Exception {
+        mockMvc.perform(post("/api/todos").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"" + text + "\",\"assignedDate\":\"" + date + "\"}"))
+                .andExpect(status().isOk());
+    }
+}
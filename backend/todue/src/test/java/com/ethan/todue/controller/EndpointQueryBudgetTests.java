@@ -0,0 +1,318 @@
+package com.ethan.todue.controller;
+
+import com.ethan.todue.service.TodoArchiveService;
+import com.ethan.todue.support.SyntheticDataSeeder;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Performance contracts for the REST API: every endpoint gets an upper bound on the number of
+ * SQL statements it may issue, measured against a synthetic heavy user (see
+ * {@link SyntheticDataSeeder}). A bound that starts failing means an N+1 or similar regression
+ * slipped in - fix the query pattern rather than raising the budget.
+ *
+ * Wall-time ceilings are deliberately generous - several times what a loaded CI machine needs -
+ * so they only catch order-of-magnitude regressions; statement budgets are the precise contract.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryBudgetTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(EndpointQueryBudgetTests.class);
+
+    private static final String EMAIL = "perf-heavy@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TodoArchiveService todoArchiveService;
+
+    private Statistics statistics;
+    private SyntheticDataSeeder.SeededUser seeded;
+    private LocalDate today;
+
+    @BeforeAll
+    void seedAndWarmUp() throws Exception {
+        today = LocalDate.now(ZoneId.of("UTC"));
+        seeded = new SyntheticDataSeeder(jdbcTemplate).seedHeavyUser(EMAIL, today);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        // Exercise the MVC, security and persistence stacks once so the first measured
+        // test doesn't pay for class loading and JIT warm-up
+        mockMvc.perform(get("/api/todos").param("date", today.minusDays(100).toString()).with(user(EMAIL)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/routines").with(user(EMAIL)))
+                .andExpect(status().isOk());
+    }
+
+    // ==================== Todo Endpoints ====================
+
+    @Test
+    void dayViewForToday() throws Exception {
+        // Virtuals need the rules, existing instances and skips once each, however many rules fire
+        assertBudget("GET /api/todos?date=today", 8, 5_000,
+                get("/api/todos").param("date", today.toString()), true);
+    }
+
+    @Test
+    void dayViewForPastDate() throws Exception {
+        assertBudget("GET /api/todos?date=past", 5, 5_000,
+                get("/api/todos").param("date", today.minusDays(30).toString()), true);
+    }
+
+    @Test
+    void weekRangeView() throws Exception {
+        // The same three lookups for the whole range, not per date
+        assertBudget("GET /api/todos?startDate&endDate (week)", 8, 5_000,
+                get("/api/todos")
+                        .param("startDate", today.minusDays(3).toString())
+                        .param("endDate", today.plusDays(3).toString()), true);
+    }
+
+    @Test
+    void createTodoOnFutureDate() throws Exception {
+        assertBudget("POST /api/todos", 8, 5_000,
+                post("/api/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Budget check\",\"assignedDate\":\"" + today.plusDays(30) + "\"}"), false);
+    }
+
+    @Test
+    void completeTodo() throws Exception {
+        Long todoId = seeded.todayTodoIds().get(0);
+        // The renumbering to the end of the day goes out as one batched UPDATE
+        assertBudget("POST /api/todos/{id}/complete", 10, 5_000,
+                post("/api/todos/" + todoId + "/complete"), false);
+    }
+
+    @Test
+    void reorderTodo() throws Exception {
+        Long todoId = seeded.todayTodoIds().get(5);
+        // Known cost: moving among today's virtuals materializes them first, and materializeAllVirtuals
+        // inserts each one (~50 here) on its own - identity keys keep Hibernate from batching inserts
+        assertBudget("PUT /api/todos/{id}/position", 70, 10_000,
+                put("/api/todos/" + todoId + "/position")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"position\":8}"), false);
+    }
+
+    @Test
+    void batchOnOneDate() throws Exception {
+        LocalDate date = today.plusDays(3);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM todos WHERE user_id = ? AND assigned_date = ? ORDER BY position",
+                Long.class, seeded.userId(), java.sql.Date.valueOf(date));
+
+        String operations = "{\"operations\":["
+                + "{\"type\":\"DELETE\",\"id\":" + ids.get(0) + "},"
+                + "{\"type\":\"DELETE\",\"id\":" + ids.get(1) + "},"
+                + "{\"type\":\"DELETE\",\"id\":" + ids.get(2) + "},"
+                + "{\"type\":\"COMPLETE\",\"id\":" + ids.get(3) + "},"
+                + "{\"type\":\"CREATE\",\"text\":\"Batch check\",\"assignedDate\":\"" + date + "\"}"
+                + "]}";
+        assertBudget("POST /api/todos/batch (5 ops, one date)", 25, 5_000,
+                post("/api/todos/batch").contentType(MediaType.APPLICATION_JSON).content(operations), false);
+    }
+
+    @Test
+    void archivedDayView() throws Exception {
+        todoArchiveService.archiveCompletedBefore(today.minusDays(200));
+        assertBudget("GET /api/todos?date=archived", 5, 5_000,
+                get("/api/todos").param("date", today.minusDays(300).toString()), true);
+    }
+
+    // ==================== Search Endpoint ====================
+
+    @Test
+    void searchWithThousandsOfHits() throws Exception {
+        // The warm-up call builds the index; measured calls only load the user and the hits
+        MvcResult many = assertBudget("GET /api/search?q (thousands of hits)", 4, 5_000,
+                get("/api/search").param("q", "past"), true);
+        String body = many.getResponse().getContentAsString();
+        Integer pastTodos = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM todos WHERE user_id = ? AND text LIKE 'Past todo%') + " +
+                "(SELECT COUNT(*) FROM archived_todos WHERE user_id = ? AND text LIKE 'Past todo%')",
+                Integer.class, seeded.userId(), seeded.userId());
+        assertThat((Integer) JsonPath.read(body, "$.todoMatches")).isEqualTo(pastTodos);
+        List<String> dates = JsonPath.read(body, "$.todos[*].assignedDate");
+        assertThat(dates).hasSize(50).isSortedAccordingTo(java.util.Comparator.reverseOrder());
+    }
+
+    // ==================== Stats Endpoint ====================
+
+    @Test
+    void statsForFiveYears() throws Exception {
+        Integer completedTodos = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM todos WHERE user_id = ? AND is_completed = TRUE AND completed_at IS NOT NULL) + " +
+                "(SELECT COUNT(*) FROM archived_todos WHERE user_id = ? AND completed_at IS NOT NULL)",
+                Integer.class, seeded.userId(), seeded.userId());
+
+        // The warm-up call rebuilds the counters from history; measured calls are one index scan
+        MvcResult years = assertBudget("GET /api/stats (five years)", 2, 5_000,
+                get("/api/stats")
+                        .param("startDate", today.minusYears(5).toString())
+                        .param("endDate", today.toString()), true);
+        assertThat((Integer) JsonPath.read(years.getResponse().getContentAsString(), "$.totals.completed"))
+                .isEqualTo(completedTodos);
+    }
+
+    // ==================== Later List Endpoints ====================
+
+    @Test
+    void allLaterLists() throws Exception {
+        assertBudget("GET /api/later-lists", 4, 5_000, get("/api/later-lists"), true);
+    }
+
+    @Test
+    void laterListTodos() throws Exception {
+        Long listId = seeded.laterListIds().get(0);
+        assertBudget("GET /api/later-lists/{id}/todos", 5, 5_000,
+                get("/api/later-lists/" + listId + "/todos"), true);
+    }
+
+    @Test
+    void createLaterListTodo() throws Exception {
+        Long listId = seeded.laterListIds().get(1);
+        assertBudget("POST /api/later-lists/{id}/todos", 8, 5_000,
+                post("/api/later-lists/" + listId + "/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Budget check\"}"), false);
+    }
+
+    @Test
+    void completeLaterListTodo() throws Exception {
+        Long listId = seeded.laterListIds().get(2);
+        Long todoId = jdbcTemplate.queryForObject(
+                "SELECT id FROM later_list_todos WHERE list_id = ? ORDER BY position LIMIT 1", Long.class, listId);
+        // The renumbering of the list goes out as one batched UPDATE
+        assertBudget("POST /api/later-lists/{listId}/todos/{id}/complete", 10, 5_000,
+                post("/api/later-lists/" + listId + "/todos/" + todoId + "/complete"), false);
+    }
+
+    // ==================== Routine Endpoints ====================
+
+    @Test
+    void allRoutines() throws Exception {
+        assertBudget("GET /api/routines", 4, 5_000, get("/api/routines"), true);
+    }
+
+    @Test
+    void routineDetail() throws Exception {
+        Long routineId = seeded.routineIds().get(0);
+        assertBudget("GET /api/routines/{id}", 8, 5_000, get("/api/routines/" + routineId), true);
+    }
+
+    @Test
+    void pendingPrompts() throws Exception {
+        // Dismissed and completed routines come from one query each, not one per scheduled routine
+        assertBudget("GET /api/routines/prompts/pending", 4, 5_000, get("/api/routines/prompts/pending"), true);
+    }
+
+    @Test
+    void monthOfRoutineAnalytics() throws Exception {
+        Long routineId = seeded.routineIds().get(1);
+        // Step counts for the whole range come from one grouped query, not one per step and run
+        assertBudget("GET /api/routines/{id}/analytics (month)", 6, 5_000,
+                get("/api/routines/" + routineId + "/analytics")
+                        .param("startDate", today.minusDays(30).toString())
+                        .param("endDate", today.toString()), true);
+    }
+
+    @Test
+    void monthOfRoutineHistory() throws Exception {
+        Long routineId = seeded.routineIds().get(2);
+        // Step counts for every run come from one grouped query
+        assertBudget("GET /api/routines/{id}/history (month)", 4, 5_000,
+                get("/api/routines/" + routineId + "/history")
+                        .param("startDate", today.minusDays(30).toString())
+                        .param("endDate", today.toString()), true);
+    }
+
+    @Test
+    void quickCompleteRoutine() throws Exception {
+        Long routineId = seeded.routineIds().get(3);
+        // Known cost: quickCompleteRoutine inserts one step completion per step (identity keys, no batching)
+        assertBudget("POST /api/routines/{id}/quick-complete", 20, 5_000,
+                post("/api/routines/" + routineId + "/quick-complete"), false);
+    }
+
+    // ==================== Sync Endpoint ====================
+
+    @Test
+    void syncAfterOneEdit() throws Exception {
+        MvcResult bootstrap = mockMvc.perform(get("/api/sync").with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andReturn();
+        long cursor = ((Number) JsonPath.read(bootstrap.getResponse().getContentAsString(), "$.cursor")).longValue();
+        mockMvc.perform(post("/api/todos").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Sync check\",\"assignedDate\":\"" + today.plusDays(40) + "\"}"))
+                .andExpect(status().isOk());
+
+        // User, log bounds, the changed entries, then the date's rows, rules, instances and skips
+        assertBudget("GET /api/sync?since (one edit)", 8, 5_000,
+                get("/api/sync").param("since", Long.toString(cursor)), false);
+    }
+
+    // ==================== Helpers ====================
+
+    /**
+     * Runs the request as the seeded user and asserts its statement and wall-time budgets.
+     * Idempotent reads get one unmeasured warm-up call first so the budget reflects steady state.
+     */
+    private MvcResult assertBudget(String label, long maxStatements, long maxMillis,
+                                   MockHttpServletRequestBuilder request, boolean warmUp) throws Exception {
+        request.with(user(EMAIL));
+        if (warmUp) {
+            mockMvc.perform(request).andExpect(status().isOk());
+        }
+
+        statistics.clear();
+        long start = System.nanoTime();
+        MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long statements = statistics.getPrepareStatementCount();
+
+        logger.info(String.format("[query-budget] %-55s %5d statements (max %5d) %5d ms (max %5d)",
+                label, statements, maxStatements, elapsedMillis, maxMillis));
+
+        assertThat(statements).as("%s SQL statements", label).isLessThanOrEqualTo(maxStatements);
+        assertThat(elapsedMillis).as("%s wall time (ms)", label).isLessThanOrEqualTo(maxMillis);
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+package com.ethan.todue.controller;
+
+import com.ethan.todue.security.CustomUserDetailsService;
+import com.ethan.todue.support.SyntheticDataSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OpsControllerTests {
+
+    private static final String EMAIL = "ops@todue.test";
+
+    private static final List<String> ENDPOINTS = List.of("/api/ops/mutations", "/api/ops/janitor",
+            "/api/ops/search", "/api/ops/cache", "/api/ops/cluster", "/api/ops/websocket");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Test
+    void opsCountersNeedTheOpsRole() throws Exception {
+        for (String endpoint : ENDPOINTS) {
+            mockMvc.perform(get(endpoint).with(user(EMAIL)))
+                    .andExpect(status().isForbidden());
+            mockMvc.perform(get(endpoint).with(user(EMAIL).roles("OPS")))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/ops/mutations").with(user(EMAIL).roles("OPS")))
+                .andExpect(jsonPath("$.sequenced").isNumber());
+    }
+
+    @Test
+    void opsRoleComesFromTheAdminEmails() {
+        new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        assertThat(customUserDetailsService.loadUserByUsername(EMAIL).getAuthorities()).isEmpty();
+
+        Object configured = ReflectionTestUtils.getField(customUserDetailsService, "opsAdminEmails");
+        ReflectionTestUtils.setField(customUserDetailsService, "opsAdminEmails", Set.of(EMAIL));
+        try {
+            assertThat(customUserDetailsService.loadUserByUsername(EMAIL).getAuthorities())
+                    .extracting(GrantedAuthority::getAuthority)
+                    .containsExactly("ROLE_OPS");
+        } finally {
+            ReflectionTestUtils.setField(customUserDetailsService, "opsAdminEmails", configured);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ethan.todue.controller;
+
+import com.ethan.todue.model.Todo;
+import com.ethan.todue.support.SyntheticDataSeeder;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TodoBatchTests {
+
+    private static final String EMAIL = "todo-batch@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void batchClearsADayWithOneRenumber() throws Exception {
+        Long userId = new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        LocalDate date = LocalDate.now(ZoneId.of("UTC")).plusDays(3);
+        List<Number> ids = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            String created = mockMvc.perform(post("/api/todos").with(user(EMAIL))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"text\":\"Todo " + i + "\",\"assignedDate\":\"" + date + "\"}"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            ids.add(JsonPath.read(created, "$.id"));
+        }
+
+        String operations = "{\"operations\":["
+                + "{\"type\":\"DELETE\",\"id\":" + ids.get(0) + "},"
+                + "{\"type\":\"DELETE\",\"id\":" + ids.get(1) + "},"
+                + "{\"type\":\"DELETE\",\"id\":" + ids.get(2) + "},"
+                + "{\"type\":\"COMPLETE\",\"id\":" + ids.get(3) + "},"
+                + "{\"type\":\"CREATE\",\"text\":\"Batch check\",\"assignedDate\":\"" + date + "\"}"
+                + "]}";
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        mockMvc.perform(post("/api/todos/batch").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(operations))
+                .andExpect(status().isOk());
+        // Deletes leave their gaps to the end of the batch, so each todo left is written once
+        assertThat(statistics.getEntityStatistics(Todo.class.getName()).getUpdateCount()).isEqualTo(2);
+
+        List<String> texts = jdbcTemplate.queryForList(
+                "SELECT text FROM todos WHERE user_id = ? AND assigned_date = ? ORDER BY position",
+                String.class, userId, Date.valueOf(date));
+        List<Integer> positions = jdbcTemplate.queryForList(
+                "SELECT position FROM todos WHERE user_id = ? AND assigned_date = ? ORDER BY position",
+                Integer.class, userId, Date.valueOf(date));
+        // Completing sinks the todo below the open ones, as it does outside a batch
+        assertThat(texts).containsExactly("Todo 5", "Todo 4", "Batch check");
+        assertThat(positions).containsExactly(1, 2, 3);
+    }
+}
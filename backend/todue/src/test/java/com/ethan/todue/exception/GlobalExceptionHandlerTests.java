@@ -0,0 +1,75 @@
+package com.ethan.todue.exception;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import com.ethan.todue.util.UserMutationSequencer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class GlobalExceptionHandlerTests {
+
+    private static final String EMAIL = "user-busy@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void busyUserGetsServiceUnavailableWithRetryAfter() throws Exception {
+        Long userId = new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // An earlier write of the same user that doesn't finish in time
+        CompletableFuture<Boolean> earlier = CompletableFuture.supplyAsync(() -> UserMutationSequencer.run(EMAIL, () -> {
+            holding.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ReflectionTestUtils.setField(UserMutationSequencer.class, "maxWaitSeconds", 1L);
+        try {
+            mockMvc.perform(post("/api/todos").with(user(EMAIL))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"text\":\"Queued\",\"assignedDate\":\"" + LocalDate.now(ZoneId.of("UTC")) + "\"}"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(jsonPath("$.message").isString());
+        } finally {
+            ReflectionTestUtils.setField(UserMutationSequencer.class, "maxWaitSeconds", 10L);
+            release.countDown();
+        }
+        assertThat(earlier.get(5, TimeUnit.SECONDS)).isTrue();
+        // Nothing was changed, so the client can simply retry
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos WHERE user_id = ?",
+                Integer.class, userId)).isZero();
+    }
+}
@@ -0,0 +1,482 @@
+package com.ethan.todue.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulated users against a running instance, making the same REST calls and STOMP
+ * subscription the web client makes. Every user is signed in on a few devices at once, each
+ * with its own STOMP session on /user/{id}/queue/updates: one device acts, and every device refetches
+ * today's view when a TODOS_CHANGED for today (or a RECURRING_CHANGED) arrives, revalidating
+ * with the ETag it last saw like the client does.
+ *
+ * The acting device loops until the deadline with a randomized think time between actions:
+ * load today, complete or uncomplete, reorder, add a todo, open a routine, run a routine step by
+ * step or quick-complete it, open later lists and load the week. A warm-up period of the same
+ * load runs first and is left out of the report.
+ *
+ * Reported per operation are the count, errors (anything but 2xx/304, or an I/O failure) and
+ * latency percentiles. Deadlock retries come from the instance's /api/ops/mutations counters
+ * over the run (readable when the first user is in app.ops.admin-emails), so they include
+ * anything else the instance did meanwhile. WebSocket fan-out
+ * delay is from the server creating a notification (its timestamp, on the same clock when the
+ * instance is local) to a device receiving it, commit included.
+ */
+public class LoadGenerator {
+
+    /**
+     * A seeded account and the ids its actions address. Seeded users are on UTC.
+     */
+    public record VirtualUser(Long userId, String token, List<Long> todayTodoIds, List<Long> routineIds) {}
+
+    public record Result(long requests, long errors, long notifications, String report) {}
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final Duration warmUp;
+    private final Duration duration;
+    private final Duration thinkTime;
+    private final int devices;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<String, Operation> operations = new ConcurrentSkipListMap<>();
+    private final Latencies fanOut = new Latencies();
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder connectFailures = new LongAdder();
+    private volatile boolean recording;
+
+    public LoadGenerator(String baseUrl, Duration warmUp, Duration duration, Duration thinkTime, int devices) {
+        this.baseUrl = baseUrl;
+        this.warmUp = warmUp;
+        this.duration = duration;
+        this.thinkTime = thinkTime;
+        this.devices = devices;
+    }
+
+    public Result run(List<VirtualUser> users) throws InterruptedException {
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+
+        // Everyone connects before the clock starts, so fan-out isn't skewed by late subscribers
+        List<StompSession> sessions = Collections.synchronizedList(new ArrayList<>());
+        List<Device> actors = new ArrayList<>();
+        for (VirtualUser user : users) {
+            for (int i = 0; i < devices; i++) {
+                Device device = new Device(user);
+                StompSession session = device.connect(stompClient);
+                if (session != null) {
+                    sessions.add(session);
+                }
+                if (i == 0) {
+                    actors.add(device);
+                }
+            }
+        }
+
+        // The same load unrecorded first, so class loading, JIT and cold caches stay out of the numbers
+        drive(actors, warmUp);
+        recording = true;
+        JsonNode opsBefore = opsCounters(users.get(0));
+        long start = System.nanoTime();
+        drive(actors, duration);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Let the last notifications and their refetches land
+        Thread.sleep(1_000);
+        for (StompSession session : sessions) {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        }
+        stompClient.stop();
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+
+        JsonNode opsAfter = opsCounters(users.get(0));
+        return result(users.size(), seconds, opsBefore, opsAfter);
+    }
+
+    private void drive(List<Device> actors, Duration period) throws InterruptedException {
+        Instant deadline = Instant.now().plus(period);
+        List<Future<?>> running = new ArrayList<>();
+        for (Device actor : actors) {
+            running.add(executor.submit(() -> actor.act(deadline)));
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                System.err.println("[load] virtual user failed: " + e.getCause());
+            }
+        }
+    }
+
+    // ==================== Devices ====================
+
+    private final class Device {
+
+        private final VirtualUser user;
+        private final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        private final AtomicInteger refetchesPending = new AtomicInteger();
+        private final List<Long> routines;
+        // Each routine is run at most once today, as a real user would
+        private final Deque<Long> unrunRoutines;
+        private final Set<Long> completedTodos = new HashSet<>();
+        private volatile String todayETag;
+
+        Device(VirtualUser user) {
+            this.user = user;
+            this.routines = new ArrayList<>(user.routineIds());
+            Collections.shuffle(routines);
+            this.unrunRoutines = new ArrayDeque<>(routines);
+        }
+
+        StompSession connect(WebSocketStompClient stompClient) {
+            String url = baseUrl + "/ws?token=" + user.token();
+            try {
+                StompSession session = stompClient.connectAsync(url, new WebSocketHttpHeaders(), new StompSessionHandlerAdapter() {})
+                        .get(10, TimeUnit.SECONDS);
+                session.subscribe("/user/" + user.userId() + "/queue/updates", new StompFrameHandler() {
+                    @Override
+                    public Type getPayloadType(StompHeaders headers) {
+                        return JsonNode.class;
+                    }
+
+                    @Override
+                    public void handleFrame(StompHeaders headers, Object payload) {
+                        onUpdate((JsonNode) payload);
+                    }
+                });
+                return session;
+            } catch (Exception e) {
+                connectFailures.increment();
+                System.err.println("[load] STOMP connect failed: " + e);
+                return null;
+            }
+        }
+
+        private void onUpdate(JsonNode message) {
+            if (recording) {
+                notifications.increment();
+            }
+            if (recording && message.hasNonNull("timestamp")) {
+                Instant sent = Instant.parse(message.get("timestamp").asText());
+                fanOut.record(Duration.between(sent, Instant.now()).toNanos());
+            }
+            String type = message.path("type").asText();
+            boolean todayChanged = "TODOS_CHANGED".equals(type)
+                    && today.toString().equals(message.path("data").path("date").asText());
+            if (todayChanged || "RECURRING_CHANGED".equals(type)) {
+                requestRefetch();
+            }
+        }
+
+        // A burst of notifications costs at most one refetch in flight plus one queued behind it
+        private void requestRefetch() {
+            if (refetchesPending.getAndIncrement() == 0) {
+                executor.execute(() -> {
+                    do {
+                        refetchesPending.set(1);
+                        loadToday("GET /api/todos?date (refetch)");
+                    } while (refetchesPending.decrementAndGet() > 0);
+                });
+            }
+        }
+
+        private void loadToday(String operation) {
+            HttpRequest.Builder request = request("/api/todos?date=" + today).GET();
+            String etag = todayETag;
+            if (etag != null) {
+                request.header("If-None-Match", etag);
+            }
+            HttpResponse<byte[]> response = send(operation, false, request.build());
+            if (response != null) {
+                response.headers().firstValue("ETag").ifPresent(value -> todayETag = value);
+            }
+        }
+
+        void act(Instant deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Long> todos = user.todayTodoIds();
+
+            while (Instant.now().isBefore(deadline)) {
+                int roll = random.nextInt(100);
+                Long todoId = todos.get(random.nextInt(todos.size()));
+                if (roll < 25) {
+                    loadToday("GET /api/todos?date");
+                } else if (roll < 50) {
+                    boolean complete = completedTodos.add(todoId);
+                    if (!complete) {
+                        completedTodos.remove(todoId);
+                    }
+                    String action = complete ? "complete" : "uncomplete";
+                    send("POST /api/todos/{id}/" + action, true,
+                            request("/api/todos/" + todoId + "/" + action).POST(HttpRequest.BodyPublishers.noBody()).build());
+                } else if (roll < 65) {
+                    send("PUT /api/todos/{id}/position", true, request("/api/todos/" + todoId + "/position")
+                            .PUT(json(Map.of("position", random.nextInt(todos.size())))).build());
+                } else if (roll < 70) {
+                    send("POST /api/todos", true, request("/api/todos")
+                            .POST(json(Map.of("text", "Load test " + random.nextInt(1_000_000), "assignedDate", today.toString())))
+                            .build());
+                } else if (roll < 80) {
+                    Long routineId = routines.get(random.nextInt(routines.size()));
+                    send("GET /api/routines/{id}", false, request("/api/routines/" + routineId).GET().build());
+                } else if (roll < 85 && !unrunRoutines.isEmpty()) {
+                    runRoutine(unrunRoutines.pop(), random);
+                } else if (roll < 95) {
+                    send("GET /api/later-lists", false, request("/api/later-lists").GET().build());
+                } else {
+                    send("GET /api/todos?startDate&endDate", false, request("/api/todos?startDate=" + today
+                            + "&endDate=" + today.plusDays(6)).GET().build());
+                }
+                think(random);
+            }
+        }
+
+        private void runRoutine(Long routineId, ThreadLocalRandom random) {
+            if (random.nextBoolean()) {
+                send("POST /api/routines/{id}/quick-complete", true, request("/api/routines/" + routineId + "/quick-complete")
+                        .POST(HttpRequest.BodyPublishers.noBody()).build());
+                return;
+            }
+            HttpResponse<byte[]> started = send("POST /api/routines/{id}/start", true,
+                    request("/api/routines/" + routineId + "/start").POST(HttpRequest.BodyPublishers.noBody()).build());
+            JsonNode execution = parse(started);
+            if (execution == null) {
+                return;
+            }
+            long completionId = execution.get("id").asLong();
+            for (JsonNode step : execution.path("stepCompletions")) {
+                think(random);
+                String action = random.nextInt(5) == 0 ? "skip" : "complete";
+                send("POST /api/routines/executions/{id}/steps/{stepId}", true,
+                        request("/api/routines/executions/" + completionId + "/steps/" + step.get("stepId").asLong())
+                                .POST(json(Map.of("action", action))).build());
+            }
+            send("POST /api/routines/executions/{id}/finish", true, request("/api/routines/executions/" + completionId + "/finish")
+                    .POST(HttpRequest.BodyPublishers.noBody()).build());
+        }
+
+        private HttpRequest.Builder request(String path) {
+            return LoadGenerator.this.request(user, path);
+        }
+    }
+
+    // ==================== HTTP ====================
+
+    private HttpRequest.Builder request(VirtualUser user, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + user.token())
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Sends and records the request; null when it failed (and was counted as an error).
+     */
+    private HttpResponse<byte[]> send(String operation, boolean mutation, HttpRequest request) {
+        Operation stats = recording ? operations.computeIfAbsent(operation, name -> new Operation(mutation)) : UNRECORDED;
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            stats.latencies.record(System.nanoTime() - start);
+            int status = response.statusCode();
+            if (status == 409) {
+                stats.conflicts.increment();
+            }
+            if ((status < 200 || status >= 300) && status != 304) {
+                stats.errors.increment();
+                return null;
+            }
+            return response;
+        } catch (IOException e) {
+            stats.latencies.record(System.nanoTime() - start);
+            stats.errors.increment();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private JsonNode parse(HttpResponse<byte[]> response) {
+        if (response == null || response.body().length == 0) {
+            return null;
+        }
+        try {
+            return mapper.readTree(response.body());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private JsonNode opsCounters(VirtualUser user) {
+        try {
+            HttpResponse<byte[]> response = http.send(request(user, "/api/ops/mutations").GET().build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            return response.statusCode() == 200 ? mapper.readTree(response.body()) : mapper.createObjectNode();
+        } catch (IOException e) {
+            return mapper.createObjectNode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return mapper.createObjectNode();
+        }
+    }
+
+    private void think(ThreadLocalRandom random) {
+        long millis = thinkTime.toMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis / 2 + random.nextLong(millis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== Report ====================
+
+    private Result result(int users, double seconds, JsonNode opsBefore, JsonNode opsAfter) {
+        StringBuilder report = new StringBuilder();
+        long requests = 0;
+        long errors = 0;
+        long conflicts = 0;
+        long mutations = 0;
+        for (Operation operation : operations.values()) {
+            requests += operation.latencies.count();
+            errors += operation.errors.sum();
+            conflicts += operation.conflicts.sum();
+            if (operation.mutation) {
+                mutations += operation.latencies.count();
+            }
+        }
+
+        report.append(String.format("[load] %d users x %d devices for %.0f s against %s%n", users, devices, seconds, baseUrl));
+        report.append(String.format("[load] %d requests (%.1f/s), errors %d (%.2f%%), of which 409 %d%n",
+                requests, requests / seconds, errors, percent(errors, requests), conflicts));
+        report.append(String.format("[load] %-52s %7s %6s %8s %8s %8s %8s%n", "operation (ms)", "count", "err", "p50", "p95", "p99", "max"));
+        operations.forEach((name, operation) -> report.append(String.format("[load] %-52s %7d %6d %s%n",
+                name, operation.latencies.count(), operation.errors.sum(), operation.latencies.percentiles())));
+
+        long retries = delta(opsBefore, opsAfter, "lockRetries");
+        long exhausted = delta(opsBefore, opsAfter, "lockRetriesExhausted");
+        report.append(String.format("[load] deadlock retries %d (%.2f%% of %d mutations), exhausted %d, sequencer waits %d%n",
+                retries, percent(retries, mutations), mutations, exhausted, delta(opsBefore, opsAfter, "waited")));
+        report.append(String.format("[load] %-52s %7d %6d %s%n", "websocket fan-out (ms)",
+                fanOut.count(), connectFailures.sum(), fanOut.percentiles()));
+
+        return new Result(requests, errors, notifications.sum(), report.toString());
+    }
+
+    private static long delta(JsonNode before, JsonNode after, String field) {
+        return after.path(field).asLong() - before.path(field).asLong();
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+
+    // Sink for warm-up requests
+    private static final Operation UNRECORDED = new Operation(false);
+
+    private static final class Operation {
+        final boolean mutation;
+        final Latencies latencies = new Latencies();
+        final LongAdder errors = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+
+        Operation(boolean mutation) {
+            this.mutation = mutation;
+        }
+    }
+
+    /**
+     * Every sample kept (a run is minutes, not hours), sorted once for the report.
+     */
+    private static final class Latencies {
+        private long[] nanos = new long[1024];
+        private int count;
+
+        synchronized void record(long value) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = value;
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized String percentiles() {
+            if (count == 0) {
+                return String.format("%8s %8s %8s %8s", "-", "-", "-", "-");
+            }
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return String.format("%8.1f %8.1f %8.1f %8.1f",
+                    at(sorted, 0.50), at(sorted, 0.95), at(sorted, 0.99), sorted[count - 1] / 1e6);
+        }
+
+        private static double at(long[] sorted, double quantile) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
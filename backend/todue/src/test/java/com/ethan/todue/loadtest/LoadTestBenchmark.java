@@ -0,0 +1,108 @@
+package com.ethan.todue.loadtest;
+
+import com.ethan.todue.security.CustomUserDetailsService;
+import com.ethan.todue.security.JwtUtil;
+import com.ethan.todue.support.SyntheticDataSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent users over REST and STOMP (see {@link LoadGenerator}) against an instance started
+ * on a local port, with production's Tomcat and Hikari limits. Seeds every user with a heavy
+ * data set first. Offline by default: the instance runs in-process on the embedded H2 database.
+ * Run on demand with:
+ *
+ *   mvn test -Dtest=LoadTestBenchmark -Dloadtest.users=20 -Dloadtest.duration-seconds=60
+ *
+ * Other knobs: loadtest.warm-up-seconds, loadtest.devices (STOMP sessions per user),
+ * loadtest.think-ms (mean pause between actions) and loadtest.tomcat-threads /
+ * max-connections / accept-count / pool-size.
+ *
+ * To load an instance started separately (e.g. with the prod profile against a local MySQL),
+ * point loadtest.base-url at it and spring.datasource.url/username/password plus jwt.secret at
+ * the same database and secret so seeded users and tokens are valid there. Also pass
+ * -Dspring.jpa.hibernate.ddl-auto=none, or this test's context drops the schema on exit.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=${loadtest.tomcat-threads:20}",
+        "server.tomcat.max-connections=${loadtest.max-connections:50}",
+        "server.tomcat.accept-count=${loadtest.accept-count:10}",
+        "spring.datasource.hikari.maximum-pool-size=${loadtest.pool-size:5}",
+        "logging.level.com.ethan.todue=WARN"
+})
+@ActiveProfiles("test")
+class LoadTestBenchmark {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Value("${loadtest.base-url:}")
+    private String baseUrl;
+
+    @Value("${loadtest.users:10}")
+    private int users;
+
+    @Value("${loadtest.devices:2}")
+    private int devices;
+
+    @Value("${loadtest.warm-up-seconds:10}")
+    private int warmUpSeconds;
+
+    @Value("${loadtest.duration-seconds:30}")
+    private int durationSeconds;
+
+    @Value("${loadtest.think-ms:500}")
+    private long thinkMillis;
+
+    @Test
+    void concurrentUsers() throws Exception {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        SyntheticDataSeeder seeder = new SyntheticDataSeeder(jdbcTemplate);
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        List<LoadGenerator.VirtualUser> virtualUsers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            SyntheticDataSeeder.SeededUser seeded = seeder.seedHeavyUser("load-" + run + "-" + i + "@todue.test", today);
+            virtualUsers.add(new LoadGenerator.VirtualUser(seeded.userId(),
+                    jwtUtil.generateToken(seeded.email()), seeded.todayTodoIds(), seeded.routineIds()));
+        }
+
+        if (baseUrl.isEmpty()) {
+            // The generator reads the /api/ops counters as the first user
+            ReflectionTestUtils.setField(customUserDetailsService, "opsAdminEmails",
+                    Set.of("load-" + run + "-0@todue.test"));
+        }
+
+        String target = baseUrl.isEmpty() ? "http://localhost:" + port : baseUrl;
+        LoadGenerator.Result result = new LoadGenerator(target, Duration.ofSeconds(warmUpSeconds), Duration.ofSeconds(durationSeconds),
+                Duration.ofMillis(thinkMillis), devices).run(virtualUsers);
+        System.out.print(result.report());
+
+        assertThat(result.requests()).isPositive();
+        assertThat(result.notifications()).isPositive();
+    }
+}
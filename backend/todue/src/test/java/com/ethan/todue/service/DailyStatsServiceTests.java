@@ -0,0 +1,93 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DailyStatsServiceTests {
+
+    private static final String EMAIL = "daily-stats@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void statsBackfillThenFollowCompletions() throws Exception {
+        LocalDate today = LocalDate.now(ZoneId.of("UTC"));
+        Long userId = new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        Timestamp now = Timestamp.from(Instant.now());
+
+        // History from before the counters existed: completed todos over the years and a routine run
+        for (int daysAgo : List.of(10, 20, 400)) {
+            LocalDate date = today.minusDays(daysAgo);
+            jdbcTemplate.update("INSERT INTO todos (user_id, text, assigned_date, instance_date, position, " +
+                    "is_completed, completed_at, is_rolled_over, version, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, 1, TRUE, ?, FALSE, 0, ?, ?)", userId, "Done " + daysAgo, Date.valueOf(date),
+                    Date.valueOf(date), Timestamp.from(date.atTime(9, 0).toInstant(ZoneOffset.UTC)), now, now);
+        }
+        jdbcTemplate.update("INSERT INTO routines (user_id, name, created_at, updated_at) VALUES (?, 'Stats', ?, ?)", userId, now, now);
+        Long routineId = jdbcTemplate.queryForObject("SELECT id FROM routines WHERE user_id = ?", Long.class, userId);
+        Timestamp ranAt = Timestamp.from(today.minusDays(3).atTime(7, 0).toInstant(ZoneOffset.UTC));
+        jdbcTemplate.update("INSERT INTO routine_completions (routine_id, user_id, date, started_at, completed_at, status, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, 'COMPLETED', ?, ?)", routineId, userId, Date.valueOf(today.minusDays(3)), ranAt, ranAt, now, now);
+
+        // The first call rebuilds the counters from history
+        stats(today).andExpect(jsonPath("$.totals.completed").value(3))
+                .andExpect(jsonPath("$.totals.routinesCompleted").value(1))
+                .andExpect(jsonPath("$.weeks.length()").value(greaterThanOrEqualTo(5 * 52)));
+
+        String created = mockMvc.perform(post("/api/todos").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Stats check\",\"assignedDate\":\"" + today.plusDays(2) + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Number todoId = JsonPath.read(created, "$.id");
+        mockMvc.perform(post("/api/todos/" + todoId + "/complete").with(user(EMAIL))).andExpect(status().isOk());
+        mockMvc.perform(post("/api/todos/" + todoId + "/uncomplete").with(user(EMAIL))).andExpect(status().isOk());
+        mockMvc.perform(post("/api/todos/" + todoId + "/complete").with(user(EMAIL))).andExpect(status().isOk());
+        stats(today).andExpect(jsonPath("$.totals.completed").value(4))
+                .andExpect(jsonPath("$.days[-1].date").value(today.toString()));
+
+        // Deleting the completed todo takes its completion back out
+        mockMvc.perform(delete("/api/todos/" + todoId).with(user(EMAIL))).andExpect(status().isOk());
+        stats(today).andExpect(jsonPath("$.totals.completed").value(3));
+    }
+
+    private ResultActions stats(LocalDate today) throws Exception {
+        return mockMvc.perform(get("/api/stats")
+                        .param("startDate", today.minusYears(5).toString())
+                        .param("endDate", today.toString())
+                        .with(user(EMAIL)))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,81 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EntityCacheServiceTests {
+
+    private static final String EMAIL = "entity-cache@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    @Test
+    void routineDetailIsServedFromSecondLevelCache() throws Exception {
+        Long userId = new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("INSERT INTO routines (user_id, name, created_at, updated_at) VALUES (?, 'Morning', ?, ?)", userId, now, now);
+        Long routineId = jdbcTemplate.queryForObject("SELECT id FROM routines WHERE user_id = ?", Long.class, userId);
+        for (int position = 1; position <= 3; position++) {
+            jdbcTemplate.update("INSERT INTO routine_steps (routine_id, text, position, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                    routineId, "Step " + position, position, now, now);
+        }
+        for (int day = 0; day < 7; day++) {
+            jdbcTemplate.update("INSERT INTO routine_schedules (routine_id, day_of_week, created_at, updated_at) VALUES (?, ?, ?, ?)",
+                    routineId, day, now, now);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        mockMvc.perform(get("/api/routines/" + routineId).with(user(EMAIL))).andExpect(status().isOk());
+        long hits = ((Number) entityCacheService.getStats().get("hits")).longValue();
+        statistics.clear();
+        mockMvc.perform(get("/api/routines/" + routineId).with(user(EMAIL))).andExpect(status().isOk());
+        // Routine, steps and schedules all come from the cache; only the user is loaded
+        assertThat(statistics.getPrepareStatementCount()).as("cached routine detail SQL statements").isLessThanOrEqualTo(2);
+        assertThat(((Number) entityCacheService.getStats().get("hits")).longValue()).isGreaterThan(hits);
+
+        // A write through the entity invalidates what the next read would otherwise serve stale
+        Long stepId = jdbcTemplate.queryForObject(
+                "SELECT id FROM routine_steps WHERE routine_id = ? ORDER BY position LIMIT 1", Long.class, routineId);
+        mockMvc.perform(put("/api/routines/" + routineId + "/steps/" + stepId + "/text").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Stretch first\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/routines/" + routineId).with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.steps[0].text").value("Stretch first"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JanitorServiceTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JanitorService janitorService;
+
+    @Test
+    void janitorCleansOnlyExpiredRows() {
+        LocalDate today = LocalDate.now(ZoneId.of("UTC"));
+        Long userId = new SyntheticDataSeeder(jdbcTemplate).seedUser("janitor@todue.test");
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp longAgo = Timestamp.from(Instant.now().minus(Duration.ofDays(60)));
+        Timestamp soon = Timestamp.from(Instant.now().plus(Duration.ofHours(1)));
+        jdbcTemplate.update("INSERT INTO routines (user_id, name, created_at, updated_at) VALUES (?, 'Janitor', ?, ?)", userId, now, now);
+        Long routineId = jdbcTemplate.queryForObject("SELECT id FROM routines WHERE user_id = ?", Long.class, userId);
+
+        jdbcTemplate.update("INSERT INTO password_reset_tokens (user_id, token, expires_at, created_at) VALUES (?, 'janitor-expired', ?, ?)", userId, longAgo, longAgo);
+        jdbcTemplate.update("INSERT INTO password_reset_tokens (user_id, token, expires_at, created_at) VALUES (?, 'janitor-live', ?, ?)", userId, soon, now);
+        jdbcTemplate.update("INSERT INTO routine_prompt_dismissals (user_id, routine_id, dismissed_date, created_at) VALUES (?, ?, ?, ?)",
+                userId, routineId, Date.valueOf(today.minusDays(10)), now);
+        jdbcTemplate.update("INSERT INTO routine_prompt_dismissals (user_id, routine_id, dismissed_date, created_at) VALUES (?, ?, ?, ?)",
+                userId, routineId, Date.valueOf(today), now);
+        jdbcTemplate.update("INSERT INTO routine_completions (routine_id, user_id, date, started_at, status, created_at, updated_at) VALUES (?, ?, ?, ?, 'IN_PROGRESS', ?, ?)",
+                routineId, userId, Date.valueOf(today.minusDays(400)), longAgo, longAgo, longAgo);
+        // Seq -2 is entirely old and goes; seq -1 has a recent row and stays whole
+        jdbcTemplate.update("INSERT INTO change_log (user_id, seq, scope, created_at) VALUES (?, -2, 'ALL', ?), (?, -2, 'ALL', ?), (?, -1, 'ALL', ?), (?, -1, 'ALL', ?)",
+                userId, longAgo, userId, longAgo, userId, longAgo, userId, now);
+
+        janitorService.runAll();
+
+        assertThat(jdbcTemplate.queryForList("SELECT token FROM password_reset_tokens WHERE user_id = ?", String.class, userId))
+                .containsExactly("janitor-live");
+        assertThat(jdbcTemplate.queryForList("SELECT dismissed_date FROM routine_prompt_dismissals WHERE user_id = ?", Date.class, userId))
+                .containsExactly(Date.valueOf(today));
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM routine_completions WHERE routine_id = ? AND date = ?",
+                String.class, routineId, Date.valueOf(today.minusDays(400)))).isEqualTo("ABANDONED");
+        assertThat(jdbcTemplate.queryForList("SELECT seq FROM change_log WHERE user_id = ? AND seq < 0", Long.class, userId))
+                .containsExactly(-1L, -1L);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Number> lastRun = (Map<String, Number>) janitorService.getStats().get("lastRun");
+        assertThat(lastRun.get("passwordResetTokens").intValue()).isEqualTo(1);
+        assertThat(lastRun.get("routinePromptDismissals").intValue()).isEqualTo(1);
+        assertThat(lastRun.get("abandonedExecutions").intValue()).isEqualTo(1);
+        assertThat(lastRun.get("changeLogEntries").intValue()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecurringHorizonServiceTests {
+
+    private static final String EMAIL = "recurring-horizon@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RecurringHorizonService recurringHorizonService;
+
+    @Test
+    void recurringHorizonServesFutureDaysFromRows() throws Exception {
+        LocalDate today = LocalDate.now(ZoneId.of("UTC"));
+        new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        LocalDate date = today.plusDays(5);
+        MockHttpServletRequestBuilder dayView = get("/api/todos").param("date", date.toString()).with(user(EMAIL));
+
+        // Users of other tests in the same context get a horizon far enough already, which keeps
+        // their days as those tests expect
+        jdbcTemplate.update("UPDATE users SET recurring_horizon = ? WHERE email <> ?", Date.valueOf(today.plusYears(1)), EMAIL);
+        ReflectionTestUtils.setField(recurringHorizonService, "horizonDays", 14);
+        try {
+            for (String text : List.of("Water plants every day", "Stretch every day")) {
+                mockMvc.perform(post("/api/todos").with(user(EMAIL)).contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"text\":\"" + text + "\",\"assignedDate\":\"" + today + "\"}"))
+                        .andExpect(status().isOk());
+            }
+            // Today's view rolls the user over, which makes them active for the worker
+            mockMvc.perform(get("/api/todos").param("date", today.toString()).with(user(EMAIL)))
+                    .andExpect(status().isOk());
+            mockMvc.perform(dayView)
+                    .andExpect(jsonPath("$[*].isVirtual").value(contains(true, true)));
+
+            recurringHorizonService.extendHorizons();
+            mockMvc.perform(dayView).andExpect(status().isOk());
+            statistics.clear();
+            mockMvc.perform(dayView)
+                    .andExpect(jsonPath("$[*].text").value(contains("Water plants", "Stretch")))
+                    .andExpect(jsonPath("$[*].isVirtual").value(contains(false, false)));
+            assertThat(statistics.getPrepareStatementCount()).as("day view inside the horizon SQL statements").isLessThanOrEqualTo(4);
+
+            // A new pattern drops the horizon: views expand it virtually until the next run materializes it
+            mockMvc.perform(post("/api/todos").with(user(EMAIL)).contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"text\":\"Read every day\",\"assignedDate\":\"" + today + "\"}"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(dayView)
+                    .andExpect(jsonPath("$[*].text").value(contains("Read", "Water plants", "Stretch")))
+                    .andExpect(jsonPath("$[*].isVirtual").value(contains(true, false, false)));
+            recurringHorizonService.extendHorizons();
+            String body = mockMvc.perform(dayView)
+                    .andExpect(jsonPath("$[*].text").value(contains("Read", "Water plants", "Stretch")))
+                    .andExpect(jsonPath("$[*].position").value(contains(1, 2, 3)))
+                    .andExpect(jsonPath("$[*].isVirtual").value(contains(false, false, false)))
+                    .andReturn().getResponse().getContentAsString();
+
+            // A client that still shows it as virtual deletes the materialized instance
+            Number readPattern = JsonPath.read(body, "$[0].recurringTodoId");
+            mockMvc.perform(delete("/api/todos/virtual").with(user(EMAIL))
+                            .param("recurringTodoId", readPattern.toString())
+                            .param("instanceDate", date.toString()))
+                    .andExpect(status().isOk());
+            mockMvc.perform(dayView)
+                    .andExpect(jsonPath("$[*].text").value(contains("Water plants", "Stretch")))
+                    .andExpect(jsonPath("$[*].position").value(contains(1, 2)));
+        } finally {
+            ReflectionTestUtils.setField(recurringHorizonService, "horizonDays", 0);
+            jdbcTemplate.update("UPDATE users SET recurring_horizon = NULL");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RolloverServiceTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RolloverService rolloverService;
+
+    @Autowired
+    private RolloverTracker rolloverTracker;
+
+    private Statistics statistics;
+    private Long userId;
+    private LocalDate today;
+
+    @BeforeAll
+    void rollOverUser() {
+        today = LocalDate.now(ZoneId.of("UTC"));
+        userId = new SyntheticDataSeeder(jdbcTemplate).seedUser("rollover-tracker@todue.test");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        rolloverService.performRollover(userId, today);
+    }
+
+    @Test
+    void rolloverCheckIsAnsweredFromWarmedTracker() {
+        statistics.clear();
+        rolloverTracker.warmUp();
+        assertThat(statistics.getPrepareStatementCount()).as("warm-up SQL statements").isEqualTo(1);
+        assertThat(rolloverTracker.get(userId)).isEqualTo(today);
+
+        statistics.clear();
+        assertThat(rolloverService.shouldTriggerRollover(userId, today, today)).isFalse();
+        assertThat(rolloverService.shouldTriggerRollover(userId, today.plusDays(1), today.plusDays(1))).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).as("rollover check SQL statements").isZero();
+    }
+
+    @Test
+    void rolloverAlreadyClaimedTodayStopsAtTheClaim() {
+        // Today's rollover is already claimed on the users row, running it again (as a node with a
+        // stale tracker would) stops at the claim
+        statistics.clear();
+        rolloverService.performRollover(userId, today);
+        assertThat(statistics.getPrepareStatementCount()).as("claimed rollover SQL statements").isEqualTo(2);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SearchServiceTests {
+
+    private static final String EMAIL = "search@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Test
+    void searchFollowsEditsWithoutRebuilding() throws Exception {
+        new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        LocalDate date = LocalDate.now(ZoneId.of("UTC")).plusDays(45);
+        String created = mockMvc.perform(post("/api/todos").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Renew zephyr passport\",\"assignedDate\":\"" + date + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Number todoId = JsonPath.read(created, "$.id");
+
+        // Prefixes of any of the words, in any case
+        mockMvc.perform(get("/api/search").param("q", "zeph PASS").with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todoMatches").value(1))
+                .andExpect(jsonPath("$.todos[0].id").value(todoId.longValue()));
+
+        long builds = ((Number) searchService.getStats().get("builds")).longValue();
+        mockMvc.perform(put("/api/todos/" + todoId + "/text").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Renew quillwort passport\"}"))
+                .andExpect(status().isOk());
+        String list = mockMvc.perform(post("/api/later-lists").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"listName\":\"Garden\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Number listId = JsonPath.read(list, "$.id");
+        mockMvc.perform(post("/api/later-lists/" + listId + "/todos").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Quillwort seeds\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/search").param("q", "zephyr").with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todoMatches").value(0));
+        mockMvc.perform(get("/api/search").param("q", "quill").with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todos[0].id").value(todoId.longValue()))
+                .andExpect(jsonPath("$.todos[0].text").value("Renew quillwort passport"))
+                .andExpect(jsonPath("$.laterListTodos[0].listId").value(listId.longValue()))
+                .andExpect(jsonPath("$.laterListTodos[0].todo.text").value("Quillwort seeds"));
+        assertThat(((Number) searchService.getStats().get("builds")).longValue()).isEqualTo(builds);
+    }
+}
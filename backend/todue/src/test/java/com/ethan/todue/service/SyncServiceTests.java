@@ -0,0 +1,62 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SyncServiceTests {
+
+    private static final String EMAIL = "sync@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void syncReturnsOnlyChangedScopes() throws Exception {
+        new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        LocalDate date = LocalDate.now(ZoneId.of("UTC")).plusDays(40);
+        String bootstrap = mockMvc.perform(get("/api/sync").with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullResync").value(true))
+                .andReturn().getResponse().getContentAsString();
+        long cursor = ((Number) JsonPath.read(bootstrap, "$.cursor")).longValue();
+
+        mockMvc.perform(post("/api/todos").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Sync check\",\"assignedDate\":\"" + date + "\"}"))
+                .andExpect(status().isOk());
+
+        String body = mockMvc.perform(get("/api/sync").param("since", Long.toString(cursor)).with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long next = ((Number) JsonPath.read(body, "$.cursor")).longValue();
+        assertThat(next).isGreaterThan(cursor);
+        assertThat((Boolean) JsonPath.read(body, "$.fullResync")).isFalse();
+        assertThat((Map<String, ?>) JsonPath.read(body, "$.todos")).containsOnlyKeys(date.toString());
+        assertThat(JsonPath.<String>read(body, "$.todos['" + date + "'][0].text")).isEqualTo("Sync check");
+    }
+}
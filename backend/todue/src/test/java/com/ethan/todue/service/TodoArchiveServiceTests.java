@@ -0,0 +1,89 @@
+package com.ethan.todue.service;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TodoArchiveServiceTests {
+
+    private static final String EMAIL = "archive@todue.test";
+    private static final String STRANGER = "archive-stranger@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TodoArchiveService todoArchiveService;
+
+    @Test
+    void archivedDayViewIsTransparent() throws Exception {
+        LocalDate today = LocalDate.now(ZoneId.of("UTC"));
+        LocalDate date = today.minusDays(300);
+        SyntheticDataSeeder seeder = new SyntheticDataSeeder(jdbcTemplate);
+        Long userId = seeder.seedUser(EMAIL);
+        seeder.seedUser(STRANGER);
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp completedAt = Timestamp.from(date.atTime(9, 0).toInstant(ZoneOffset.UTC));
+        for (int position = 1; position <= 2; position++) {
+            jdbcTemplate.update("INSERT INTO todos (user_id, text, assigned_date, instance_date, position, " +
+                    "is_completed, completed_at, is_rolled_over, version, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, TRUE, ?, FALSE, 0, ?, ?)", userId, "Old " + position, Date.valueOf(date),
+                    Date.valueOf(date), position, completedAt, now, now);
+        }
+        String before = dayView(date);
+
+        assertThat(todoArchiveService.archiveCompletedBefore(today.minusDays(200))).isGreaterThanOrEqualTo(2);
+        // Only users with archived todos get their views pointed at the archive
+        assertThat(jdbcTemplate.queryForObject("SELECT archived_through FROM users WHERE email = ?",
+                Date.class, STRANGER)).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT archived_through FROM users WHERE email = ?",
+                Date.class, EMAIL)).isEqualTo(Date.valueOf(today.minusDays(201)));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos WHERE user_id = ? AND assigned_date = ?",
+                Integer.class, userId, Date.valueOf(date))).isZero();
+        assertThat(dayView(date)).isEqualTo(before);
+
+        // Changing an archived todo brings it back under the same id - for its owner only
+        Number archivedId = JsonPath.read(before, "$[0].id");
+        mockMvc.perform(post("/api/todos/" + archivedId + "/uncomplete").with(user(STRANGER)))
+                .andExpect(status().isBadRequest());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos WHERE id = ?",
+                Integer.class, archivedId.longValue())).isZero();
+
+        mockMvc.perform(post("/api/todos/" + archivedId + "/uncomplete").with(user(EMAIL)))
+                .andExpect(status().isOk());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos WHERE id = ?",
+                Integer.class, archivedId.longValue())).isEqualTo(1);
+        assertThat(JsonPath.<Integer>read(dayView(date), "$.length()")).isEqualTo(2);
+    }
+
+    private String dayView(LocalDate date) throws Exception {
+        return mockMvc.perform(get("/api/todos").param("date", date.toString()).with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
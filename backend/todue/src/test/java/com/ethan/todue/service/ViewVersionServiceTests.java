@@ -0,0 +1,58 @@
+package com.ethan.todue.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ViewVersionServiceTests {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 2);
+
+    private ViewVersionService viewVersionService;
+
+    @BeforeEach
+    void setUp() {
+        viewVersionService = new ViewVersionService();
+        ReflectionTestUtils.setField(viewVersionService, "maxUsers", 2);
+        ReflectionTestUtils.setField(viewVersionService, "expireHours", 24);
+    }
+
+    @Test
+    void keepsOnlyTheMostRecentlyUsedUsers() {
+        for (long userId = 1; userId <= 5; userId++) {
+            viewVersionService.todosChanged(userId, DATE);
+        }
+        assertThat(viewVersionService.size()).isEqualTo(2);
+    }
+
+    @Test
+    void droppedUsersNeverMatchAnOldTag() {
+        String untouched = tag(1L);
+        viewVersionService.todosChanged(1L, DATE);
+        String changed = tag(1L);
+        long since = viewVersionService.currentVersion();
+
+        // Two other users push user 1 out
+        viewVersionService.todosChanged(2L, DATE);
+        viewVersionService.todosChanged(3L, DATE);
+
+        assertThat(tag(1L)).isNotIn(untouched, changed);
+        assertThat(viewVersionService.changesSince(1L, since).all()).isTrue();
+    }
+
+    @Test
+    void expiresUnusedUsers() {
+        viewVersionService.todosChanged(1L, DATE);
+        ReflectionTestUtils.setField(viewVersionService, "expireHours", -1);
+        viewVersionService.purgeExpired();
+        assertThat(viewVersionService.size()).isZero();
+    }
+
+    private String tag(Long userId) {
+        return viewVersionService.todosETag(userId, DATE, DATE, DATE);
+    }
+}
@@ -0,0 +1,230 @@
+package com.ethan.todue.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds a synthetic heavy user straight through JDBC so that the integration tests
+ * exercise the endpoints against realistic data volumes without paying for JPA inserts.
+ *
+ * Volumes: 200 recurring rules, 5,000 todos spread over the past year plus the coming week,
+ * 10 later lists of 50 items, and 30 routines of 6 steps with a year of completion history.
+ */
+public class SyntheticDataSeeder {
+
+    public static final int RECURRING_RULES = 200;
+    public static final int TODOS = 5_000;
+    public static final int LATER_LISTS = 10;
+    public static final int LATER_LIST_TODOS_PER_LIST = 50;
+    public static final int ROUTINES = 30;
+    public static final int STEPS_PER_ROUTINE = 6;
+    public static final int HISTORY_DAYS = 365;
+
+    private static final String[] RECURRENCE_TYPES = {"DAILY", "WEEKLY", "BIWEEKLY", "MONTHLY", "YEARLY"};
+    private static final int TODAY_TODOS = 25;
+    private static final int FUTURE_DAYS = 7;
+    private static final int FUTURE_TODOS_PER_DAY = 5;
+
+    private final JdbcTemplate jdbc;
+
+    public SyntheticDataSeeder(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Result of seeding, holding the ids the tests need to address individual rows.
+     */
+    public record SeededUser(
+            Long userId,
+            String email,
+            List<Long> recurringTodoIds,
+            List<Long> todayTodoIds,
+            List<Long> laterListIds,
+            List<Long> routineIds
+    ) {}
+
+    /**
+     * A user without any data and not yet rolled over, for tests that only need an account of their own.
+     */
+    public Long seedUser(String email) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.update("INSERT INTO users (email, password_hash, timezone, email_verified, created_at, updated_at) " +
+                "VALUES (?, ?, 'UTC', TRUE, ?, ?)", email, "{noop}unused", now, now);
+        return jdbc.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+    }
+
+    public SeededUser seedHeavyUser(String email, LocalDate today) {
+        Timestamp now = Timestamp.from(Instant.now());
+
+        // User - lastRolloverDate is set so the first day view doesn't roll over the seeded history
+        jdbc.update("INSERT INTO users (email, password_hash, timezone, email_verified, last_rollover_date, created_at, updated_at) " +
+                "VALUES (?, ?, 'UTC', TRUE, ?, ?, ?)", email, "{noop}unused", now, now, now);
+        Long userId = jdbc.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+
+        List<Long> recurringIds = seedRecurringTodos(userId, today, now);
+        seedSkips(recurringIds, today, now);
+        List<Long> todayTodoIds = seedTodos(userId, recurringIds, today, now);
+        List<Long> laterListIds = seedLaterLists(userId, now);
+        List<Long> routineIds = seedRoutines(userId, today, now);
+
+        return new SeededUser(userId, email, recurringIds, todayTodoIds, laterListIds, routineIds);
+    }
+
+    private List<Long> seedRecurringTodos(Long userId, LocalDate today, Timestamp now) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < RECURRING_RULES; i++) {
+            LocalDate startDate = today.minusDays(i % HISTORY_DAYS);
+            // Every 10th rule has already ended so the active-rule filter has something to discard
+            Date endDate = i % 10 == 9 ? Date.valueOf(today.minusDays(1)) : null;
+            rows.add(new Object[]{userId, "Recurring " + i, RECURRENCE_TYPES[i % RECURRENCE_TYPES.length],
+                    Date.valueOf(startDate), endDate, now, now});
+        }
+        jdbc.batchUpdate("INSERT INTO recurring_todos (user_id, text, recurrence_type, start_date, end_date, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        return jdbc.queryForList("SELECT id FROM recurring_todos WHERE user_id = ? ORDER BY id", Long.class, userId);
+    }
+
+    private void seedSkips(List<Long> recurringIds, LocalDate today, Timestamp now) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < recurringIds.size(); i += 4) {
+            rows.add(new Object[]{recurringIds.get(i), Date.valueOf(today.plusDays(1)), now});
+        }
+        jdbc.batchUpdate("INSERT INTO skip_recurring (recurring_todo_id, skip_date, created_at) VALUES (?, ?, ?)", rows);
+    }
+
+    private List<Long> seedTodos(Long userId, List<Long> recurringIds, LocalDate today, Timestamp now) {
+        // Daily rules are the only ones guaranteed to fire every day, so past materialized
+        // instances link to them (one instance per rule per date keeps uk_recurring_instance happy)
+        List<Long> dailyRuleIds = new ArrayList<>();
+        for (int i = 0; i < recurringIds.size(); i++) {
+            if (i % RECURRENCE_TYPES.length == 0 && i % 10 != 9) {
+                dailyRuleIds.add(recurringIds.get(i));
+            }
+        }
+
+        int futureTodos = FUTURE_DAYS * FUTURE_TODOS_PER_DAY;
+        int pastTodos = TODOS - TODAY_TODOS - futureTodos;
+        int perDay = (int) Math.ceil(pastTodos / (double) HISTORY_DAYS);
+
+        List<Object[]> rows = new ArrayList<>(TODOS);
+        int written = 0;
+        for (int day = HISTORY_DAYS; day >= 1 && written < pastTodos; day--) {
+            LocalDate date = today.minusDays(day);
+            for (int k = 0; k < perDay && written < pastTodos; k++, written++) {
+                Long recurringId = null;
+                if (k < 3 && !date.isBefore(today.minusDays(HISTORY_DAYS / 2))) {
+                    recurringId = dailyRuleIds.get(k % dailyRuleIds.size());
+                }
+                Timestamp completedAt = Timestamp.from(date.atTime(18, 0).toInstant(ZoneOffset.UTC));
+                rows.add(todoRow(userId, "Past todo " + written, date, k + 1, recurringId, true, completedAt, now));
+            }
+        }
+
+        for (int k = 0; k < TODAY_TODOS; k++) {
+            boolean completed = k >= TODAY_TODOS - 5;
+            rows.add(todoRow(userId, "Today todo " + k, today, k + 1, null, completed, completed ? now : null, now));
+        }
+
+        for (int day = 1; day <= FUTURE_DAYS; day++) {
+            for (int k = 0; k < FUTURE_TODOS_PER_DAY; k++) {
+                rows.add(todoRow(userId, "Future todo " + day + "-" + k, today.plusDays(day), k + 1, null, false, null, now));
+            }
+        }
+
+        jdbc.batchUpdate("INSERT INTO todos (user_id, text, assigned_date, instance_date, position, recurring_todo_id, " +
+                "is_completed, completed_at, is_rolled_over, version, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, FALSE, 0, ?, ?)", rows);
+
+        return jdbc.queryForList("SELECT id FROM todos WHERE user_id = ? AND assigned_date = ? ORDER BY position",
+                Long.class, userId, Date.valueOf(today));
+    }
+
+    private Object[] todoRow(Long userId, String text, LocalDate date, int position, Long recurringId,
+                             boolean completed, Timestamp completedAt, Timestamp now) {
+        return new Object[]{userId, text, Date.valueOf(date), Date.valueOf(date), position, recurringId,
+                completed, completedAt, now, now};
+    }
+
+    private List<Long> seedLaterLists(Long userId, Timestamp now) {
+        List<Object[]> lists = new ArrayList<>();
+        for (int i = 0; i < LATER_LISTS; i++) {
+            lists.add(new Object[]{userId, "List " + i, now, now});
+        }
+        jdbc.batchUpdate("INSERT INTO later_lists (user_id, list_name, created_at, updated_at) VALUES (?, ?, ?, ?)", lists);
+        List<Long> listIds = jdbc.queryForList("SELECT id FROM later_lists WHERE user_id = ? ORDER BY id", Long.class, userId);
+
+        List<Object[]> todos = new ArrayList<>();
+        for (Long listId : listIds) {
+            for (int k = 0; k < LATER_LIST_TODOS_PER_LIST; k++) {
+                boolean completed = k >= LATER_LIST_TODOS_PER_LIST - 10;
+                todos.add(new Object[]{listId, "Later " + k, completed, completed ? now : null, k + 1, now, now});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO later_list_todos (list_id, text, is_completed, completed_at, position, version, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, 0, ?, ?)", todos);
+        return listIds;
+    }
+
+    private List<Long> seedRoutines(Long userId, LocalDate today, Timestamp now) {
+        List<Object[]> routines = new ArrayList<>();
+        for (int i = 0; i < ROUTINES; i++) {
+            routines.add(new Object[]{userId, "Routine " + i, now, now});
+        }
+        jdbc.batchUpdate("INSERT INTO routines (user_id, name, created_at, updated_at) VALUES (?, ?, ?, ?)", routines);
+        List<Long> routineIds = jdbc.queryForList("SELECT id FROM routines WHERE user_id = ? ORDER BY id", Long.class, userId);
+
+        List<Object[]> steps = new ArrayList<>();
+        List<Object[]> schedules = new ArrayList<>();
+        for (int r = 0; r < routineIds.size(); r++) {
+            Long routineId = routineIds.get(r);
+            for (int s = 0; s < STEPS_PER_ROUTINE; s++) {
+                steps.add(new Object[]{routineId, "Step " + s, s == 0 ? "Notes for the first step" : null, s + 1, now, now});
+            }
+            for (int d = 0; d < 7; d++) {
+                // A third of the routines prompt every day, the rest are scheduled without prompts
+                Time promptTime = r % 3 == 0 ? Time.valueOf(LocalTime.of(7, 0)) : null;
+                schedules.add(new Object[]{routineId, d, promptTime, now, now});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO routine_steps (routine_id, text, notes, position, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", steps);
+        jdbc.batchUpdate("INSERT INTO routine_schedules (routine_id, day_of_week, prompt_time, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?)", schedules);
+
+        // A year of history per routine: one completion per day, skipping every 7th day,
+        // with every 10th run abandoned
+        List<Object[]> completions = new ArrayList<>();
+        for (Long routineId : routineIds) {
+            for (int day = HISTORY_DAYS; day >= 1; day--) {
+                if (day % 7 == 0) {
+                    continue;
+                }
+                LocalDate date = today.minusDays(day);
+                Timestamp startedAt = Timestamp.from(date.atTime(7, 0).toInstant(ZoneOffset.UTC));
+                Timestamp completedAt = Timestamp.from(date.atTime(7, 20).toInstant(ZoneOffset.UTC));
+                String status = day % 10 == 0 ? "ABANDONED" : "COMPLETED";
+                completions.add(new Object[]{routineId, userId, Date.valueOf(date), startedAt, completedAt, status, now, now});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO routine_completions (routine_id, user_id, date, started_at, completed_at, status, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", completions);
+
+        // Step completions via INSERT ... SELECT to avoid round-tripping 60k rows through the driver
+        jdbc.update("INSERT INTO routine_step_completions (completion_id, step_id, status, completed_at, created_at, updated_at) " +
+                "SELECT c.id, s.id, CASE WHEN MOD(c.id + s.position, 5) = 0 THEN 'SKIPPED' ELSE 'COMPLETED' END, " +
+                "c.completed_at, c.created_at, c.updated_at " +
+                "FROM routine_completions c JOIN routine_steps s ON s.routine_id = c.routine_id " +
+                "WHERE c.user_id = ?", userId);
+
+        return routineIds;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ethan.todue.util;
+
+import com.ethan.todue.model.RecurrenceType;
+import com.ethan.todue.model.RecurringTodo;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledRecurrenceRulesTests {
+
+    // Covers a leap day, months of every length and both year ends
+    private static final LocalDate FIRST = LocalDate.of(2027, 12, 1);
+    private static final LocalDate LAST = FIRST.plusYears(1).plusMonths(2);
+
+    private static final List<LocalDate> START_DATES = List.of(
+            LocalDate.of(2027, 12, 1),
+            LocalDate.of(2027, 12, 31),
+            LocalDate.of(2028, 1, 30),
+            LocalDate.of(2028, 2, 29),
+            LocalDate.of(2028, 3, 15),
+            LocalDate.of(2028, 6, 4)
+    );
+
+    private static final int WEEKEND = RecurrenceRule.bit(DayOfWeek.SATURDAY) | RecurrenceRule.bit(DayOfWeek.SUNDAY);
+    private static final int MONDAY_AND_THURSDAY = RecurrenceRule.bit(DayOfWeek.MONDAY) | RecurrenceRule.bit(DayOfWeek.THURSDAY);
+
+    private static final List<RecurrenceRule> RULES = List.of(
+            RecurrenceRule.of(RecurrenceType.DAILY),
+            new RecurrenceRule(RecurrenceType.DAILY, 2, 0),
+            new RecurrenceRule(RecurrenceType.DAILY, 10, 0),
+            RecurrenceRule.of(RecurrenceType.WEEKLY),
+            new RecurrenceRule(RecurrenceType.WEEKLY, 2, 0),
+            new RecurrenceRule(RecurrenceType.WEEKLY, 3, 0),
+            new RecurrenceRule(RecurrenceType.WEEKLY, 1, RecurrenceRule.MONDAY_TO_FRIDAY),
+            new RecurrenceRule(RecurrenceType.WEEKLY, 1, WEEKEND),
+            new RecurrenceRule(RecurrenceType.WEEKLY, 2, MONDAY_AND_THURSDAY),
+            RecurrenceRule.of(RecurrenceType.BIWEEKLY),
+            RecurrenceRule.of(RecurrenceType.MONTHLY),
+            RecurrenceRule.of(RecurrenceType.YEARLY)
+    );
+
+    @Test
+    void firesExactlyWhenTheCalculatorDoes() {
+        List<RecurringTodo> rules = new ArrayList<>();
+        long id = 1;
+        for (LocalDate startDate : START_DATES) {
+            for (RecurrenceRule rule : RULES) {
+                rules.add(recurringTodo(id++, rule, startDate, null));
+                rules.add(recurringTodo(id++, rule, startDate, startDate.plusDays(100)));
+            }
+        }
+        CompiledRecurrenceRules compiled = CompiledRecurrenceRules.compile(rules);
+        assertThat(compiled.size()).isEqualTo(rules.size());
+
+        int fired = 0;
+        for (LocalDate date = FIRST; !date.isAfter(LAST); date = date.plusDays(1)) {
+            List<RecurringTodo> expected = new ArrayList<>();
+            for (RecurringTodo rule : rules) {
+                boolean ended = rule.getEndDate() != null && date.isAfter(rule.getEndDate());
+                if (!ended && RecurrenceCalculator.shouldInstanceExist(rule, date)) {
+                    expected.add(rule);
+                }
+            }
+            assertThat(compiled.firingOn(date)).as("%s", date).containsExactlyElementsOf(expected);
+            fired += expected.size();
+        }
+        assertThat(fired).isPositive();
+    }
+
+    @Test
+    void compilesNoRules() {
+        assertThat(CompiledRecurrenceRules.compile(List.of()).firingOn(FIRST)).isEmpty();
+    }
+
+    private static RecurringTodo recurringTodo(Long id, RecurrenceRule rule, LocalDate startDate, LocalDate endDate) {
+        RecurringTodo recurringTodo = new RecurringTodo();
+        recurringTodo.setId(id);
+        recurringTodo.setText(rule + " from " + startDate);
+        rule.applyTo(recurringTodo);
+        recurringTodo.setStartDate(startDate);
+        recurringTodo.setEndDate(endDate);
+        return recurringTodo;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ethan.todue.util;
+
+import com.ethan.todue.model.RecurrenceType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.DayOfWeek;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecurrenceParserTests {
+
+    private static final int MONDAY = RecurrenceRule.bit(DayOfWeek.MONDAY);
+    private static final int THURSDAY = RecurrenceRule.bit(DayOfWeek.THURSDAY);
+    private static final int SUNDAY = RecurrenceRule.bit(DayOfWeek.SUNDAY);
+
+    static Stream<Arguments> phrases() {
+        return Stream.of(
+                Arguments.of("Stretch every day", "Stretch", RecurrenceType.DAILY, 1, 0),
+                Arguments.of("Stretch every other day", "Stretch", RecurrenceType.DAILY, 2, 0),
+                Arguments.of("Water cactus every 10 days", "Water cactus", RecurrenceType.DAILY, 10, 0),
+                Arguments.of("Water cactus every 1 day", "Water cactus", RecurrenceType.DAILY, 1, 0),
+                Arguments.of("Review every week", "Review", RecurrenceType.WEEKLY, 1, 0),
+                Arguments.of("Plan every other week", "Plan", RecurrenceType.WEEKLY, 2, 0),
+                Arguments.of("Plan every 2 weeks", "Plan", RecurrenceType.WEEKLY, 2, 0),
+                Arguments.of("Backups every 3 weeks", "Backups", RecurrenceType.WEEKLY, 3, 0),
+                Arguments.of("Rent every month", "Rent", RecurrenceType.MONTHLY, 1, 0),
+                Arguments.of("Taxes every year", "Taxes", RecurrenceType.YEARLY, 1, 0),
+                Arguments.of("Gym every Monday", "Gym", RecurrenceType.WEEKLY, 1, MONDAY),
+                Arguments.of("Bins every thursdays", "Bins", RecurrenceType.WEEKLY, 1, THURSDAY),
+                Arguments.of("Call home every SUNDAY", "Call home", RecurrenceType.WEEKLY, 1, SUNDAY),
+                Arguments.of("Standup every weekday", "Standup", RecurrenceType.WEEKLY, 1, RecurrenceRule.MONDAY_TO_FRIDAY),
+                Arguments.of("Standup weekdays", "Standup", RecurrenceType.WEEKLY, 1, RecurrenceRule.MONDAY_TO_FRIDAY),
+                Arguments.of("Run EVERY   Day  ", "Run", RecurrenceType.DAILY, 1, 0),
+                Arguments.of("Plan\tevery\tother\tweek", "Plan", RecurrenceType.WEEKLY, 2, 0),
+                Arguments.of("Say it every day every week", "Say it every day", RecurrenceType.WEEKLY, 1, 0)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("phrases")
+    void parsesPhrase(String text, String strippedText, RecurrenceType type, int interval, int weekdays) {
+        RecurrenceParser.RecurrenceInfo info = RecurrenceParser.parseText(text);
+        assertThat(info).as(text).isNotNull();
+        assertThat(info.getRule()).as(text).isEqualTo(new RecurrenceRule(type, interval, weekdays));
+        assertThat(info.getStrippedText()).as(text).isEqualTo(strippedText);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "", "   ", "every day", "every monday", "weekdays", "Word everyday", "Nothing every 0 days",
+            "Too far every 366 days", "Count every two days", "Run every other month", "Gym every mon",
+            "Meet every day at noon"
+    })
+    void ignoresNonPhrases(String text) {
+        assertThat(RecurrenceParser.parseText(text)).as("'%s'", text).isNull();
+    }
+
+    @Test
+    void ignoresNull() {
+        assertThat(RecurrenceParser.parseText(null)).isNull();
+    }
+
+    static Stream<Arguments> rrules() {
+        return Stream.of(
+                Arguments.of("FREQ=DAILY", RecurrenceType.DAILY, 1, 0),
+                Arguments.of("RRULE:FREQ=DAILY;UNTIL=20260521T000000", RecurrenceType.DAILY, 1, 0),
+                Arguments.of("FREQ=DAILY;INTERVAL=3", RecurrenceType.DAILY, 3, 0),
+                Arguments.of("FREQ=DAILY;BYDAY=MO,TU,WE,TH,FR", RecurrenceType.WEEKLY, 1, RecurrenceRule.MONDAY_TO_FRIDAY),
+                Arguments.of("FREQ=WEEKLY", RecurrenceType.WEEKLY, 1, 0),
+                Arguments.of("FREQ=WEEKLY;INTERVAL=2", RecurrenceType.WEEKLY, 2, 0),
+                Arguments.of("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH", RecurrenceType.WEEKLY, 2, MONDAY | THURSDAY),
+                Arguments.of("freq=weekly;byday=su;wkst=mo;count=10", RecurrenceType.WEEKLY, 1, SUNDAY),
+                Arguments.of("FREQ=MONTHLY", RecurrenceType.MONTHLY, 1, 0),
+                Arguments.of("FREQ=MONTHLY;BYMONTHDAY=15", RecurrenceType.MONTHLY, 1, 0),
+                Arguments.of("FREQ=YEARLY", RecurrenceType.YEARLY, 1, 0)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("rrules")
+    void mapsRrule(String rrule, RecurrenceType type, int interval, int weekdays) {
+        assertThat(RecurrenceParser.parseRrule(rrule)).as(rrule).isEqualTo(new RecurrenceRule(type, interval, weekdays));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "", "INTERVAL=2", "FREQ=HOURLY", "FREQ=MONTHLY;INTERVAL=2", "FREQ=MONTHLY;BYDAY=1MO",
+            "FREQ=MONTHLY;BYMONTHDAY=1,15", "FREQ=MONTHLY;BYMONTHDAY=-1", "FREQ=WEEKLY;BYMONTHDAY=15",
+            "FREQ=DAILY;INTERVAL=2;BYDAY=MO", "FREQ=WEEKLY;INTERVAL=0"
+    })
+    void rejectsUnsupportedRrules(String rrule) {
+        assertThat(RecurrenceParser.parseRrule(rrule)).as(rrule).isNull();
+    }
+
+    @Test
+    void otherWeekAndTwoWeeksFireTogether() {
+        RecurrenceRule other = RecurrenceParser.parseText("Plan every other week").getRule();
+        RecurrenceRule two = RecurrenceParser.parseText("Plan every 2 weeks").getRule();
+        RecurrenceRule imported = RecurrenceParser.parseRrule("FREQ=WEEKLY;INTERVAL=2");
+        assertThat(other).isEqualTo(two).isEqualTo(imported);
+    }
+}
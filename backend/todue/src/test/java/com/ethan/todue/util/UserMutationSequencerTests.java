@@ -0,0 +1,113 @@
+package com.ethan.todue.util;
+
+import com.ethan.todue.exception.UserBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class UserMutationSequencerTests {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void stopThreads() throws InterruptedException {
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(15, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void sameUserRunsInArrivalOrder() throws Exception {
+        Future<?> holder = hold("order@todue.test");
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        Thread[] queued = new Thread[5];
+        for (int i = 0; i < queued.length; i++) {
+            int arrival = i;
+            queued[i] = new Thread(() -> UserMutationSequencer.run("order@todue.test", () -> order.add(arrival)));
+            queued[i].start();
+            // Let each write join the lock's queue before the next one arrives
+            awaitParked(queued[i]);
+        }
+        assertThat(order).isEmpty();
+        assertThat(UserMutationSequencer.getActiveUserCount()).isEqualTo(1);
+
+        // The fair lock hands over in FIFO order once the first write finishes
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        for (Thread thread : queued) {
+            thread.join(5000);
+        }
+        assertThat(order).containsExactly(0, 1, 2, 3, 4);
+        assertThat(UserMutationSequencer.getActiveUserCount()).isZero();
+    }
+
+    @Test
+    void differentUsersDoNotBlockEachOther() throws Exception {
+        hold("busy@todue.test");
+        long waitedBefore = UserMutationSequencer.getWaitedCount();
+
+        String result = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> UserMutationSequencer.run("other@todue.test", () -> "done"));
+        assertThat(result).isEqualTo("done");
+        assertThat(UserMutationSequencer.getWaitedCount()).isEqualTo(waitedBefore);
+        assertThat(UserMutationSequencer.getActiveUserCount()).isEqualTo(1);
+    }
+
+    @Test
+    void givesUpAfterTenSeconds() throws Exception {
+        hold("stuck@todue.test");
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> UserMutationSequencer.run("stuck@todue.test", () -> "never"))
+                .isInstanceOf(UserBusyException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isBetween(Duration.ofSeconds(10), Duration.ofSeconds(13));
+        // The slot is still the holder's alone
+        assertThat(UserMutationSequencer.getActiveUserCount()).isEqualTo(1);
+    }
+
+    @Test
+    void interruptedWaitIsBusy() throws Exception {
+        hold("interrupted@todue.test");
+        Thread.currentThread().interrupt();
+
+        assertThatThrownBy(() -> UserMutationSequencer.run("interrupted@todue.test", () -> "never"))
+                .isInstanceOf(UserBusyException.class);
+        assertThat(Thread.interrupted()).isTrue();
+    }
+
+    /** Runs a write for the user on another thread that holds the slot until the test releases it. */
+    private Future<?> hold(String userKey) throws InterruptedException {
+        CountDownLatch holding = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> UserMutationSequencer.run(userKey, () -> {
+            holding.countDown();
+            try {
+                return release.await(20, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+        return holder;
+    }
+
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            assertThat(System.nanoTime()).as("write queued").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
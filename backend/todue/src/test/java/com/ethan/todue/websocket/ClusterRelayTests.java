@@ -0,0 +1,57 @@
+package com.ethan.todue.websocket;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ClusterRelayTests {
+
+    private static final String EMAIL = "cluster-relay@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterRelay clusterRelay;
+
+    @Test
+    void changesCommittedByAnotherNodeReachThisNodesViews() throws Exception {
+        Long userId = new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        clusterRelay.poll();
+        LocalDate date = LocalDate.now(ZoneId.of("UTC")).plusDays(25);
+        String etag = mockMvc.perform(get("/api/todos").param("date", date.toString()).with(user(EMAIL)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // What a write on another node leaves in the shared database (seq beyond the user's
+        // change_seq keeps it out of the sync feed)
+        jdbcTemplate.update("INSERT INTO change_log (user_id, seq, scope, scope_date, created_at) VALUES (?, ?, 'TODO_DATE', ?, CURRENT_TIMESTAMP)",
+                userId, 1_000_000L, java.sql.Date.valueOf(date));
+        mockMvc.perform(get("/api/todos").param("date", date.toString())
+                        .header("If-None-Match", etag).with(user(EMAIL)))
+                .andExpect(status().isNotModified());
+
+        clusterRelay.poll();
+        mockMvc.perform(get("/api/todos").param("date", date.toString())
+                        .header("If-None-Match", etag).with(user(EMAIL)))
+                .andExpect(status().isOk());
+    }
+}
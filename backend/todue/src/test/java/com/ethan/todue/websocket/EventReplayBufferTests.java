@@ -0,0 +1,71 @@
+package com.ethan.todue.websocket;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EventReplayBufferTests {
+
+    private static final String EMAIL = "event-replay@todue.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EventReplayBuffer eventReplayBuffer;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Test
+    void resubscribingClientsReplayOnlyMissedEvents() throws Exception {
+        Long userId = new SyntheticDataSeeder(jdbcTemplate).seedUser(EMAIL);
+        EventReplay start = eventReplayBuffer.replay(userId, null, null);
+        assertThat(start.isResync()).isFalse();
+        assertThat(start.getEvents()).isEmpty();
+
+        LocalDate date = LocalDate.now(ZoneId.of("UTC")).plusDays(35);
+        mockMvc.perform(post("/api/todos").with(user(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Replay check\",\"assignedDate\":\"" + date + "\"}"))
+                .andExpect(status().isOk());
+
+        EventReplay missed = eventReplayBuffer.replay(userId, start.getStream(), start.getLatestSeq());
+        assertThat(missed.isResync()).isFalse();
+        assertThat(missed.getEvents()).singleElement().satisfies(event -> {
+            assertThat(event.getType()).isEqualTo(WebSocketMessageType.TODOS_CHANGED);
+            assertThat(event.getSeq()).isEqualTo(start.getLatestSeq() + 1);
+            assertThat(event.getStream()).isEqualTo(start.getStream());
+        });
+        assertThat(eventReplayBuffer.replay(userId, start.getStream(), missed.getLatestSeq()).getEvents()).isEmpty();
+
+        // Unknown stream (evicted buffer, restart, other node) or more missed than buffered: refetch
+        assertThat(eventReplayBuffer.replay(userId, "elsewhere", 1L).isResync()).isTrue();
+        for (int i = 0; i < 60; i++) {
+            webSocketService.notifyLaterListChanged(userId, null, "LIST_CREATED");
+        }
+        EventReplay overflowed = eventReplayBuffer.replay(userId, start.getStream(), missed.getLatestSeq());
+        assertThat(overflowed.isResync()).isTrue();
+        assertThat(overflowed.getLatestSeq()).isEqualTo(missed.getLatestSeq() + 60);
+    }
+}
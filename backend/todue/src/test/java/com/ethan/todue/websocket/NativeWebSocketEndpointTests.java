@@ -0,0 +1,119 @@
+package com.ethan.todue.websocket;
+
+import com.ethan.todue.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.forwardedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The plain WebSocket endpoint (/ws-native) end to end: a STOMP client without SockJS connects with
+ * a JWT, subscribes to its updates and receives the notification of a todo created over REST. Its
+ * handler mapping is ordered ahead of MVC, so the SPA routes are checked to still reach index.html.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class NativeWebSocketEndpointTests {
+
+    private static final String EMAIL = "ws-native@todue.test";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Test
+    void plainStompClientReceivesUpdates() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (email, password_hash, timezone, email_verified, created_at, updated_at) " +
+                "VALUES (?, '{noop}unused', 'UTC', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", EMAIL);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, EMAIL);
+        String token = jwtUtil.generateToken(EMAIL);
+
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        LinkedBlockingQueue<Map<?, ?>> received = new LinkedBlockingQueue<>();
+        try {
+            StompSession session = client.connectAsync("ws://localhost:" + port + "/ws-native?token=" + token,
+                    new WebSocketHttpHeaders(), new StompSessionHandlerAdapter() {}).get(10, TimeUnit.SECONDS);
+            session.subscribe("/user/" + userId + "/queue/updates", new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return Map.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    received.add((Map<?, ?>) payload);
+                }
+            });
+            // SUBSCRIBE has no receipt by default; let the broker register it before notifying
+            Thread.sleep(500);
+
+            LocalDate date = LocalDate.now(ZoneId.of("UTC")).plusDays(1);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setBearerAuth(token);
+            assertThat(rest.postForEntity("/api/todos",
+                    new HttpEntity<>("{\"text\":\"Native update\",\"assignedDate\":\"" + date + "\"}", headers),
+                    String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+            Map<?, ?> update = received.poll(10, TimeUnit.SECONDS);
+            assertThat(update).as("update over /ws-native").isNotNull();
+            assertThat(update.get("type")).isEqualTo(WebSocketMessageType.TODOS_CHANGED.name());
+            assertThat(((Map<?, ?>) update.get("data")).get("date")).isEqualTo(date.toString());
+            session.disconnect();
+        } finally {
+            client.stop();
+        }
+    }
+
+    @Test
+    void spaRoutesStillReachIndex() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        for (String route : new String[]{"/settings", "/login", "/routines"}) {
+            mockMvc.perform(get(route))
+                    .andExpect(status().isOk())
+                    .andExpect(forwardedUrl("/index.html"));
+        }
+    }
+}
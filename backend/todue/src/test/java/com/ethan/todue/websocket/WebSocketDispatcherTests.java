@@ -0,0 +1,47 @@
+package com.ethan.todue.websocket;
+
+import com.ethan.todue.support.SyntheticDataSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WebSocketDispatcherTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WebSocketDispatcher webSocketDispatcher;
+
+    @Test
+    void dispatcherCollapsesABacklogIntoResync() throws Exception {
+        Long userId = new SyntheticDataSeeder(jdbcTemplate).seedUser("ws-dispatcher@todue.test");
+        long overflowsBefore = ((Number) webSocketDispatcher.getStats().get("overflows")).longValue();
+        long messagesBefore = ((Number) webSocketDispatcher.getStats().get("messagesSent")).longValue();
+
+        // Far more than one queue holds before the first drain starts
+        for (long seq = 1; seq <= 500; seq++) {
+            webSocketDispatcher.enqueue(userId,
+                    new WebSocketMessage<>(WebSocketMessageType.RECURRING_CHANGED, Map.of()).sequenced("backlog", seq));
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (((Number) webSocketDispatcher.getStats().get("queueDepth")).intValue() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Map<String, Object> stats = webSocketDispatcher.getStats();
+        assertThat(((Number) stats.get("queueDepth")).intValue()).isZero();
+        assertThat(((Number) stats.get("overflows")).longValue()).isGreaterThan(overflowsBefore);
+        assertThat(((Number) stats.get("messagesSent")).longValue() - messagesBefore).isLessThan(500);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ethan.todue.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WebSocketSessionRegistryTests {
+
+    @Autowired
+    private WebSocketSessionRegistry webSocketSessionRegistry;
+
+    @Test
+    void connectionsBeyondTheUserLimitCloseTheLeastActive() throws Exception {
+        WebSocketHandler handler = webSocketSessionRegistry.decorate(mock(WebSocketHandler.class));
+        List<WebSocketSession> connections = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            WebSocketSession session = mock(WebSocketSession.class);
+            when(session.getId()).thenReturn("limit-test-" + i);
+            when(session.getAttributes()).thenReturn(new HashMap<>(Map.of("userId", -1L)));
+            when(session.isOpen()).thenReturn(true);
+            handler.afterConnectionEstablished(session);
+            connections.add(session);
+            if (i == 0) {
+                Thread.sleep(5);
+            }
+            if (i > 0) {
+                // Everyone but the first has been heard from since
+                handler.handleMessage(session, new TextMessage("\n"));
+            }
+        }
+
+        verify(connections.get(0)).close(CloseStatus.POLICY_VIOLATION.withReason("Too many connections"));
+        for (WebSocketSession session : connections.subList(1, connections.size())) {
+            verify(session, never()).close(any());
+        }
+        for (WebSocketSession session : connections) {
+            handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        }
+        assertThat((Map<?, ?>) webSocketSessionRegistry.getStats().get("usersBySessionCount")).isEmpty();
+    }
+}
@@ -8,12 +8,14 @@ VPS_USER="ubuntu"
 VPS_HOST="129.213.58.208"
 VPS_DEST_DIR="~/deployments/td"        # Directory on VPS where the jar lives
 JAR_NAME="todue-0.1.0.jar"             # Name of the jar on the server (referenced by pm2)
+APP_DIR="$VPS_DEST_DIR/app"            # Extracted jar + lib/ + CDS archive (referenced by todue.service)
 SERVICE_NAME="todue"                   # Systemd service name
 # ---------------------
 
 echo "=========================================="
 echo "🚀 Starting Deployment Process"
 echo "=========================================="
+echo "⚠️  New scripts in backend/todue/db/migrations must already be applied (see README)"
 
 # 1. Build Frontend
 echo "📦 Building Frontend (Web)..."
@@ -40,7 +42,9 @@ cp -r web/dist/* "$STATIC_DIR/"
 echo "☕ Building Backend (Spring Boot)..."
 cd backend/todue
 # Using -DskipTests to speed up deploy, remove if you want to run tests every time
-./mvnw clean package -DskipTests
+# -Pcds also extracts the jar to target/cds and records the class data sharing archive
+./mvnw clean package -Pcds -DskipTests
+rm -f target/cds/training.log
 
 # Locate the built JAR (ignoring the .original file generated by Maven)
 BUILT_JAR=$(ls target/*.jar | grep -v '\.original$' | head -n 1)
@@ -52,6 +56,11 @@ cd ../..
 # 4. Transfer to VPS
 echo "📤 Uploading JAR and Service Files to VPS ($VPS_HOST)..."
 scp "backend/todue/$BUILT_JAR" "$VPS_USER@$VPS_HOST:$VPS_DEST_DIR/$JAR_NAME"
+ssh "$VPS_USER@$VPS_HOST" "rm -rf $APP_DIR.new"
+scp -r "backend/todue/target/cds" "$VPS_USER@$VPS_HOST:$APP_DIR.new"
+ssh "$VPS_USER@$VPS_HOST" "rm -rf $APP_DIR && mv $APP_DIR.new $APP_DIR"
+# Schema changes are applied by hand before deploying (see README - Database Schema)
+scp -r "backend/todue/db/migrations" "$VPS_USER@$VPS_HOST:$VPS_DEST_DIR/"
 scp "todue.service" "$VPS_USER@$VPS_HOST:$VPS_DEST_DIR/todue.service"
 scp "todue-restart.service" "$VPS_USER@$VPS_HOST:$VPS_DEST_DIR/todue-restart.service"
 scp "todue-restart.timer" "$VPS_USER@$VPS_HOST:$VPS_DEST_DIR/todue-restart.timer"
@@ -85,10 +85,20 @@ class LaterListProvider extends ChangeNotifier with WidgetsBindingObserver {
     );
   }
 
-  // Handle WebSocket messages - only receives LATER_LIST_CHANGED
+  // Handle WebSocket messages - only receives LATER_LIST_CHANGED and RESYNC
   void _handleWebSocketMessage(WebSocketMessage message) {
     debugPrint('LaterListProvider WebSocket message: ${message.type}');
 
+    if (message.type == WebSocketMessageType.RESYNC) {
+      // Updates were dropped - refetch the lists and the list being viewed
+      loadLists(silent: true);
+      final currentListId = _currentListId;
+      if (currentListId != null) {
+        loadTodosForList(currentListId, silent: true);
+      }
+      return;
+    }
+
     final data = message.data;
     if (data is! Map<String, dynamic>) return;
 
@@ -108,6 +108,18 @@ class RoutineProvider extends ChangeNotifier with WidgetsBindingObserver {
         return;
       }
 
+      if (message.type == WebSocketMessageType.RESYNC) {
+        // Updates were dropped - refetch everything this provider shows
+        loadRoutines(silent: true);
+        loadPendingPrompts();
+        final currentRoutineId = _currentRoutineId;
+        if (currentRoutineId != null) {
+          loadRoutineDetail(currentRoutineId, silent: true);
+          loadActiveExecution(currentRoutineId);
+        }
+        return;
+      }
+
       switch (action) {
         case 'ROUTINE_CREATED':
         case 'ROUTINE_UPDATED':
@@ -207,7 +207,7 @@ class TodoProvider extends ChangeNotifier with WidgetsBindingObserver {
     notifyListeners();
   }
 
-  // Handle WebSocket messages - only receives TODOS_CHANGED and RECURRING_CHANGED
+  // Handle WebSocket messages - only receives TODOS_CHANGED, RECURRING_CHANGED and RESYNC
   void _handleWebSocketMessage(WebSocketMessage message) async {
     print('TodoProvider WebSocket message: ${message.type}');
 
@@ -227,8 +227,9 @@ class TodoProvider extends ChangeNotifier with WidgetsBindingObserver {
           }
         }
       }
-    } else if (message.type == WebSocketMessageType.RECURRING_CHANGED) {
-      // Recurring pattern changed - refetch all loaded dates to update virtual todos
+    } else if (message.type == WebSocketMessageType.RECURRING_CHANGED ||
+        message.type == WebSocketMessageType.RESYNC) {
+      // Recurring pattern changed, or updates were dropped - refetch all loaded dates
       _todos.keys.toList().forEach((dateStr) {
         try {
           final date = DateTime.parse(dateStr);
@@ -10,6 +10,7 @@ enum WebSocketMessageType {
   RECURRING_CHANGED,    // Recurring pattern changed - refetch all visible dates
   LATER_LIST_CHANGED,   // Later list changed - refetch that list
   ROUTINE_CHANGED,      // Routine changed - refetch routine(s)
+  RESYNC,               // Updates were dropped - refetch everything
 }
 
 class WebSocketMessage {
@@ -110,11 +111,12 @@ heart-beat:10000,10000
     _subscribeToUserChannel(userId);
   }
 
-  /// Subscribe to user-specific channel
+  /// Subscribe to user-specific channel. The batch destination carries each
+  /// run of updates as one JSON array frame.
   void _subscribeToUserChannel(int userId) {
     final subscribeFrame = '''SUBSCRIBE
 id:sub-0
-destination:/user/$userId/queue/updates
+destination:/user/$userId/queue/updates.batch
 
 \x00''';
 
@@ -138,10 +140,15 @@ destination:/user/$userId/queue/updates
           final body = parts[1].replaceAll('\x00', '');
 
           if (body.isNotEmpty) {
-            final json = jsonDecode(body) as Map<String, dynamic>;
-            final wsMessage = WebSocketMessage.fromJson(json);
-
-            _routeMessage(wsMessage);
+            final messages = jsonDecode(body) as List<dynamic>;
+            for (final json in messages.cast<Map<String, dynamic>>()) {
+              // Skip types this version doesn't know rather than the rest of the batch
+              if (!WebSocketMessageType.values.any((e) => e.name == json['type'])) {
+                print('Unknown WebSocket message type: ${json['type']}');
+                continue;
+              }
+              _routeMessage(WebSocketMessage.fromJson(json));
+            }
           }
         }
       } else if (messageStr.startsWith('CONNECTED')) {
@@ -154,12 +161,14 @@ destination:/user/$userId/queue/updates
     }
   }
 
-  /// Route incoming message to appropriate handlers based on type
+  /// Route incoming message to appropriate handlers based on type.
+  /// RESYNC goes to every handler, since each one has to refetch its own data.
   void _routeMessage(WebSocketMessage message) {
     bool handled = false;
 
     for (final subscription in _typedSubscriptions.values) {
-      if (subscription.types.contains(message.type)) {
+      if (message.type == WebSocketMessageType.RESYNC ||
+          subscription.types.contains(message.type)) {
         subscription.callback(message);
         handled = true;
       }
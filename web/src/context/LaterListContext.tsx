@@ -404,11 +404,20 @@ export const LaterListProvider: React.FC<LaterListProviderProps> = ({ children }
     setError(null);
   };
 
-  // WebSocket message handler - only receives LATER_LIST_CHANGED
+  // WebSocket message handler - only receives LATER_LIST_CHANGED and RESYNC
   const handleWebSocketMessage = useCallback(
     (message: WebSocketMessage): void => {
       console.log('LaterListContext WebSocket message:', message.type, message.data);
 
+      if (message.type === WebSocketMessageType.RESYNC) {
+        // Updates were dropped - refetch the lists and the list being viewed
+        loadLists(true);
+        if (currentListIdRef.current !== null) {
+          loadTodosForList(currentListIdRef.current, true);
+        }
+        return;
+      }
+
       const { listId, action } = message.data as { listId?: number; action: string };
 
       switch (action) {
@@ -642,6 +642,17 @@ export const RoutineProvider: React.FC<RoutineProviderProps> = ({ children }) =>
           return;
         }
 
+        if (message.type === WebSocketMessageType.RESYNC) {
+          // Updates were dropped - refetch everything this context shows
+          loadRoutines(true);
+          loadPendingPrompts();
+          if (currentRoutineIdRef.current !== null) {
+            loadRoutineDetail(currentRoutineIdRef.current, true);
+            loadActiveExecution(currentRoutineIdRef.current);
+          }
+          return;
+        }
+
         switch (action) {
           case 'ROUTINE_CREATED':
           case 'ROUTINE_UPDATED':
@@ -662,7 +673,7 @@ export const RoutineProvider: React.FC<RoutineProviderProps> = ({ children }) =>
         }
       }, 300);
     },
-    [loadRoutines, loadRoutineDetail, loadActiveExecution]
+    [loadRoutines, loadRoutineDetail, loadActiveExecution, loadPendingPrompts]
   );
 
   // ==================== Effects ====================
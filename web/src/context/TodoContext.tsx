@@ -784,7 +784,7 @@ export const TodoProvider: React.FC<TodoProviderProps> = ({ children }) => {
     });
   };
 
-  // WebSocket message handler - only receives TODOS_CHANGED and RECURRING_CHANGED
+  // WebSocket message handler - only receives TODOS_CHANGED, RECURRING_CHANGED and RESYNC
   const handleWebSocketMessage = useCallback((message: WebSocketMessage): void => {
     console.log('TodoContext WebSocket message:', message.type);
 
@@ -810,8 +810,8 @@ export const TodoProvider: React.FC<TodoProviderProps> = ({ children }) => {
           }
         }
       }
-    } else if (message.type === WebSocketMessageType.RECURRING_CHANGED) {
-      // Recurring pattern changed - refetch all currently visible dates
+    } else if (message.type === WebSocketMessageType.RECURRING_CHANGED || message.type === WebSocketMessageType.RESYNC) {
+      // Recurring pattern changed, or updates were dropped - refetch all currently visible dates
       // Use refs to get current values instead of closure values
       if (viewModeRef.current === 1) {
         loadTodosForDate(selectedDateRef.current, true);
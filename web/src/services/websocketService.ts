@@ -1,6 +1,6 @@
 import { Client, type StompSubscription } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
-import type { WebSocketMessage, WebSocketMessageType } from '../types';
+import { WebSocketMessageType, type WebSocketMessage } from '../types';
 
 const WS_URL = import.meta.env.VITE_WS_URL || 'http://localhost:8080/ws';
 
@@ -148,12 +148,13 @@ class WebSocketService {
   private setupStompSubscription(): void {
     if (!this.client || !this.userId) return;
 
-    const destination = `/user/${this.userId}/queue/updates`;
+    // The batch destination carries each run of updates as one JSON array frame
+    const destination = `/user/${this.userId}/queue/updates.batch`;
 
     this.subscription = this.client.subscribe(destination, (message) => {
       try {
-        const wsMessage: WebSocketMessage = JSON.parse(message.body);
-        this.routeMessage(wsMessage);
+        const wsMessages: WebSocketMessage[] = JSON.parse(message.body);
+        wsMessages.forEach((wsMessage) => this.routeMessage(wsMessage));
       } catch (error) {
         console.error('Error parsing WebSocket message:', error);
       }
@@ -161,13 +162,14 @@ class WebSocketService {
   }
 
   /**
-   * Route incoming message to appropriate handlers based on type
+   * Route incoming message to appropriate handlers based on type.
+   * RESYNC goes to every handler, since each one has to refetch its own data.
    */
   private routeMessage(message: WebSocketMessage): void {
     let handled = false;
 
     this.typedSubscriptions.forEach((subscription) => {
-      if (subscription.types.includes(message.type)) {
+      if (message.type === WebSocketMessageType.RESYNC || subscription.types.includes(message.type)) {
         subscription.callback(message);
         handled = true;
       }
@@ -57,6 +57,7 @@ export const WebSocketMessageType = {
   RECURRING_CHANGED: 'RECURRING_CHANGED',   // Recurring pattern changed - refetch all visible dates
   LATER_LIST_CHANGED: 'LATER_LIST_CHANGED', // Later list changed - refetch that list
   ROUTINE_CHANGED: 'ROUTINE_CHANGED',       // Routine changed - refetch routine(s)
+  RESYNC: 'RESYNC',                         // Updates were dropped - refetch everything
 } as const;
 
 export type WebSocketMessageType = typeof WebSocketMessageType[keyof typeof WebSocketMessageType];